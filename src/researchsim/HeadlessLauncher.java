@@ -0,0 +1,143 @@
+package researchsim;
+
+import javafx.application.Platform;
+import researchsim.display.FrameRenderer;
+import researchsim.logging.LatencyRecorder;
+import researchsim.scenario.Autopilot;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.UserTeam;
+import researchsim.util.BadSaveException;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Random;
+
+/**
+ * Entry point for rendering a Research Simulation to a sequence of PNG frames without the GUI.
+ * <p>
+ * The animals of the scenario are moved once per tick, and every tick (including the starting
+ * state) is written as a frame by a {@link FrameRenderer}. The JavaFX toolkit is started to
+ * draw the frames, but no window is shown. If a policy is given, every user on the map is driven by
+ * its own {@link Autopilot}, and the users take their turns as a {@link UserTeam} before the
+ * animals move each tick.
+ * <p>
+ * On a machine without a display, the toolkit can draw headless with Monocle on the class path
+ * and {@code -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw}.
+ */
+public class HeadlessLauncher {
+
+    /**
+     * Width and height of each frame, in pixels, matching the GUI's canvas.
+     * The value of this constant is {@value}
+     */
+    private static final int FRAME_SIZE = 680;
+
+    /**
+     * Output directory that stands for not rendering frames at all.
+     * The value of this constant is {@value}
+     */
+    private static final String NO_OUTPUT = "-";
+
+    /**
+     * Renders the given scenario.
+     * <p>
+     * Usage: {@code scenario_file ticks output_directory [policy [seed]]}
+     * <p>
+     * Where
+     * <ul>
+     * <li>{@code scenario_file} is the path to the file containing the scenario</li>
+     * <li>{@code ticks} is the number of times the animals are moved</li>
+     * <li>{@code output_directory} is the directory the frames are written to, or {@code -} to
+     * run without rendering</li>
+     * <li>{@code policy} (optional) drives every user on the map, one of
+     * {@link UserTeam#POLICIES}</li>
+     * <li>{@code seed} (optional) seeds the policies' own random choices, defaulting to the
+     * scenario's seed; the scenario's random number generator is left to the animals</li>
+     * </ul>
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: scenario_file ticks output_directory [policy [seed]]");
+            System.exit(1);
+        }
+        int ticks;
+        try {
+            ticks = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            System.err.println("The number of ticks must be an integer: " + args[1]);
+            System.exit(1);
+            return;
+        }
+        Long seed = null;
+        if (args.length > 4) {
+            try {
+                seed = Long.parseLong(args[4]);
+            } catch (NumberFormatException e) {
+                System.err.println("The seed must be an integer: " + args[4]);
+                System.exit(1);
+                return;
+            }
+        }
+        boolean render = !NO_OUTPUT.equals(args[2]);
+
+        if (render) {
+            Platform.startup(() -> { });
+        }
+        try (Reader reader = new FileReader(args[0])) {
+            Scenario scenario = Scenario.load(reader);
+            UserTeam team = null;
+            if (args.length > 3) {
+                team = UserTeam.ofEveryUser(scenario, args[3],
+                    new Random(seed == null ? scenario.getSeed() : seed));
+            }
+            if (render) {
+                try (FrameRenderer renderer = new FrameRenderer(new File(args[2]),
+                        FRAME_SIZE, FRAME_SIZE)) {
+                    renderer.submit(scenario);
+                    for (int i = 0; i < ticks; i++) {
+                        tick(scenario, team);
+                        renderer.submit(scenario);
+                    }
+                    renderer.flush();
+                    System.out.printf("Submitted %d frames, %d dropped%n", ticks + 1,
+                        renderer.getDroppedFrames());
+                }
+            } else {
+                for (int i = 0; i < ticks; i++) {
+                    tick(scenario, team);
+                }
+                System.out.printf("Simulated %d ticks%n", ticks);
+            }
+            if (team != null) {
+                LatencyRecorder decisions = scenario.getMonitor().getDecisionTimes();
+                System.out.printf("%d users earned %d points, %d conflicts lost, "
+                    + "decisions p50 %d us, p99 %d us%n", team.getMembers().size(),
+                    team.getPointsEarned(), team.getConflicts(),
+                    decisions.getPercentile(50) / 1000, decisions.getPercentile(99) / 1000);
+            }
+        } catch (BadSaveException | IOException | IllegalArgumentException e) {
+            System.err.println("Error running the scenario. Stack trace below:");
+            e.printStackTrace();
+            if (render) {
+                Platform.exit();
+            }
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (render) {
+            Platform.exit();
+        }
+    }
+
+    /* Lets the team (if any) take its turns, then moves the animals */
+    private static void tick(Scenario scenario, UserTeam team) {
+        if (team != null) {
+            team.takeTurns();
+        }
+        scenario.getController().move();
+    }
+}
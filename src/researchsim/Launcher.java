@@ -5,9 +5,11 @@ import javafx.application.Platform;
 import javafx.stage.Stage;
 import researchsim.display.View;
 import researchsim.display.ViewModel;
+import researchsim.scenario.ScenarioManager;
 import researchsim.util.BadSaveException;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 
 /**
@@ -15,6 +17,13 @@ import java.io.IOException;
  * @given
  */
 public class Launcher extends Application {
+
+    /**
+     * Name of the optional argument that sets the memory budget of the scenarios.
+     * The value of this constant is {@value}
+     */
+    private static final String MEMORY_BUDGET = "memory-budget";
+
     /**
      * <b>Note</b>: you do not need to write this constructor, it is generated automatically and
      * cannot be removed from the Javadoc.
@@ -25,19 +34,23 @@ public class Launcher extends Application {
     /**
      * Launches the GUI.
      * <p>
-     * Usage: {@code scenario_file | save_file}
+     * Usage: {@code [--memory-budget=bytes] scenario_file | save_file}
      * <p>
      * Where
      * <ul>
      * <li>{@code scenario_file} or {@code save_file} is the path to the file containing the
      * scenario</li>
+     * <li>{@code bytes} (optional) is the estimated memory the loaded scenarios may use before
+     * the least recently used are unloaded (see {@link ScenarioManager#setMemoryBudget(long)});
+     * by default none are unloaded</li>
      * </ul>
      * @param args command line arguments
      * @given
      */
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.err.println("Usage: scenario_file [scenario_file] \n");
+        //the named arguments, such as the memory budget, are not files
+        if (Arrays.stream(args).allMatch(arg -> arg.startsWith("--"))) {
+            System.err.println("Usage: [--memory-budget=bytes] scenario_file [scenario_file] \n");
             System.err.println("You did not specify the names of the required save files"
                 + " from which to load.");
             System.err.println("To do this, you need to add the command line "
@@ -57,9 +70,22 @@ public class Launcher extends Application {
      */
     @Override
     public void start(Stage stage) {
+        String budget = getParameters().getNamed().get(MEMORY_BUDGET);
+        if (budget != null) {
+            try {
+                ScenarioManager.getInstance().setMemoryBudget(Long.parseLong(budget));
+            } catch (IllegalArgumentException e) {
+                System.err.println("The memory budget must be a non-negative integer: "
+                    + budget);
+                Platform.exit();
+                System.exit(1);
+                return;
+            }
+        }
+
         View view;
         try {
-            view = new View(stage, new ViewModel(getParameters().getRaw()));
+            view = new View(stage, new ViewModel(getParameters().getUnnamed()));
         } catch (BadSaveException | IOException e) {
             System.err.println("Error loading files. Stack trace below:");
             e.printStackTrace();
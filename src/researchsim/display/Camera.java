@@ -0,0 +1,247 @@
+package researchsim.display;
+
+/**
+ * Pannable, zoomable view onto the map drawn by the {@link ScenarioCanvas}.
+ * <p>
+ * The camera maps map cells to canvas pixels: a cell is {@link #getCellSize()} pixels wide and
+ * the canvas' top left corner shows the map pixel ({@link #toScreenX(int)} inverted) at the
+ * current offset. Only the cells between {@link #getFirstVisibleX()} and
+ * {@link #getLastVisibleX()} (and likewise for y) need to be drawn.
+ */
+public class Camera {
+
+    /**
+     * Smallest size of a cell, in pixels, that the camera can zoom out to.
+     * The value of this constant is {@value}
+     */
+    public static final double MIN_CELL_SIZE = 2;
+
+    /**
+     * Largest size of a cell, in pixels, that the camera can zoom in to.
+     * The value of this constant is {@value}
+     */
+    public static final double MAX_CELL_SIZE = 256;
+
+    /**
+     * Width of the view, in pixels
+     */
+    private final double viewWidth;
+
+    /**
+     * Height of the view, in pixels
+     */
+    private final double viewHeight;
+
+    /**
+     * Width of the map, in cells
+     */
+    private int mapWidth;
+
+    /**
+     * Height of the map, in cells
+     */
+    private int mapHeight;
+
+    /**
+     * Size of a cell, in pixels
+     */
+    private double cellSize;
+
+    /**
+     * Map pixel shown at the left edge of the view
+     */
+    private double offsetX;
+
+    /**
+     * Map pixel shown at the top edge of the view
+     */
+    private double offsetY;
+
+    /**
+     * Number of times the camera has moved, so that views can tell if they are stale
+     */
+    private int revision;
+
+    /**
+     * Creates a new camera for a view of the given size, showing an empty map.
+     *
+     * @param viewWidth  width of the view, in pixels
+     * @param viewHeight height of the view, in pixels
+     */
+    public Camera(double viewWidth, double viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.mapWidth = 0;
+        this.mapHeight = 0;
+        this.cellSize = MAX_CELL_SIZE;
+        this.offsetX = 0;
+        this.offsetY = 0;
+        this.revision = 0;
+    }
+
+    /**
+     * Moves the camera so that the whole map of the given size fits in the view, anchored at the
+     * top left corner.
+     *
+     * @param mapWidth  width of the map, in cells
+     * @param mapHeight height of the map, in cells
+     */
+    public void fit(int mapWidth, int mapHeight) {
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+        this.cellSize = Math.min(viewWidth / mapWidth, viewHeight / mapHeight);
+        this.offsetX = 0;
+        this.offsetY = 0;
+        this.revision++;
+    }
+
+    /**
+     * Moves the camera by the given number of pixels.
+     * <p>
+     * The camera stops once at most one cell of the map remains in view.
+     *
+     * @param dx pixels to move right
+     * @param dy pixels to move down
+     */
+    public void pan(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+        clamp();
+        revision++;
+    }
+
+    /**
+     * Zooms the camera by the given factor, keeping the map pixel under the given view position
+     * in place.
+     * <p>
+     * The cell size is kept between {@value #MIN_CELL_SIZE} and {@value #MAX_CELL_SIZE}.
+     *
+     * @param factor amount to multiply the cell size by (greater than 1 zooms in)
+     * @param pivotX x position in the view to zoom about
+     * @param pivotY y position in the view to zoom about
+     */
+    public void zoom(double factor, double pivotX, double pivotY) {
+        double newSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, cellSize * factor));
+        double scale = newSize / cellSize;
+        offsetX = (offsetX + pivotX) * scale - pivotX;
+        offsetY = (offsetY + pivotY) * scale - pivotY;
+        cellSize = newSize;
+        clamp();
+        revision++;
+    }
+
+    /**
+     * Returns the size of a cell, in pixels.
+     *
+     * @return cell size
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Returns the number of times the camera has moved.
+     *
+     * @return camera revision
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * Returns the view x position of the left edge of the given column.
+     *
+     * @param x column of the map
+     * @return x position in the view, in pixels
+     */
+    public double toScreenX(int x) {
+        return x * cellSize - offsetX;
+    }
+
+    /**
+     * Returns the view y position of the top edge of the given row.
+     *
+     * @param y row of the map
+     * @return y position in the view, in pixels
+     */
+    public double toScreenY(int y) {
+        return y * cellSize - offsetY;
+    }
+
+    /**
+     * Returns the column of the map under the given view x position.
+     * NB: the column may not be on the map
+     *
+     * @param screenX x position in the view, in pixels
+     * @return column of the map
+     */
+    public int toCellX(double screenX) {
+        return (int) Math.floor((screenX + offsetX) / cellSize);
+    }
+
+    /**
+     * Returns the row of the map under the given view y position.
+     * NB: the row may not be on the map
+     *
+     * @param screenY y position in the view, in pixels
+     * @return row of the map
+     */
+    public int toCellY(double screenY) {
+        return (int) Math.floor((screenY + offsetY) / cellSize);
+    }
+
+    /**
+     * Returns the leftmost column of the map that is (at least partly) in view.
+     *
+     * @return first visible column
+     */
+    public int getFirstVisibleX() {
+        return Math.max(0, toCellX(0));
+    }
+
+    /**
+     * Returns the rightmost column of the map that is (at least partly) in view.
+     *
+     * @return last visible column
+     */
+    public int getLastVisibleX() {
+        return Math.min(mapWidth - 1, toCellX(viewWidth - 1e-9));
+    }
+
+    /**
+     * Returns the top row of the map that is (at least partly) in view.
+     *
+     * @return first visible row
+     */
+    public int getFirstVisibleY() {
+        return Math.max(0, toCellY(0));
+    }
+
+    /**
+     * Returns the bottom row of the map that is (at least partly) in view.
+     *
+     * @return last visible row
+     */
+    public int getLastVisibleY() {
+        return Math.min(mapHeight - 1, toCellY(viewHeight - 1e-9));
+    }
+
+    /**
+     * Returns true if the given cell is (at least partly) in view.
+     *
+     * @param x column of the map
+     * @param y row of the map
+     * @return true if the cell is visible, false otherwise
+     */
+    public boolean isVisible(int x, int y) {
+        return x >= getFirstVisibleX() && x <= getLastVisibleX()
+            && y >= getFirstVisibleY() && y <= getLastVisibleY();
+    }
+
+    /* Keeps at least one cell of the map in view */
+    private void clamp() {
+        offsetX = Math.max(cellSize - viewWidth, Math.min(mapWidth * cellSize - cellSize, offsetX));
+        offsetY = Math.max(cellSize - viewHeight,
+            Math.min(mapHeight * cellSize - cellSize, offsetY));
+    }
+}
@@ -0,0 +1,199 @@
+package researchsim.display;
+
+import researchsim.entities.Entity;
+import researchsim.entities.Fauna;
+import researchsim.entities.Size;
+import researchsim.logging.CollectEvent;
+import researchsim.logging.Event;
+import researchsim.logging.MoveEvent;
+import researchsim.map.Coordinate;
+import researchsim.map.TileType;
+import researchsim.scenario.Scenario;
+import researchsim.util.NoSuchEntityException;
+
+import java.util.List;
+
+/**
+ * Number of animals in each square block of cells of a scenario's map, for drawing as a
+ * heatmap.
+ * <p>
+ * Only animals matching the filter (a size and/or a habitat) are counted. The counts are built
+ * from the map once, and afterwards kept up to date from the events logged since the last
+ * update: a move shifts one count from its starting block to its target block, and a collection
+ * removes one. They are only rebuilt from the map when the scenario, block size or filter
+ * change.
+ */
+public class DensityGrid {
+
+    /**
+     * Scenario the counts were last updated from, or null if they have never been
+     */
+    private Scenario synced;
+
+    /**
+     * Number of events in the scenario's log when the counts were last updated
+     */
+    private int syncedEvents;
+
+    /**
+     * Width and height of each block, in cells
+     */
+    private int blockSize;
+
+    /**
+     * Number of blocks across the map
+     */
+    private int blocksWide;
+
+    /**
+     * Number of blocks down the map
+     */
+    private int blocksHigh;
+
+    /**
+     * Number of animals counted in each block, by block index
+     */
+    private int[] counts;
+
+    /**
+     * Size of animal counted, or null to count every size
+     */
+    private Size sizeFilter;
+
+    /**
+     * Habitat of animal counted, or null to count every habitat
+     */
+    private TileType habitatFilter;
+
+    /**
+     * Creates a new density grid that has not counted any scenario yet.
+     */
+    public DensityGrid() {
+        this.synced = null;
+        this.syncedEvents = 0;
+        this.blockSize = 0;
+        this.blocksWide = 0;
+        this.blocksHigh = 0;
+        this.counts = new int[0];
+        this.sizeFilter = null;
+        this.habitatFilter = null;
+    }
+
+    /**
+     * Brings the counts up to date with the given scenario.
+     * <p>
+     * If the scenario is the one last counted, or a later fork of it, only the events logged
+     * since are applied. Otherwise the counts are rebuilt from the map.
+     *
+     * @param scenario  scenario to count the animals of
+     * @param blockSize width and height of each block, in cells
+     * @param size      size of animal to count, or null to count every size
+     * @param habitat   habitat of animal to count, or null to count every habitat
+     */
+    public void update(Scenario scenario, int blockSize, Size size, TileType habitat) {
+        List<Event> events = scenario.getLog().getEvents();
+        if (!scenario.isSameLineage(synced) || events.size() < syncedEvents
+                || blockSize != this.blockSize || size != sizeFilter
+                || habitat != habitatFilter) {
+            this.blockSize = blockSize;
+            this.sizeFilter = size;
+            this.habitatFilter = habitat;
+            rebuild(scenario);
+        } else {
+            for (Event event : events.subList(syncedEvents, events.size())) {
+                apply(event);
+            }
+        }
+        synced = scenario;
+        syncedEvents = events.size();
+    }
+
+    /**
+     * Returns the width and height of each block, in cells.
+     *
+     * @return block size
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the number of animals counted in the given block.
+     *
+     * @param blockX column of the block
+     * @param blockY row of the block
+     * @return number of animals in the block
+     */
+    public int getCount(int blockX, int blockY) {
+        return counts[blockX + blockY * blocksWide];
+    }
+
+    /**
+     * Returns the number of blocks across the map.
+     *
+     * @return blocks across
+     */
+    public int getBlocksWide() {
+        return blocksWide;
+    }
+
+    /**
+     * Returns the number of blocks down the map.
+     *
+     * @return blocks down
+     */
+    public int getBlocksHigh() {
+        return blocksHigh;
+    }
+
+    /* Recounts every animal on the map */
+    private void rebuild(Scenario scenario) {
+        int mapWidth = scenario.getWidth();
+        blocksWide = (scenario.getWidth() + blockSize - 1) / blockSize;
+        blocksHigh = (scenario.getHeight() + blockSize - 1) / blockSize;
+        counts = new int[blocksWide * blocksHigh];
+        for (int i = 0; i < scenario.getSize(); i++) {
+            if (scenario.getTile(i).hasContents()) {
+                try {
+                    Entity entity = scenario.getTile(i).getContents();
+                    if (counts(entity)) {
+                        counts[block(i % mapWidth, i / mapWidth)]++;
+                    }
+                } catch (NoSuchEntityException ignored) {
+                    //checked by hasContents
+                }
+            }
+        }
+    }
+
+    /* Applies the change in counts caused by an event */
+    private void apply(Event event) {
+        if (event instanceof MoveEvent && counts(event.getEntity())) {
+            add(event.getInitialCoordinate(), -1);
+            add(event.getCoordinate(), 1);
+        } else if (event instanceof CollectEvent
+                && counts(((CollectEvent) event).getTarget())) {
+            add(event.getCoordinate(), -1);
+        }
+    }
+
+    /* Adds to the count of the block holding the given coordinate */
+    private void add(Coordinate coordinate, int amount) {
+        counts[block(coordinate.getX(), coordinate.getY())] += amount;
+    }
+
+    /* Index of the block holding the given cell */
+    private int block(int x, int y) {
+        return x / blockSize + (y / blockSize) * blocksWide;
+    }
+
+    /* Whether an entity is an animal matching the filter */
+    private boolean counts(Entity entity) {
+        if (!(entity instanceof Fauna)) {
+            return false;
+        }
+        Fauna animal = (Fauna) entity;
+        return (sizeFilter == null || animal.getSize() == sizeFilter)
+            && (habitatFilter == null || animal.getHabitat() == habitatFilter);
+    }
+}
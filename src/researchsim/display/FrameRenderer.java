@@ -0,0 +1,310 @@
+package researchsim.display;
+
+import javafx.application.Platform;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioManager;
+import researchsim.util.BadSaveException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders scenario frames to a numbered sequence of PNG files without showing a Stage.
+ * <p>
+ * Each frame is drawn by an offscreen {@link ScenarioCanvas}, so it looks exactly like the GUI.
+ * {@link #submit(Scenario)} only forks the scenario ({@link Scenario#fork()}) and hands the fork
+ * over, so it never blocks the caller:
+ * <ol>
+ *     <li>the fork is drawn and snapshotted into a reused image on the JavaFX application
+ *     thread, which must already be running (see {@link Platform#startup(Runnable)});</li>
+ *     <li>its pixels are copied straight into the raster of a pooled image, which is then encoded
+ *     as a PNG on a pool of worker threads.</li>
+ * </ol>
+ * At most {@code maxPending} frames may be in flight at once; any frame submitted while the
+ * renderer is that far behind is dropped rather than delaying the caller, and counted by
+ * {@link #getDroppedFrames()}.
+ */
+public class FrameRenderer implements AutoCloseable {
+
+    /**
+     * Default number of frames that may be in flight at once.
+     * The value of this constant is {@value}
+     */
+    public static final int DEFAULT_MAX_PENDING = 16;
+
+    /**
+     * Directory the frames are written to
+     */
+    private final File directory;
+
+    /**
+     * Width of a frame, in pixels
+     */
+    private final int width;
+
+    /**
+     * Height of a frame, in pixels
+     */
+    private final int height;
+
+    /**
+     * Number of frames that may be in flight at once
+     */
+    private final int maxPending;
+
+    /**
+     * Canvas that frames are drawn on, only used on the JavaFX application thread
+     */
+    private final ScenarioCanvas canvas;
+
+    /**
+     * Scenario manager context that the canvas draws from, holding the frame being drawn
+     */
+    private final ScenarioManager context;
+
+    /**
+     * Image the canvas is snapshotted into, reused for every frame
+     */
+    private WritableImage snapshot;
+
+    /**
+     * Images that are not in use, reused so that frames do not each allocate an image and a
+     * pixel buffer
+     */
+    private final Queue<BufferedImage> freeImages;
+
+    /**
+     * Worker threads that encode and write the frames
+     */
+    private final ExecutorService encoders;
+
+    /**
+     * Number of the next frame submitted
+     */
+    private int nextFrame;
+
+    /**
+     * Number of frames submitted but not yet written (or failed)
+     */
+    private int pending;
+
+    /**
+     * Number of frames dropped because too many were in flight
+     */
+    private int dropped;
+
+    /**
+     * First failure to write a frame, or null if every frame has been written
+     */
+    private IOException failure;
+
+    /**
+     * Creates a new renderer writing frames of the given size into the given directory, using
+     * one encoding thread per available processor and allowing up to
+     * {@value #DEFAULT_MAX_PENDING} frames in flight.
+     *
+     * @param directory directory to write frames to, created if it does not exist
+     * @param width     width of a frame, in pixels
+     * @param height    height of a frame, in pixels
+     * @throws IOException      if the directory cannot be created
+     * @throws BadSaveException if the sprites cannot be loaded
+     */
+    public FrameRenderer(File directory, int width, int height)
+        throws IOException, BadSaveException {
+        this(directory, width, height, Runtime.getRuntime().availableProcessors(),
+            DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Creates a new renderer writing frames of the given size into the given directory.
+     *
+     * @param directory      directory to write frames to, created if it does not exist
+     * @param width          width of a frame, in pixels
+     * @param height         height of a frame, in pixels
+     * @param encoderThreads number of threads to encode frames on
+     * @param maxPending     number of frames that may be in flight before frames are dropped
+     * @throws IOException              if the directory cannot be created
+     * @throws BadSaveException         if the sprites cannot be loaded
+     * @throws IllegalArgumentException if encoderThreads &lt; 1 or maxPending &lt; 1
+     */
+    public FrameRenderer(File directory, int width, int height, int encoderThreads,
+                         int maxPending) throws IOException, BadSaveException {
+        if (encoderThreads < 1 || maxPending < 1) {
+            throw new IllegalArgumentException("The given thread and frame counts do not conform "
+                + "to the requirement: encoderThreads >= 1 && maxPending >= 1.");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the frame directory " + directory);
+        }
+        this.directory = directory;
+        this.width = width;
+        this.height = height;
+        this.maxPending = maxPending;
+        this.canvas = new ScenarioCanvas(new ViewModel(), width, height);
+        this.context = ScenarioManager.createContext();
+        this.snapshot = null;
+        this.freeImages = new ConcurrentLinkedQueue<>();
+        this.encoders = Executors.newFixedThreadPool(encoderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "frame-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.nextFrame = 0;
+        this.pending = 0;
+        this.dropped = 0;
+        this.failure = null;
+    }
+
+    /**
+     * Queues the current state of the given scenario to be written as the next frame.
+     * <p>
+     * The scenario is forked, so it may keep changing as soon as this method returns. Every
+     * submitted frame is numbered, including dropped ones, so gaps in the file names show where
+     * frames were dropped.
+     *
+     * @param scenario scenario to render
+     * @return true if the frame was queued, false if it was dropped
+     */
+    public boolean submit(Scenario scenario) {
+        int frame;
+        synchronized (this) {
+            frame = nextFrame++;
+            if (pending >= maxPending) {
+                dropped++;
+                return false;
+            }
+            pending++;
+        }
+        Scenario fork = scenario.fork();
+        Platform.runLater(() -> render(fork, frame));
+        return true;
+    }
+
+    /**
+     * Returns the number of frames dropped so far because too many were in flight.
+     *
+     * @return number of dropped frames
+     */
+    public synchronized int getDroppedFrames() {
+        return dropped;
+    }
+
+    /**
+     * Waits until every queued frame has been written.
+     * <p>
+     * Must not be called on the JavaFX application thread, which draws the queued frames.
+     *
+     * @throws IOException          if any frame could not be written
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void flush() throws IOException, InterruptedException {
+        while (pending > 0) {
+            wait();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes every queued frame then stops the encoding threads.
+     * <p>
+     * Must not be called on the JavaFX application thread, which draws the queued frames.
+     *
+     * @throws IOException if any frame could not be written, or if interrupted while waiting
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing frames", exp);
+        } finally {
+            encoders.shutdown();
+        }
+        try {
+            encoders.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Draws the given frame and hands its pixels to the encoders.
+     * Runs on the JavaFX application thread.
+     *
+     * @param scenario fork of the scenario to draw
+     * @param frame    number of the frame
+     */
+    private void render(Scenario scenario, int frame) {
+        BufferedImage image;
+        try {
+            context.reset();
+            context.addScenario(scenario);
+            context.runInContext(canvas::draw);
+            snapshot = canvas.snapshot(null, snapshot);
+
+            image = freeImages.poll();
+            if (image == null) {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            }
+            //an INT_ARGB image stores its pixels row by row in a single int array
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            snapshot.getPixelReader().getPixels(0, 0, width, height,
+                PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        } catch (RuntimeException exp) {
+            finished(new IOException("Could not draw frame " + frame, exp));
+            return;
+        } finally {
+            //the fork is no longer needed once drawn
+            context.reset();
+        }
+
+        BufferedImage frameImage = image;
+        encoders.execute(() -> {
+            IOException frameFailure = null;
+            try {
+                write(frameImage, frame);
+            } catch (IOException exp) {
+                frameFailure = exp;
+            } finally {
+                freeImages.add(frameImage);
+                finished(frameFailure);
+            }
+        });
+    }
+
+    /**
+     * Encodes the given image as a PNG and writes it to the file of the given frame.
+     *
+     * @param image image of the frame
+     * @param frame number of the frame
+     * @throws IOException if the frame cannot be written
+     */
+    private void write(BufferedImage image, int frame) throws IOException {
+        File file = new File(directory, String.format("frame-%06d.png", frame));
+        if (!ImageIO.write(image, "png", file)) {
+            throw new IOException("No PNG writer available for " + file);
+        }
+    }
+
+    /* Marks a frame as no longer in flight, recording the first failure */
+    private synchronized void finished(IOException frameFailure) {
+        if (failure == null) {
+            failure = frameFailure;
+        }
+        pending--;
+        notifyAll();
+    }
+}
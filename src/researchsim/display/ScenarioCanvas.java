@@ -1,18 +1,19 @@
 package researchsim.display;
 
+import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
-import javafx.scene.transform.Affine;
-import javafx.scene.transform.Transform;
 import researchsim.entities.*;
 import researchsim.logging.CollectEvent;
 import researchsim.logging.Event;
+import researchsim.logging.LatencyRecorder;
 import researchsim.logging.MoveEvent;
+import researchsim.logging.PerformanceMonitor;
 import researchsim.map.Coordinate;
 import researchsim.map.Tile;
 import researchsim.map.TileType;
@@ -22,8 +23,6 @@ import researchsim.util.BadSaveException;
 import researchsim.util.CoordinateOutOfBoundsException;
 import researchsim.util.NoSuchEntityException;
 
-import java.io.File;
-import java.net.MalformedURLException;
 import java.util.*;
 
 /**
@@ -35,42 +34,148 @@ import java.util.*;
  */
 public class ScenarioCanvas extends Canvas {
 
+    /**
+     * Smallest cell size, in pixels, at which sprites, grid lines and text are drawn; below it
+     * every cell is drawn as a flat block of colour
+     */
+    private static final double SPRITE_MIN_SIZE = 12;
+
+    /**
+     * Length and half width of the head of an event arrow, in pixels
+     */
+    private static final int ARROW_HEAD_SIZE = 8;
+
+    /**
+     * Amount the camera zooms by for each step of the scroll wheel
+     */
+    private static final double ZOOM_STEP = 1.25;
+
+    /**
+     * Width of the performance metrics overlay, in pixels
+     */
+    private static final double METRICS_WIDTH = 240;
+
+    /**
+     * Height of the performance metrics overlay, in pixels
+     */
+    private static final double METRICS_HEIGHT = 232;
+
+    /**
+     * Number of bars in each histogram of the performance metrics overlay
+     */
+    private static final int HISTOGRAM_BUCKETS = 48;
+
+    /**
+     * Smallest width of a block of the density heatmap, in pixels; when cells are smaller than
+     * this, several are counted together
+     */
+    private static final double DENSITY_BLOCK_PIXELS = 4;
+
+    /**
+     * ARGB colours of the density heatmap, from the emptiest block to the fullest
+     */
+    private static final int[] DENSITY_PALETTE = createDensityPalette(256);
+
     /**
      * View model containing the main model of the application
      */
     private final ViewModel viewModel;
 
     /**
-     * Mapping of clickable regions (rectangles) to entities drawn on the canvas
+     * Highlight state of a cell that is not highlighted
      */
-    private final Map<ClickableRegion, Entity> drawnEntity;
+    private static final byte NO_HIGHLIGHT = 0;
 
     /**
-     * Mapping of clickable regions (rectangles) to users move areas on the canvas
+     * Highlight state of a cell the selected entity can move to
      */
-    private final Map<ClickableRegion, Coordinate> drawnMove;
+    private static final byte MOVE_HIGHLIGHT = 1;
 
     /**
-     * Mapping of clickable regions (rectangles) to users collection areas on the canvas
+     * Highlight state of a cell the selected user can collect from
      */
-    private final Map<ClickableRegion, Coordinate> drawnCollect;
+    private static final byte COLLECT_HIGHLIGHT = 2;
 
     /**
-     * Sprites for the specific tile types, sprites are loaded on first use
+     * Highlight state of every cell of the map, by grid index.
+     * A click on a highlighted cell moves or collects rather than selecting its entity.
      */
-    private Map<TileType, Image> tileSprites;
+    private byte[] cellHighlights;
+
     /**
-     * Sprites for the specific plants, sprites are loaded on first use
+     * Atlas holding every sprite, pre-scaled to the grid size
      */
-    private Map<Size, Image> plantSprites;
+    private final SpriteAtlas atlas;
+
     /**
-     * Sprites for the specific plants, sprites are loaded on first use
+     * Camera deciding which part of the map is shown, and at what size
      */
-    private Map<Size, Map<TileType, Image>> animalSprites;
+    private final Camera camera;
+
     /**
-     * Sprite for the user, sprites are loaded on first use
+     * Pre-rendered terrain layer (tile sprites, grid lines and coordinates) of the cells in view,
+     * rebuilt only when the scenario, the camera, the canvas size or the grid options change
      */
-    private Image userSprite;
+    private WritableImage terrainLayer;
+
+    /**
+     * Scenario drawn by the last frame, a different scenario requires a full redraw
+     */
+    private Scenario drawnScenario;
+    /**
+     * Number of the scenario's events that had been logged when the last frame was drawn
+     */
+    private int drawnEvents;
+    /**
+     * Whether the grid was shown when the last frame was drawn
+     */
+    private boolean drawnShowGrid;
+    /**
+     * Whether the grid coordinates were shown when the last frame was drawn
+     */
+    private boolean drawnShowCoordinate;
+    /**
+     * Whether the performance metrics were shown when the last frame was drawn
+     */
+    private boolean drawnShowMetrics;
+    /**
+     * Whether the density heatmap was shown when the last frame was drawn
+     */
+    private boolean drawnShowDensity;
+    /**
+     * Number of animals in each block of the map, for the density heatmap
+     */
+    private final DensityGrid density;
+    /**
+     * Image holding one pixel per visible block of the density heatmap, reused between frames
+     */
+    private WritableImage densityImage;
+    /**
+     * Pixels written to the density image, reused between frames
+     */
+    private int[] densityPixels;
+    /**
+     * Revision of the camera when the last frame was drawn
+     */
+    private int drawnCamera;
+    /**
+     * Whether clicks on the map select entities, move or collect
+     */
+    private boolean interactive;
+    /**
+     * Last position of the mouse while the map is being dragged
+     */
+    private double dragX;
+    private double dragY;
+    /**
+     * Grid indices of the cells covered by the event arrows and range highlights drawn over the
+     * last frame, which must be repainted to erase them
+     */
+    private final Set<Integer> overlayCells;
+    /**
+     * Durations of drawing the latest frames of this canvas
+     */
+    private final LatencyRecorder frameTimes = new LatencyRecorder(PerformanceMonitor.WINDOW);
 
     /**
      * Creates a new PortCanvas with the given dimensions.
@@ -86,106 +191,71 @@ public class ScenarioCanvas extends Canvas {
 
         this.viewModel = viewModel;
 
-        this.drawnEntity = new HashMap<>();
-        this.drawnMove = new HashMap<>();
-        this.drawnCollect = new HashMap<>();
-        // Sprite creation
-        tileSprites = new HashMap<>();
-        plantSprites = new HashMap<>();
-        animalSprites = new HashMap<>();
-
-        HashMap<TileType, Image> smallAnimalSprites = new HashMap<>();
-        HashMap<TileType, Image> mediumAnimalSprites = new HashMap<>();
-        HashMap<TileType, Image> largeAnimalSprites = new HashMap<>();
-        HashMap<TileType, Image> giantAnimalSprites = new HashMap<>();
-        try {
-            userSprite = new Image(new File("assets/user.png").toURI().toURL().toString());
-
-            tileSprites.put(TileType.LAND,
-                new Image(new File("assets/land.png").toURI().toURL().toString()));
-            tileSprites.put(TileType.OCEAN,
-                new Image(new File("assets/ocean.png").toURI().toURL().toString()));
-            tileSprites.put(TileType.SAND,
-                new Image(new File("assets/sand.png").toURI().toURL().toString()));
-            tileSprites.put(TileType.MOUNTAIN,
-                new Image(new File("assets/mountain.png").toURI().toURL().toString()));
-
-            smallAnimalSprites.put(TileType.OCEAN,
-                new Image(new File("assets/crab.png").toURI().toURL().toString()));
-            smallAnimalSprites.put(TileType.LAND,
-                new Image(new File("assets/mouse.png").toURI().toURL().toString()));
-
-            animalSprites.put(Size.SMALL, smallAnimalSprites);
-
-            mediumAnimalSprites.put(TileType.OCEAN,
-                new Image(new File("assets/fish.png").toURI().toURL().toString()));
-            mediumAnimalSprites.put(TileType.LAND,
-                new Image(new File("assets/dog.png").toURI().toURL().toString()));
-
-            animalSprites.put(Size.MEDIUM, mediumAnimalSprites);
-
-            largeAnimalSprites.put(TileType.OCEAN,
-                new Image(new File("assets/shark.png").toURI().toURL().toString()));
-            largeAnimalSprites.put(TileType.LAND,
-                new Image(new File("assets/horse.png").toURI().toURL().toString()));
-
-            animalSprites.put(Size.LARGE, largeAnimalSprites);
-
-            giantAnimalSprites.put(TileType.OCEAN,
-                new Image(new File("assets/whale.png").toURI().toURL().toString()));
-            giantAnimalSprites.put(TileType.LAND,
-                new Image(new File("assets/elephant.png").toURI().toURL().toString()));
-
-            animalSprites.put(Size.GIANT, giantAnimalSprites);
-
-            plantSprites.put(Size.SMALL,
-                new Image(new File("assets/flower.png").toURI().toURL().toString()));
-            plantSprites.put(Size.MEDIUM,
-                new Image(new File("assets/shrub.png").toURI().toURL().toString()));
-            plantSprites.put(Size.LARGE,
-                new Image(new File("assets/sapling.png").toURI().toURL().toString()));
-            plantSprites.put(Size.GIANT,
-                new Image(new File("assets/tree.png").toURI().toURL().toString()));
-
-        } catch (MalformedURLException e) {
-            throw new BadSaveException("Missing the required \"assets\" folder.\nGo to Blackboard"
-                + " (learn.uq.edu.au) to download this folder.");
-        }
+        this.cellHighlights = new byte[0];
+        this.overlayCells = new HashSet<>();
+        this.atlas = new SpriteAtlas();
+        this.camera = new Camera(width, height);
+        this.interactive = true;
+        this.density = new DensityGrid();
+        this.densityPixels = new int[0];
+
+        /* Zoom about the cursor with the scroll wheel */
+        setOnScroll(event -> {
+            if (event.getDeltaY() == 0 || drawnScenario == null) {
+                return;
+            }
+            camera.zoom(event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP,
+                event.getX(), event.getY());
+            viewModel.registerChange();
+        });
+        /* Pan by dragging with any button other than the primary one */
+        setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+        setOnMouseDragged(event -> {
+            if (event.getButton() == MouseButton.PRIMARY || drawnScenario == null) {
+                return;
+            }
+            camera.pan(dragX - event.getX(), dragY - event.getY());
+            dragX = event.getX();
+            dragY = event.getY();
+            viewModel.registerChange();
+        });
 
         setOnMouseClicked(event -> {
             /* Discard any click that is not a primary (left mouse button) click */
-            if (event.getButton() != MouseButton.PRIMARY) {
+            Scenario scenario = ScenarioManager.getInstance().getScenario();
+            if (event.getButton() != MouseButton.PRIMARY || scenario != drawnScenario
+                    || !interactive) {
                 return;
             }
-            double x = event.getX();
-            double y = event.getY();
             Entity clickedEntity = null;
-
-            for (Map.Entry<ClickableRegion, Entity> entry : drawnEntity.entrySet()) {
-                if (entry.getKey().wasClicked(x, y)) {
-                    clickedEntity = entry.getValue();
-                }
-            }
-            for (Map.Entry<ClickableRegion, Coordinate> entry : drawnMove.entrySet()) {
-                if (entry.getKey().wasClicked(x, y)) {
-                    Entity e = viewModel.getSelectedEntity().get();
-                    if (e instanceof User) {
-                        ((User) e).move(entry.getValue());
+            int x = camera.toCellX(event.getX());
+            int y = camera.toCellY(event.getY());
+
+            if (x >= 0 && x < scenario.getWidth() && y >= 0 && y < scenario.getHeight()) {
+                int index = x + y * scenario.getWidth();
+                User selected = ownSelectedUser(scenario);
+                if (cellHighlights[index] == MOVE_HIGHLIGHT) {
+                    if (selected != null) {
+                        selected.move(new Coordinate(x, y));
                         viewModel.setHasMoved(true);
                     }
-                }
-            }
-
-            for (Map.Entry<ClickableRegion, Coordinate> entry : drawnCollect.entrySet()) {
-                if (entry.getKey().wasClicked(x, y)) {
-                    Entity e = viewModel.getSelectedEntity().get();
-                    if (e instanceof User) {
+                } else if (cellHighlights[index] == COLLECT_HIGHLIGHT) {
+                    if (selected != null) {
                         try {
-                            ((User) e).collect(entry.getValue());
+                            selected.collect(new Coordinate(x, y));
                         } catch (NoSuchEntityException | CoordinateOutOfBoundsException ignored) {
                             // Ignored
                         }
                     }
+                } else if (scenario.getTile(index).hasContents()) {
+                    try {
+                        clickedEntity = scenario.ownEntity(scenario.getTile(index).getContents());
+                    } catch (NoSuchEntityException ignored) {
+                        easterEgg();
+                    }
                 }
             }
 
@@ -196,29 +266,327 @@ public class ScenarioCanvas extends Canvas {
         });
     }
 
+    /**
+     * Returns the given scenario's own copy of the selected user, which may be moved, and
+     * selects that copy, or null if no user is selected.
+     * <p>
+     * The scenario may have been forked since the user was selected, and entities from before
+     * a fork are shared with the fork, so they must not be modified directly.
+     */
+    private User ownSelectedUser(Scenario scenario) {
+        Entity selected = viewModel.getSelectedEntity().get();
+        if (!(selected instanceof User)) {
+            return null;
+        }
+        try {
+            User owned = (User) scenario.ownEntity(selected);
+            viewModel.getSelectedEntity().set(owned);
+            return owned;
+        } catch (NoSuchEntityException exp) {
+            return null;
+        }
+    }
+
     /**
      * Returns the size of a grid square
      */
     private double getGridSize() {
+        return camera.getCellSize();
+    }
+
+    /**
+     * Returns true if cells are small enough that they are drawn as flat blocks of colour.
+     */
+    private boolean isFlat() {
+        return getGridSize() < SPRITE_MIN_SIZE;
+    }
+
+    /**
+     * Sets whether clicks on the map select entities, move or collect.
+     * Panning and zooming always respond.
+     *
+     * @param interactive true to respond to clicks, false to ignore them
+     */
+    public void setInteractive(boolean interactive) {
+        this.interactive = interactive;
+    }
+
+    /**
+     * Moves the camera back to show the whole map.
+     * The change is shown on the next call to {@link #draw()}.
+     */
+    public void resetCamera() {
         Scenario scenario = ScenarioManager.getInstance().getScenario();
-        return Math.min(getWidth() / scenario.getWidth(), getHeight() / scenario.getHeight());
+        camera.fit(scenario.getWidth(), scenario.getHeight());
     }
 
     /**
      * Draws all the components of the game map
+     * <p>
+     * Only the cells that changed since the last frame are repainted: those touched by events
+     * logged since, and those under the arrows and highlights drawn over the last frame. The
+     * whole map is redrawn when the scenario, the camera or the grid/coordinate options change.
+     * <p>
+     * Terrain is drawn from a cached layer, so each frame only draws the entities on the
+     * repainted cells (and the cached layer beneath them).
+     * <p>
+     * Only the cells in view of the camera are ever drawn, so the cost of a frame depends on the
+     * size of the canvas rather than the size of the map. A new scenario is shown whole, but a
+     * fork of the scenario drawn last ({@link Scenario#isSameLineage(Scenario)}) is drawn like
+     * the scenario itself, so that successive snapshots only repaint what changed.
+     * <p>
+     * The time taken is recorded by this canvas, and shown over the map with the scenario's
+     * {@link PerformanceMonitor} if the metrics overlay is turned on.
      * @given
      */
     public void draw() {
-        this.drawnEntity.clear();
-        this.drawnMove.clear();
-        this.drawnCollect.clear();
+        long start = System.nanoTime();
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        List<Event> events = scenario.getLog().getEvents();
+        boolean sameLineage = scenario.isSameLineage(drawnScenario);
+        if (!sameLineage) {
+            resetCamera();
+            cellHighlights = new byte[scenario.getWidth() * scenario.getHeight()];
+        } else {
+            //only cells under the last overlay can be highlighted
+            for (int index : overlayCells) {
+                cellHighlights[index] = NO_HIGHLIGHT;
+            }
+        }
+        if (viewModel.showDensity()) {
+            drawDensity(scenario);
+        } else if (!sameLineage || events.size() < drawnEvents
+                || camera.getRevision() != drawnCamera
+                || viewModel.showGrid() != drawnShowGrid
+                || viewModel.showCoordinate() != drawnShowCoordinate
+                || viewModel.showMetrics() != drawnShowMetrics
+                || drawnShowDensity
+                || terrainLayer == null || terrainLayer.getWidth() != getWidth()
+                || terrainLayer.getHeight() != getHeight()) {
+            if (!isFlat()) {
+                atlas.setCellSize(getGridSize());
+            }
+            buildTerrainLayer();
+            drawGrid();
+        } else {
+            Set<Integer> dirtyCells = new TreeSet<>(overlayCells);
+            for (Event event : events.subList(drawnEvents, events.size())) {
+                addCells(dirtyCells, event.getInitialCoordinate(), event.getInitialCoordinate());
+                addCells(dirtyCells, event.getCoordinate(), event.getCoordinate());
+            }
+            drawCells(dirtyCells);
+        }
+        overlayCells.clear();
+        drawnScenario = scenario;
+        drawnEvents = events.size();
+        drawnShowGrid = viewModel.showGrid();
+        drawnShowCoordinate = viewModel.showCoordinate();
+        drawnShowMetrics = viewModel.showMetrics();
+        drawnShowDensity = viewModel.showDensity();
+        drawnCamera = camera.getRevision();
+        if (!drawnShowDensity) {
+            drawLastEvent();
+        }
+        if (viewModel.showMetrics()) {
+            drawMetrics(scenario);
+        }
+        frameTimes.record(System.nanoTime() - start);
+    }
 
-        GraphicsContext gc = getGraphicsContext2D();
+    /**
+     * Draws the visible part of the map as a heatmap of how many animals (matching the filter
+     * chosen in the view model) are in each block of cells.
+     * <p>
+     * The counts are kept up to date from the scenario's events by a {@link DensityGrid}, so a
+     * frame costs one pixel per visible block, however many animals there are. Blocks are at
+     * least {@value #DENSITY_BLOCK_PIXELS} pixels wide.
+     *
+     * @param scenario scenario to draw
+     */
+    private void drawDensity(Scenario scenario) {
+        int blockSize = Math.max(1, (int) Math.ceil(DENSITY_BLOCK_PIXELS / getGridSize()));
+        density.update(scenario, blockSize, viewModel.getDensitySize().get(),
+            viewModel.getDensityHabitat().get());
+
+        int firstX = camera.getFirstVisibleX() / blockSize;
+        int firstY = camera.getFirstVisibleY() / blockSize;
+        int blocksWide = camera.getLastVisibleX() / blockSize - firstX + 1;
+        int blocksHigh = camera.getLastVisibleY() / blockSize - firstY + 1;
+        if (densityImage == null || densityImage.getWidth() < blocksWide
+                || densityImage.getHeight() < blocksHigh) {
+            densityImage = new WritableImage(blocksWide, blocksHigh);
+        }
+        if (densityPixels.length < blocksWide * blocksHigh) {
+            densityPixels = new int[blocksWide * blocksHigh];
+        }
+
+        int fullest = 1;
+        for (int y = 0; y < blocksHigh; y++) {
+            for (int x = 0; x < blocksWide; x++) {
+                fullest = Math.max(fullest, density.getCount(firstX + x, firstY + y));
+            }
+        }
+        for (int y = 0; y < blocksHigh; y++) {
+            for (int x = 0; x < blocksWide; x++) {
+                //square root, so that sparse blocks stand out from empty ones
+                double share = Math.sqrt((double) density.getCount(firstX + x, firstY + y)
+                    / fullest);
+                densityPixels[x + y * blocksWide] =
+                    DENSITY_PALETTE[(int) Math.round(share * (DENSITY_PALETTE.length - 1))];
+            }
+        }
+        densityImage.getPixelWriter().setPixels(0, 0, blocksWide, blocksHigh,
+            PixelFormat.getIntArgbInstance(), densityPixels, 0, blocksWide);
 
+        GraphicsContext gc = getGraphicsContext2D();
         gc.setFill(Color.PURPLE);
         gc.fillRect(0, 0, getWidth(), getHeight());
-        drawGrid();
-        drawLastEvent();
+        double blockPixels = blockSize * getGridSize();
+        gc.setImageSmoothing(false);
+        gc.drawImage(densityImage, 0, 0, blocksWide, blocksHigh,
+            camera.toScreenX(firstX * blockSize), camera.toScreenY(firstY * blockSize),
+            blocksWide * blockPixels, blocksHigh * blockPixels);
+        gc.setImageSmoothing(true);
+    }
+
+    /**
+     * Returns the given number of ARGB colours running from dark blue (empty) through red to
+     * yellow (full).
+     *
+     * @param length number of colours
+     * @return heatmap colours
+     */
+    private static int[] createDensityPalette(int length) {
+        int[] palette = new int[length];
+        for (int i = 0; i < length; i++) {
+            double share = (double) i / (length - 1);
+            Color colour = share < 0.5
+                ? Color.MIDNIGHTBLUE.interpolate(Color.RED, share * 2)
+                : Color.RED.interpolate(Color.YELLOW, share * 2 - 1);
+            palette[i] = 0xFF000000
+                | (int) Math.round(colour.getRed() * 255) << 16
+                | (int) Math.round(colour.getGreen() * 255) << 8
+                | (int) Math.round(colour.getBlue() * 255);
+        }
+        return palette;
+    }
+
+    /**
+     * Redraws the performance metrics overlay, if it is shown, without drawing the map beneath
+     * it again, so that cells highlighted for a move or collection stay highlighted.
+     * <p>
+     * The metrics are those of the scenario drawn last rather than the current one, so that
+     * while auto-run is on only the snapshot being shown is read, never the scenario the
+     * simulation thread is changing.
+     */
+    public void refreshMetrics() {
+        if (viewModel.showMetrics() && drawnScenario != null) {
+            drawMetrics(drawnScenario);
+        }
+    }
+
+    /**
+     * Draws the performance metrics overlay in the top left corner of the canvas: percentiles
+     * and histograms of recent frame and tick (animal move) durations, the rate events are
+     * logged at and the heap in use.
+     * <p>
+     * Only the current scenario's metrics ({@link Scenario#getMonitor()}) are shown, so other
+     * simulations running at the same time do not show up here.
+     *
+     * @param scenario scenario drawn beneath the overlay
+     */
+    private void drawMetrics(Scenario scenario) {
+        PerformanceMonitor monitor = scenario.getMonitor();
+        GraphicsContext gc = getGraphicsContext2D();
+
+        //opaque, so that each frame simply draws over the last
+        gc.setFill(Color.rgb(32, 32, 32));
+        gc.fillRect(0, 0, METRICS_WIDTH, METRICS_HEIGHT);
+        drawLatency(gc, "frame", frameTimes, 8);
+        drawLatency(gc, "tick", monitor.getTickTimes(), 68);
+        drawLatency(gc, "policy", monitor.getDecisionTimes(), 128);
+        gc.setFill(Color.WHITE);
+        gc.fillText(String.format("events %.0f /s", monitor.sampleEventRate(
+            scenario.getLog().getEvents().size())), 8, 204);
+        gc.fillText(String.format("heap   %d MB", monitor.getHeapUsed() / (1024 * 1024)),
+            8, 222);
+    }
+
+    /**
+     * Draws the p50/p99 durations of the given recorder with a histogram of its kept durations
+     * (from 0 to twice the p99) beneath them.
+     *
+     * @param gc       graphics context to draw onto
+     * @param label    name of the durations
+     * @param recorder durations to draw
+     * @param top      y position of the top of the text, in pixels
+     */
+    private void drawLatency(GraphicsContext gc, String label, LatencyRecorder recorder,
+                             double top) {
+        long p99 = recorder.getPercentile(99);
+        gc.setFill(Color.WHITE);
+        gc.fillText(String.format("%-6s p50 %.2f ms  p99 %.2f ms", label,
+            recorder.getPercentile(50) / 1e6, p99 / 1e6), 8, top + 12);
+
+        int[] histogram = recorder.getHistogram(HISTOGRAM_BUCKETS, 2 * p99);
+        int tallest = Arrays.stream(histogram).max().orElse(0);
+        double barWidth = (METRICS_WIDTH - 16) / HISTOGRAM_BUCKETS;
+        double barSpace = 36;
+        gc.setFill(Color.LIMEGREEN);
+        for (int i = 0; i < histogram.length && tallest > 0; i++) {
+            double height = barSpace * histogram[i] / tallest;
+            gc.fillRect(8 + i * barWidth, top + 18 + barSpace - height, barWidth - 1, height);
+        }
+    }
+
+    /**
+     * Repaints the given cells of the map.
+     *
+     * @param cells grid indices of the cells to repaint
+     */
+    private void drawCells(Set<Integer> cells) {
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        for (int index : cells) {
+            int x = index % scenario.getWidth();
+            int y = index / scenario.getWidth();
+            if (camera.isVisible(x, y)) {
+                drawTile(x, y);
+            }
+        }
+    }
+
+    /**
+     * Adds the grid indices of every cell in the rectangle spanned by the two given coordinates
+     * that lies on the map to the given set.
+     *
+     * @param cells set to add to
+     * @param from  one corner of the rectangle
+     * @param to    the opposite corner of the rectangle
+     */
+    private void addCells(Set<Integer> cells, Coordinate from, Coordinate to) {
+        addCells(cells, from, to, 0);
+    }
+
+    /**
+     * Adds the grid indices of every cell in the rectangle spanned by the two given coordinates,
+     * grown by the given number of cells on every side, that lies on the map to the given set.
+     *
+     * @param cells  set to add to
+     * @param from   one corner of the rectangle
+     * @param to     the opposite corner of the rectangle
+     * @param margin number of cells to grow the rectangle by
+     */
+    private void addCells(Set<Integer> cells, Coordinate from, Coordinate to, int margin) {
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        int minX = Math.max(0, Math.min(from.getX(), to.getX()) - margin);
+        int maxX = Math.min(scenario.getWidth() - 1, Math.max(from.getX(), to.getX()) + margin);
+        int minY = Math.max(0, Math.min(from.getY(), to.getY()) - margin);
+        int maxY = Math.min(scenario.getHeight() - 1, Math.max(from.getY(), to.getY()) + margin);
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                cells.add(x + y * scenario.getWidth());
+            }
+        }
     }
 
     /**
@@ -258,132 +626,239 @@ public class ScenarioCanvas extends Canvas {
     }
 
     /**
-     * Strokes an arrow using the current stroke paint.
-     * <p>
-     * This method will be affected by any of the global common or stroke attributes as specified in
-     * the Rendering Attributes Table.
+     * Adds the shaft of an arrow to the current path.
      *
+     * @param gc graphics context holding the path
      * @param x1 the X coordinate of the starting point of the arrow.
      * @param y1 the Y coordinate of the starting point of the arrow.
      * @param x2 the X coordinate of the ending point of the arrow.
      * @param y2 the Y coordinate of the ending point of the arrow.
      */
-    private void drawArrow(double x1, double y1, double x2, double y2) {
-        // Thanks to https://stackoverflow.com/questions/35751576/javafx-draw-line-with-arrow-canvas
-        GraphicsContext gc = getGraphicsContext2D();
-        // store data to reset
-        Paint original = gc.getFill();
-        Affine originalMatrix = gc.getTransform();
-        // suppress checkstyle
-        gc.setFill(original);
-        gc.setTransform(originalMatrix);
-        // update fill to same color as stroke
-        gc.setFill(gc.getStroke());
-
-        double dx = x2 - x1;
-        double dy = y2 - y1;
-        double angle = Math.atan2(dy, dx);
-        int len = (int) Math.sqrt(dx * dx + dy * dy);
-
-        Transform transform = Transform.translate(x1, y1);
-        transform = transform.createConcatenation(Transform.rotate(Math.toDegrees(angle), 0, 0));
-        gc.setTransform(new Affine(transform));
-
-        int headSize = 8;
-        gc.strokeLine(0, 0, len, 0);
-        gc.fillPolygon(new double[] {len, len - headSize, len - headSize, len},
-            new double[] {0, -headSize, headSize, 0},
-            4);
+    private static void appendArrowShaft(GraphicsContext gc, double x1, double y1,
+                                         double x2, double y2) {
+        gc.moveTo(x1, y1);
+        gc.lineTo(x2, y2);
+    }
 
-        // reset
-        gc.setFill(original);
-        gc.setTransform(originalMatrix);
+    /**
+     * Adds the (triangular) head of an arrow to the current path.
+     *
+     * @param gc graphics context holding the path
+     * @param x1 the X coordinate of the starting point of the arrow.
+     * @param y1 the Y coordinate of the starting point of the arrow.
+     * @param x2 the X coordinate of the ending point of the arrow.
+     * @param y2 the Y coordinate of the ending point of the arrow.
+     */
+    private static void appendArrowHead(GraphicsContext gc, double x1, double y1,
+                                        double x2, double y2) {
+        // Thanks to https://stackoverflow.com/questions/35751576/javafx-draw-line-with-arrow-canvas
+        double angle = Math.atan2(y2 - y1, x2 - x1);
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        int len = (int) Math.sqrt((x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1));
+        int headSize = ARROW_HEAD_SIZE;
+        // the head is the triangle (len, 0), (len - head, -head), (len - head, head) rotated
+        // onto the arrow
+        double tipX = x1 + len * cos;
+        double tipY = y1 + len * sin;
+        double baseX = x1 + (len - headSize) * cos;
+        double baseY = y1 + (len - headSize) * sin;
+        gc.moveTo(tipX, tipY);
+        gc.lineTo(baseX + headSize * sin, baseY - headSize * cos);
+        gc.lineTo(baseX - headSize * sin, baseY + headSize * cos);
+        gc.closePath();
     }
 
     /**
-     * Draws the last event(s) of the scenario.
+     * Draws the last event(s) of the scenario: the events of the latest turn
+     * ({@link researchsim.logging.Logger#getTurnEvents()}).
+     * <p>
+     * The arrows of each colour are batched into a single path for their shafts and another for
+     * their heads, so drawing costs a few path operations per event of the turn.
      */
     private void drawLastEvent() {
         Scenario scenario = ScenarioManager.getInstance().getScenario();
-        List<Event> events = scenario.getLog().getEvents();
-        if (events.size() == 0) {
+        List<Event> events = scenario.getLog().getTurnEvents();
+        if (events.isEmpty()) {
             return;
         }
-        int index = events.size() - 1;
         GraphicsContext gc = getGraphicsContext2D();
         gc.setLineWidth(2.0);
         setLineDashes();
-
-        do {
-            Event event = events.get(index);
-            Color c = Color.BLACK;
-            if (event instanceof MoveEvent) {
-                c = Color.BLUE;
-            } else if (event instanceof CollectEvent) {
-                c = Color.AQUAMARINE;
-            } else {
-                easterEgg();
-            }
-            double gridSize = getGridSize();
-            double offset = gridSize / 2;
-            gc.setStroke(c);
-            drawArrow(event.getInitialCoordinate().getX() * gridSize + offset,
-                event.getInitialCoordinate().getY() * gridSize + offset,
-                event.getCoordinate().getX() * gridSize + offset,
-                event.getCoordinate().getY() * gridSize + offset);
-            if (events.get(index).getEntity() instanceof User) {
-                break;
+        double offset = getGridSize() / 2;
+        //arrowheads reach past the cells of their arrow when cells are small
+        int margin = getGridSize() >= 2 * ARROW_HEAD_SIZE ? 0
+            : (int) Math.ceil(ARROW_HEAD_SIZE / getGridSize());
+
+        for (Color c : new Color[] {Color.BLUE, Color.AQUAMARINE}) {
+            boolean moves = c == Color.BLUE;
+            //shafts are dashed, heads are filled
+            for (boolean heads : new boolean[] {false, true}) {
+                gc.beginPath();
+                boolean drawn = false;
+                for (Event event : events) {
+                    if (!(event instanceof MoveEvent) && !(event instanceof CollectEvent)) {
+                        easterEgg();
+                    }
+                    if ((event instanceof MoveEvent) != moves) {
+                        continue;
+                    }
+                    double x1 = camera.toScreenX(event.getInitialCoordinate().getX()) + offset;
+                    double y1 = camera.toScreenY(event.getInitialCoordinate().getY()) + offset;
+                    double x2 = camera.toScreenX(event.getCoordinate().getX()) + offset;
+                    double y2 = camera.toScreenY(event.getCoordinate().getY()) + offset;
+                    if (heads) {
+                        appendArrowHead(gc, x1, y1, x2, y2);
+                    } else {
+                        addCells(overlayCells, event.getInitialCoordinate(),
+                            event.getCoordinate(), margin);
+                        appendArrowShaft(gc, x1, y1, x2, y2);
+                    }
+                    drawn = true;
+                }
+                if (!drawn) {
+                    break;
+                }
+                if (heads) {
+                    gc.setFill(c);
+                    gc.fill();
+                } else {
+                    gc.setStroke(c);
+                    gc.stroke();
+                }
             }
-            index--;
-        } while (index >= 0 && !(events.get(index).getEntity() instanceof User));
+        }
         setLineSolid();
         gc.setLineWidth(1.0);
     }
 
     /**
-     * Draws the tile grid that the game is played on.
+     * Draws the part of the tile grid that the game is played on which is in view.
      */
     private void drawGrid() {
         Scenario scenario = ScenarioManager.getInstance().getScenario();
         GraphicsContext gc = getGraphicsContext2D();
-        gc.setStroke(Color.GRAY);
-        for (int i = 0; i < scenario.getWidth(); i++) {
-            for (int j = 0; j < scenario.getHeight(); j++) {
-                drawTile(i, j);
+        gc.drawImage(terrainLayer, 0, 0);
+        for (int i = camera.getFirstVisibleX(); i <= camera.getLastVisibleX(); i++) {
+            for (int j = camera.getFirstVisibleY(); j <= camera.getLastVisibleY(); j++) {
+                if (scenario.getTile(Coordinate.convert(i, j)).hasContents()) {
+                    drawContents(i, j);
+                }
             }
         }
     }
 
     /**
-     * Draws the tile at the specified grid position.
+     * Renders the terrain of every tile in view into the cached terrain layer.
+     * Anything outside the map is left purple.
+     */
+    private void buildTerrainLayer() {
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        Canvas terrain = new Canvas(getWidth(), getHeight());
+        GraphicsContext gc = terrain.getGraphicsContext2D();
+        gc.setFill(Color.PURPLE);
+        gc.fillRect(0, 0, getWidth(), getHeight());
+        for (int i = camera.getFirstVisibleX(); i <= camera.getLastVisibleX(); i++) {
+            for (int j = camera.getFirstVisibleY(); j <= camera.getLastVisibleY(); j++) {
+                drawTerrain(gc, i, j);
+            }
+        }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        terrainLayer = terrain.snapshot(parameters, null);
+    }
+
+    /**
+     * Draws the terrain (sprite, grid lines and coordinate) of the tile at the specified grid
+     * position onto the given graphics context.
      *
-     * @param x the column to draw
-     * @param y the row to draw
+     * @param gc graphics context to draw onto
+     * @param x  the column to draw
+     * @param y  the row to draw
      */
-    private void drawTile(int x, int y) {
-        GraphicsContext gc = getGraphicsContext2D();
+    private void drawTerrain(GraphicsContext gc, int x, int y) {
         Scenario scenario = ScenarioManager.getInstance().getScenario();
-        Tile tile = scenario.getMapGrid()[Coordinate.convert(x, y)];
+        Tile tile = scenario.getTile(Coordinate.convert(x, y));
 
         double gridSize = getGridSize();
+        double screenX = camera.toScreenX(x);
+        double screenY = camera.toScreenY(y);
 
+        // too small to make out sprites, grid lines or text
+        if (isFlat()) {
+            gc.setFill(getTerrainColour(tile.getType()));
+            gc.fillRect(screenX, screenY, gridSize, gridSize);
+            return;
+        }
         // draw sprite
-        gc.drawImage(tileSprites.get(tile.getType()),
-            x * gridSize, y * gridSize, gridSize, gridSize);
+        atlas.drawTile(gc, tile.getType(), screenX, screenY);
         // draw grid
         if (viewModel.showGrid()) {
             gc.setStroke(Color.BLACK);
             gc.setLineWidth(0.5);
-            gc.strokeRect(x * gridSize, y * gridSize, gridSize, gridSize);
+            gc.strokeRect(screenX, screenY, gridSize, gridSize);
             gc.setLineWidth(1.0);
         }
         // draw coordinate
         if (viewModel.showCoordinate()) {
             gc.setFill(Color.BLACK);
-            gc.fillText(String.format("%d,%d", x, y), x * gridSize,
-                y * gridSize + gridSize / 3);
+            gc.fillText(String.format("%d,%d", x, y), screenX, screenY + gridSize / 3);
+
+        }
+    }
+
+    /**
+     * Returns the flat colour a tile of the given type is drawn with when zoomed far out.
+     *
+     * @param type type of tile
+     * @return colour of the tile
+     */
+    private static Color getTerrainColour(TileType type) {
+        switch (type) {
+            case OCEAN:
+                return Color.STEELBLUE;
+            case SAND:
+                return Color.KHAKI;
+            case MOUNTAIN:
+                return Color.DIMGRAY;
+            default:
+                return Color.FORESTGREEN;
+        }
+    }
 
+    /**
+     * Draws the tile at the specified grid position, copying its terrain from the cached layer.
+     *
+     * @param x the column to draw
+     * @param y the row to draw
+     */
+    private void drawTile(int x, int y) {
+        double gridSize = getGridSize();
+        double screenX = camera.toScreenX(x);
+        double screenY = camera.toScreenY(y);
+        getGraphicsContext2D().drawImage(terrainLayer,
+            screenX, screenY, gridSize, gridSize,
+            screenX, screenY, gridSize, gridSize);
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        if (scenario.getTile(Coordinate.convert(x, y)).hasContents()) {
+            drawContents(x, y);
         }
+    }
+
+    /**
+     * Draws the entity on the tile at the specified grid position.
+     *
+     * @param x the column to draw
+     * @param y the row to draw
+     */
+    private void drawContents(int x, int y) {
+        GraphicsContext gc = getGraphicsContext2D();
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        Tile tile = scenario.getTile(Coordinate.convert(x, y));
+
+        // plant points are outlined in the last grid line colour
+        gc.setStroke(viewModel.showGrid() ? Color.BLACK : Color.GRAY);
+
         // draw sub entities
         if (tile.hasContents()) {
             Entity entity = null;
@@ -392,10 +867,9 @@ public class ScenarioCanvas extends Canvas {
             } catch (NoSuchEntityException ignored) {
                 easterEgg();
             }
-            this.drawnEntity.put(
-                new ClickableRegion(x * gridSize, y * gridSize, gridSize, gridSize),
-                entity);
-            if (entity instanceof Fauna) {
+            if (isFlat()) {
+                drawBlock(entity, x, y);
+            } else if (entity instanceof Fauna) {
                 drawAnimal((Fauna) entity, x, y);
             } else if (entity instanceof Flora) {
                 drawPlant((Flora) entity, x, y);
@@ -407,6 +881,28 @@ public class ScenarioCanvas extends Canvas {
         }
     }
 
+    /**
+     * Draws the entity at the specified tile as a flat block of colour, inset by 1 / 5 the grid
+     * size on all sides.
+     *
+     * @param entity the entity to draw
+     * @param x      the column to draw
+     * @param y      the row to draw
+     */
+    private void drawBlock(Entity entity, int x, int y) {
+        double gridSize = getGridSize();
+        GraphicsContext gc = getGraphicsContext2D();
+        if (entity instanceof User) {
+            gc.setFill(Color.RED);
+        } else if (entity instanceof Flora) {
+            gc.setFill(Color.YELLOW);
+        } else {
+            gc.setFill(Color.SADDLEBROWN);
+        }
+        gc.fillRect(camera.toScreenX(x) + gridSize / 5, camera.toScreenY(y) + gridSize / 5,
+            gridSize * 3 / 5, gridSize * 3 / 5);
+    }
+
     /**
      * Draws a user at the specified tile.
      * The user is centred in the tile with a padding of 1 / 5 the grid size on all sides.
@@ -417,11 +913,9 @@ public class ScenarioCanvas extends Canvas {
      * @param y    the row to draw
      */
     private void drawUser(User user, int x, int y) {
-        double gridSize = getGridSize();
         GraphicsContext gc = getGraphicsContext2D();
         // set buffer
-        gc.drawImage(userSprite,
-            x * gridSize,  y * gridSize, gridSize, gridSize);
+        atlas.drawUser(gc, camera.toScreenX(x), camera.toScreenY(y));
 
     }
 
@@ -438,10 +932,9 @@ public class ScenarioCanvas extends Canvas {
         double gridSize = getGridSize();
         GraphicsContext gc = getGraphicsContext2D();
         // set buffer
-        gc.drawImage(plantSprites.get(plant.getSize()),
-            x * gridSize,  y * gridSize, gridSize, gridSize);
-        gc.strokeText(String.valueOf(plant.getSize().points), (x + 1) * gridSize - gridSize / 5,
-            y * gridSize + gridSize / 5);
+        atlas.drawPlant(gc, plant.getSize(), camera.toScreenX(x), camera.toScreenY(y));
+        gc.strokeText(String.valueOf(plant.getSize().points),
+            camera.toScreenX(x + 1) - gridSize / 5, camera.toScreenY(y) + gridSize / 5);
     }
 
     /**
@@ -457,11 +950,11 @@ public class ScenarioCanvas extends Canvas {
         double gridSize = getGridSize();
         GraphicsContext gc = getGraphicsContext2D();
         // set buffer
-        gc.drawImage(animalSprites.get(animal.getSize()).get(animal.getHabitat()),
-            x * gridSize,  y * gridSize, gridSize, gridSize);
+        atlas.drawAnimal(gc, animal.getSize(), animal.getHabitat(),
+            camera.toScreenX(x), camera.toScreenY(y));
         gc.setStroke(Color.BLACK);
-        gc.strokeText(String.valueOf(animal.getSize().points), (x + 1) * gridSize - gridSize / 5,
-            y * gridSize + gridSize / 5);
+        gc.strokeText(String.valueOf(animal.getSize().points),
+            camera.toScreenX(x + 1) - gridSize / 5, camera.toScreenY(y) + gridSize / 5);
     }
 
     /**
@@ -497,7 +990,7 @@ public class ScenarioCanvas extends Canvas {
         double gridSize = getGridSize();
 
         GraphicsContext gc = getGraphicsContext2D();
-        Map<ClickableRegion, Coordinate> areas = isMove ? drawnMove : drawnCollect;
+        int width = ScenarioManager.getInstance().getScenario().getWidth();
         List<Coordinate> locations = new ArrayList<>();
         if (entity instanceof Fauna) {
             locations = ((Fauna) entity).getPossibleMoves();
@@ -510,114 +1003,24 @@ public class ScenarioCanvas extends Canvas {
         for (Coordinate coordinate : locations) {
             int x = coordinate.getX();
             int y = coordinate.getY();
+            if (!camera.isVisible(x, y)) {
+                continue;
+            }
+            double screenX = camera.toScreenX(x);
+            double screenY = camera.toScreenY(y);
 
-            ClickableRegion region = new ClickableRegion(x * gridSize, y * gridSize,
-                gridSize, gridSize);
-
-            areas.put(region, coordinate);
-            drawnEntity.remove(region);
+            cellHighlights[x + y * width] = isMove ? MOVE_HIGHLIGHT : COLLECT_HIGHLIGHT;
+            addCells(overlayCells, coordinate, coordinate);
             boolean tileHasContents =
                 ScenarioManager.getInstance().getScenario()
-                    .getMapGrid()[Coordinate.convert(x, y)].hasContents();
+                    .getTile(Coordinate.convert(x, y)).hasContents();
             Color c = isMove && !tileHasContents ? Color.DARKORCHID : Color.RED;
             // DRAW
             gc.setStroke(c);
-            gc.strokeRect(x * gridSize, y * gridSize,
-                gridSize, gridSize);
+            gc.strokeRect(screenX, screenY, gridSize, gridSize);
             gc.setFill(new Color(c.getRed(), c.getGreen(),
                 c.getBlue(), 0.25));
-            gc.fillRect(x * gridSize, y * gridSize,
-                gridSize, gridSize);
-        }
-    }
-
-    /**
-     * A class to represent a rectangular region on the canvas that responds to click events
-     */
-    private static class ClickableRegion {
-
-        /**
-         * X-coordinate of the region (top left)
-         */
-        private final double xcoord;
-        /**
-         * Y-coordinate of the region (top left)
-         */
-        private final double ycoord;
-        /**
-         * Width of the region, in pixels
-         */
-        private final double width;
-        /**
-         * Height of the region, in pixels
-         */
-        private final double height;
-
-        /**
-         * Creates a new clickable region with the given coordinates and dimensions
-         *
-         * @given
-         */
-        public ClickableRegion(double x, double y, double width, double height) {
-            this.xcoord = x;
-            this.ycoord = y;
-            this.width = width;
-            this.height = height;
-        }
-
-        /**
-         * Returns whether the given click event's coordinates fall within this clickable
-         * region
-         *
-         * @given
-         */
-        public boolean wasClicked(double clickX, double clickY) {
-            return clickX >= this.xcoord && clickX <= this.xcoord + this.width
-                && clickY >= this.ycoord && clickY <= this.ycoord + this.height;
-        }
-
-        /**
-         * Returns the hash code of this region.
-         * <p>
-         * Two regions that are equal according to equals(Object) method should have the same hash
-         * code.
-         *
-         * @return hash code of this region
-         * @given
-         */
-        @Override
-        public int hashCode() {
-            return Objects.hash(xcoord, ycoord, width, height);
-        }
-
-        /**
-         * Returns true if and only if this region is equal to the other given
-         * region.
-         * <p>
-         * For two regions to be equal, they must have the same x and y position, the same width
-         * and height.
-         *
-         * @param other the reference object with which to compare
-         * @return {@code true} if this region is the same
-         * as the {@code other} argument; {@code false} otherwise
-         * @given
-         */
-        @Override
-        public boolean equals(Object other) {
-            if (other == null) {
-                return false;
-            }
-            if (other == this) {
-                return true;
-            }
-            if (!(other instanceof ClickableRegion)) {
-                return false;
-            }
-
-            ClickableRegion otherRegion = (ClickableRegion) other;
-
-            return xcoord == otherRegion.xcoord && ycoord == otherRegion.ycoord
-                && width == otherRegion.width && height == otherRegion.height;
+            gc.fillRect(screenX, screenY, gridSize, gridSize);
         }
     }
 }
@@ -0,0 +1,206 @@
+package researchsim.display;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import researchsim.entities.Size;
+import researchsim.map.TileType;
+import researchsim.util.BadSaveException;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Texture atlas holding every sprite drawn by the {@link ScenarioCanvas}.
+ * <p>
+ * The sprites in the "assets" folder are loaded once, then packed into a single image with every
+ * sprite pre-scaled to the current cell size, rounded up to whole pixels
+ * ({@link #setCellSize(double)}). Sprites are drawn as sub-rectangles of that image, so drawing an
+ * entity costs one near-unscaled copy rather than a scaled draw of its own image.
+ */
+public class SpriteAtlas {
+
+    /**
+     * Number of sprites in each row of the atlas image
+     */
+    private static final int COLUMNS = 8;
+
+    /**
+     * Source sprites, in the order they are packed into the atlas
+     */
+    private final List<Image> sprites;
+
+    /**
+     * Position in the atlas of each sprite, by key
+     */
+    private final Map<String, Integer> positions;
+
+    /**
+     * Atlas image at the current cell size, or null if it has not been built yet
+     */
+    private WritableImage atlas;
+
+    /**
+     * Width and height in pixels of each sprite in the atlas
+     */
+    private int cellPixels;
+
+    /**
+     * Width and height of a map cell, which sprites are drawn at
+     */
+    private double cellSize;
+
+    /**
+     * Creates a new atlas by loading every sprite from the "assets" folder.
+     * <p>
+     * The atlas image itself is only built on the first call to {@link #setCellSize(double)}.
+     *
+     * @throws BadSaveException if the "assets" folder is missing
+     */
+    public SpriteAtlas() throws BadSaveException {
+        this.sprites = new ArrayList<>();
+        this.positions = new HashMap<>();
+        this.atlas = null;
+        this.cellPixels = 0;
+        this.cellSize = 0;
+        try {
+            load("user", "user");
+
+            load(tileKey(TileType.LAND), "land");
+            load(tileKey(TileType.OCEAN), "ocean");
+            load(tileKey(TileType.SAND), "sand");
+            load(tileKey(TileType.MOUNTAIN), "mountain");
+
+            load(animalKey(Size.SMALL, TileType.OCEAN), "crab");
+            load(animalKey(Size.SMALL, TileType.LAND), "mouse");
+            load(animalKey(Size.MEDIUM, TileType.OCEAN), "fish");
+            load(animalKey(Size.MEDIUM, TileType.LAND), "dog");
+            load(animalKey(Size.LARGE, TileType.OCEAN), "shark");
+            load(animalKey(Size.LARGE, TileType.LAND), "horse");
+            load(animalKey(Size.GIANT, TileType.OCEAN), "whale");
+            load(animalKey(Size.GIANT, TileType.LAND), "elephant");
+
+            load(plantKey(Size.SMALL), "flower");
+            load(plantKey(Size.MEDIUM), "shrub");
+            load(plantKey(Size.LARGE), "sapling");
+            load(plantKey(Size.GIANT), "tree");
+        } catch (MalformedURLException e) {
+            throw new BadSaveException("Missing the required \"assets\" folder.\nGo to Blackboard"
+                + " (learn.uq.edu.au) to download this folder.");
+        }
+    }
+
+    /**
+     * Rebuilds the atlas image with every sprite scaled to the given cell size, if it is not
+     * already at that size.
+     * <p>
+     * Must be called on the JavaFX application thread.
+     *
+     * @param cellSize width and height of a map cell, in pixels
+     */
+    public void setCellSize(double cellSize) {
+        int pixels = Math.max(1, (int) Math.ceil(cellSize));
+        this.cellSize = cellSize;
+        if (atlas != null && pixels == cellPixels) {
+            return;
+        }
+        int rows = (sprites.size() + COLUMNS - 1) / COLUMNS;
+        Canvas packed = new Canvas(COLUMNS * pixels, rows * pixels);
+        GraphicsContext gc = packed.getGraphicsContext2D();
+        for (int i = 0; i < sprites.size(); i++) {
+            gc.drawImage(sprites.get(i), (i % COLUMNS) * pixels, (i / COLUMNS) * pixels,
+                pixels, pixels);
+        }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        atlas = packed.snapshot(parameters, null);
+        cellPixels = pixels;
+    }
+
+    /**
+     * Draws the sprite for the given tile type with its top left corner at the given position.
+     *
+     * @param gc   graphics context to draw onto
+     * @param type type of tile
+     * @param x    x position in pixels
+     * @param y    y position in pixels
+     */
+    public void drawTile(GraphicsContext gc, TileType type, double x, double y) {
+        draw(gc, tileKey(type), x, y);
+    }
+
+    /**
+     * Draws the sprite for an animal of the given size and habitat with its top left corner at
+     * the given position.
+     *
+     * @param gc      graphics context to draw onto
+     * @param size    size of the animal
+     * @param habitat habitat of the animal
+     * @param x       x position in pixels
+     * @param y       y position in pixels
+     */
+    public void drawAnimal(GraphicsContext gc, Size size, TileType habitat, double x, double y) {
+        draw(gc, animalKey(size, habitat), x, y);
+    }
+
+    /**
+     * Draws the sprite for a plant of the given size with its top left corner at the given
+     * position.
+     *
+     * @param gc   graphics context to draw onto
+     * @param size size of the plant
+     * @param x    x position in pixels
+     * @param y    y position in pixels
+     */
+    public void drawPlant(GraphicsContext gc, Size size, double x, double y) {
+        draw(gc, plantKey(size), x, y);
+    }
+
+    /**
+     * Draws the sprite for a user with its top left corner at the given position.
+     *
+     * @param gc graphics context to draw onto
+     * @param x  x position in pixels
+     * @param y  y position in pixels
+     */
+    public void drawUser(GraphicsContext gc, double x, double y) {
+        draw(gc, "user", x, y);
+    }
+
+    /* Copies the sprite with the given key from the atlas to the given position */
+    private void draw(GraphicsContext gc, String key, double x, double y) {
+        int position = positions.get(key);
+        gc.drawImage(atlas,
+            (position % COLUMNS) * cellPixels, (position / COLUMNS) * cellPixels,
+            cellPixels, cellPixels,
+            x, y, cellSize, cellSize);
+    }
+
+    /* Loads the sprite "assets/{name}.png" under the given key */
+    private void load(String key, String name) throws MalformedURLException {
+        positions.put(key, sprites.size());
+        sprites.add(new Image(new File("assets/" + name + ".png").toURI().toURL().toString()));
+    }
+
+    /* Key of the sprite for a tile type */
+    private static String tileKey(TileType type) {
+        return "tile-" + type;
+    }
+
+    /* Key of the sprite for an animal */
+    private static String animalKey(Size size, TileType habitat) {
+        return "animal-" + size + "-" + habitat;
+    }
+
+    /* Key of the sprite for a plant */
+    private static String plantKey(Size size) {
+        return "plant-" + size;
+    }
+}
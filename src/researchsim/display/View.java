@@ -2,6 +2,9 @@ package researchsim.display;
 
 import javafx.animation.AnimationTimer;
 import javafx.beans.binding.Bindings;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.StringProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
@@ -15,18 +18,22 @@ import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import researchsim.entities.Entity;
 import researchsim.entities.Fauna;
+import researchsim.entities.Size;
 import researchsim.entities.User;
+import researchsim.map.TileType;
 import researchsim.scenario.AnimalController;
 import researchsim.scenario.Scenario;
 import researchsim.scenario.ScenarioManager;
+import researchsim.scenario.SimulationLoop;
+import researchsim.scenario.UserTeam;
 import researchsim.util.BadSaveException;
 
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 
 /**
  * View for the Research Simulation GUI.
@@ -49,6 +56,47 @@ public class View {
      */
     private ScenarioCanvas canvas;
 
+    /**
+     * Default number of turns auto-run performs every second.
+     * The value of this constant is {@value}
+     */
+    private static final int DEFAULT_TICKS_PER_SECOND = 4;
+
+    /**
+     * Number of turns auto-run performs every second
+     */
+    private int ticksPerSecond = DEFAULT_TICKS_PER_SECOND;
+
+    /**
+     * Name of the policy auto-run drives every user with, or null to leave the users alone
+     */
+    private String autoRunPolicy = null;
+
+    /**
+     * Loop ending turns on its own thread while auto-run is on, or null if it is off
+     */
+    private SimulationLoop simulation = null;
+
+    /**
+     * Whether auto-run is on, which disables the controls that change the scenario
+     */
+    private final BooleanProperty autoRunning = new SimpleBooleanProperty(false);
+
+    /**
+     * Button toggling auto-run
+     */
+    private ToggleButton autoRunButton;
+
+    /**
+     * Scenario manager context that snapshots published by auto-run are drawn in
+     */
+    private final ScenarioManager snapshotContext = ScenarioManager.createContext();
+
+    /**
+     * Latest snapshot published by auto-run that has been drawn, or null
+     */
+    private Scenario drawnSnapshot = null;
+
     /**
      * Creates a new view for the given view model and adds the associated GUI elements to the given
      * stage.
@@ -78,9 +126,28 @@ public class View {
         final long nanosPerSecond = 1000000000;
 
         new AnimationTimer() {
+            /* Time the metrics overlay was last refreshed */
+            private long metricsRefreshed = 0;
+
             @Override
             public void handle(long currentNanoTime) {
-                if (viewModel.isChanged()) {
+                //keep the metrics overlay live even when nothing else changes, redrawing only
+                //the overlay so that highlighted cells are not cleared; once auto-run starts,
+                //the scenario drawn last belongs to the loop until a snapshot replaces it
+                if (viewModel.showMetrics() && (simulation == null || drawnSnapshot != null)
+                        && currentNanoTime - metricsRefreshed >= nanosPerSecond / 4) {
+                    metricsRefreshed = currentNanoTime;
+                    canvas.refreshMetrics();
+                }
+                if (simulation != null) {
+                    //only ever draw the latest snapshot, skipping any missed
+                    Scenario snapshot = simulation.takeSnapshot();
+                    if (snapshot != null || viewModel.isChanged()) {
+                        viewModel.notChanged();
+                        drawnSnapshot = snapshot == null ? drawnSnapshot : snapshot;
+                        drawSnapshot();
+                    }
+                } else if (viewModel.isChanged()) {
                     viewModel.notChanged();
                     viewModel.updateScenarioLog();
                     canvas.draw();
@@ -92,6 +159,59 @@ public class View {
         this.canvas.draw();
     }
 
+    /* Draws the latest snapshot published by auto-run, if there is one yet */
+    private void drawSnapshot() {
+        if (drawnSnapshot == null) {
+            return;
+        }
+        snapshotContext.reset();
+        snapshotContext.addScenario(drawnSnapshot);
+        snapshotContext.runInContext(() -> {
+            //the whole log is shown again once auto-run stops
+            viewModel.updateRecentScenarioLog();
+            canvas.draw();
+        });
+    }
+
+    /* Starts ending turns continuously on a separate thread */
+    private void startAutoRun() {
+        if (simulation != null) {
+            return;
+        }
+        //entities selected before would go stale as the animals move
+        viewModel.getSelectedEntity().set(null);
+        canvas.setInteractive(false);
+        autoRunning.set(true);
+        autoRunButton.setSelected(true);
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        simulation = new SimulationLoop(scenario, ticksPerSecond);
+        if (autoRunPolicy != null) {
+            try {
+                simulation.setTeam(UserTeam.ofEveryUser(scenario, autoRunPolicy,
+                    new Random(scenario.getSeed())));
+            } catch (IllegalArgumentException e) {
+                //a scenario without users only moves its animals
+            }
+        }
+        simulation.start();
+    }
+
+    /* Stops auto-run, if it is on, handing the scenario back to the GUI */
+    private void stopAutoRun() {
+        if (simulation == null) {
+            return;
+        }
+        simulation.stop();
+        simulation = null;
+        drawnSnapshot = null;
+        snapshotContext.reset();
+        canvas.setInteractive(true);
+        autoRunning.set(false);
+        autoRunButton.setSelected(false);
+        viewModel.setHasMoved(false);
+        viewModel.registerChange();
+    }
+
     /***
      * Prompts the user for a textual response via a dialog box.
      *
@@ -169,6 +289,7 @@ public class View {
         var buttons = new HBox();
         buttons.setPadding(new Insets(10, 10, 10, 10));
         buttons.setSpacing(10);
+        buttons.disableProperty().bind(autoRunning);
 
         var moveButton = new Button("_Move");
         moveButton.setPrefWidth(150);
@@ -205,7 +326,7 @@ public class View {
         turns.setSpacing(10);
 
         var endTurnButton = new Button("End _Turn");
-        endTurnButton.setPrefWidth(300);
+        endTurnButton.setPrefWidth(140);
         endTurnButton.setMnemonicParsing(true);
         endTurnButton.setAlignment(Pos.CENTER);
         endTurnButton.setOnAction((event) -> {
@@ -214,10 +335,24 @@ public class View {
             viewModel.registerChange();
             viewModel.setHasMoved(false);
         });
+        endTurnButton.disableProperty().bind(autoRunning);
 
         endTurnButton.setAlignment(Pos.CENTER);
         turns.getChildren().add(endTurnButton);
 
+        autoRunButton = new ToggleButton("_Auto Run");
+        autoRunButton.setPrefWidth(150);
+        autoRunButton.setMnemonicParsing(true);
+        autoRunButton.setAlignment(Pos.CENTER);
+        autoRunButton.setOnAction((event) -> {
+            if (autoRunButton.isSelected()) {
+                startAutoRun();
+            } else {
+                stopAutoRun();
+            }
+        });
+        turns.getChildren().add(autoRunButton);
+
         root.getChildren().add(turns);
 
         var scenarioStatistics = createInfoBox(viewModel.getScenarioStatisticsText(), 4);
@@ -240,6 +375,7 @@ public class View {
         MenuItem save = new MenuItem("_Save");
         save.setMnemonicParsing(true);
         save.setOnAction(event -> {
+            stopAutoRun();
             try {
                 viewModel.save();
             } catch (IOException e) {
@@ -276,11 +412,56 @@ public class View {
             viewModel.showCoordinateProperty().set(!viewModel.showCoordinate());
             viewModel.registerChange();
         });
+        MenuItem showMetrics = new MenuItem("Show Performance Metrics");
+        showMetrics.setOnAction(event -> {
+            viewModel.showMetricsProperty().set(!viewModel.showMetrics());
+            viewModel.registerChange();
+        });
+        MenuItem showDensity = new MenuItem("Show Density Heatmap");
+        showDensity.setOnAction(event -> {
+            viewModel.showDensityProperty().set(!viewModel.showDensity());
+            viewModel.registerChange();
+        });
+        MenuItem densityFilter = new MenuItem("Filter Density Heatmap...");
+        densityFilter.setOnAction(event -> chooseDensityFilter());
+        MenuItem autoRunSpeed = new MenuItem("Set Auto Run Speed...");
+        autoRunSpeed.setOnAction(event -> {
+            Optional<Integer> speed;
+            try {
+                speed = getResponse("Auto run speed",
+                    "Please enter the number of turns to end every second", "turns per second",
+                    ticksPerSecond);
+            } catch (NumberFormatException e) {
+                return;
+            }
+            if (speed.isEmpty() || speed.get() < 1) {
+                return;
+            }
+            ticksPerSecond = speed.get();
+            if (simulation != null) {
+                //restart at the new speed
+                stopAutoRun();
+                startAutoRun();
+            }
+        });
+        MenuItem autoRunUsers = new MenuItem("Set Auto Run Users...");
+        autoRunUsers.setOnAction(event -> chooseAutoRunPolicy());
+        MenuItem resetView = new MenuItem("Reset Map View");
+        resetView.setOnAction(event -> {
+            canvas.resetCamera();
+            viewModel.registerChange();
+        });
 
         Menu menuOptions = new Menu("_Options");
         menuOptions.setMnemonicParsing(true);
         menuOptions.getItems().add(showGrid);
         menuOptions.getItems().add(showGridCoordinate);
+        menuOptions.getItems().add(showDensity);
+        menuOptions.getItems().add(densityFilter);
+        menuOptions.getItems().add(showMetrics);
+        menuOptions.getItems().add(resetView);
+        menuOptions.getItems().add(autoRunSpeed);
+        menuOptions.getItems().add(autoRunUsers);
 
 
         menuBar.getMenus().add(menuFile);
@@ -289,6 +470,58 @@ public class View {
         return menuBar;
     }
 
+    /* Prompts for the policy auto-run drives every user with */
+    private void chooseAutoRunPolicy() {
+        final String none = "None";
+        String[] policies = new String[UserTeam.POLICIES.size() + 1];
+        policies[0] = none;
+        for (int i = 0; i < UserTeam.POLICIES.size(); i++) {
+            policies[i + 1] = UserTeam.POLICIES.get(i);
+        }
+        Optional<String> policy = getChoice("Auto run users",
+            "Please choose how auto run moves every user", "policy",
+            autoRunPolicy == null ? none : autoRunPolicy, policies);
+        if (policy.isEmpty()) {
+            return;
+        }
+        autoRunPolicy = policy.get().equals(none) ? null : policy.get();
+        if (simulation != null) {
+            //restart with the new policy
+            stopAutoRun();
+            startAutoRun();
+        }
+    }
+
+    /* Prompts for the size and habitat of the animals counted by the density heatmap */
+    private void chooseDensityFilter() {
+        final String any = "Any";
+        String[] sizes = new String[Size.values().length + 1];
+        sizes[0] = any;
+        for (Size size : Size.values()) {
+            sizes[size.ordinal() + 1] = size.name();
+        }
+        ObjectProperty<Size> sizeFilter = viewModel.getDensitySize();
+        Optional<String> size = getChoice("Density heatmap filter",
+            "Please choose the size of animal to count", "size",
+            sizeFilter.get() == null ? any : sizeFilter.get().name(), sizes);
+        if (size.isEmpty()) {
+            return;
+        }
+
+        ObjectProperty<TileType> habitatFilter = viewModel.getDensityHabitat();
+        Optional<String> habitat = getChoice("Density heatmap filter",
+            "Please choose the habitat of animal to count", "habitat",
+            habitatFilter.get() == null ? any : habitatFilter.get().name(),
+            any, TileType.LAND.name(), TileType.OCEAN.name());
+        if (habitat.isEmpty()) {
+            return;
+        }
+
+        sizeFilter.set(size.get().equals(any) ? null : Size.valueOf(size.get()));
+        habitatFilter.set(habitat.get().equals(any) ? null : TileType.valueOf(habitat.get()));
+        viewModel.registerChange();
+    }
+
     /* Creates a menu item that, when clicked, prompts for the state of the model to be saved */
     private MenuItem createSaveAsMenuItem() {
         MenuItem saveAs = new MenuItem("Save _As...");
@@ -299,6 +532,7 @@ public class View {
             if (filename.isEmpty()) {
                 return;
             }
+            stopAutoRun();
             try {
                 viewModel.saveAs(new FileWriter(filename.get()));
             } catch (IOException e) {
@@ -317,15 +551,17 @@ public class View {
     private List<MenuItem> createScenarioMenuItems() {
         List<MenuItem> items = new ArrayList<>();
         ScenarioManager manager = ScenarioManager.getInstance();
-        for (Map.Entry<String, Scenario> pairs :
-            manager.getLoadedScenarios().entrySet()) {
-            MenuItem item = new MenuItem("Scenario: _" + pairs.getKey());
+        for (String name : manager.getScenarioNames()) {
+            MenuItem item = new MenuItem("Scenario: _" + name);
             item.setMnemonicParsing(true);
             item.setOnAction(event -> {
+                stopAutoRun();
                 try {
-                    manager.setScenario(pairs.getKey());
-                } catch (BadSaveException ignored) {
-                    // ignored
+                    //parses the scenario if it is not resident
+                    manager.setScenario(name);
+                } catch (BadSaveException e) {
+                    viewModel.createErrorDialog("Error loading scenario", e.getMessage());
+                    return;
                 }
                 viewModel.registerChange();
                 stage.titleProperty().bind(Bindings.concat("Research Simulation: "
@@ -4,14 +4,19 @@ import javafx.beans.property.*;
 import javafx.scene.control.Alert;
 import researchsim.entities.Entity;
 import researchsim.entities.Fauna;
+import researchsim.entities.Size;
 import researchsim.logging.Event;
 import researchsim.logging.Logger;
+import researchsim.map.DistanceOracle;
 import researchsim.map.TileType;
 import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioLoader;
 import researchsim.scenario.ScenarioManager;
 import researchsim.util.BadSaveException;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.StringJoiner;
 
@@ -40,6 +45,22 @@ public class ViewModel {
      * Whether the canvas grid coordinates is shown
      */
     private final BooleanProperty showCoordinate = new SimpleBooleanProperty(false);
+    /**
+     * Whether the performance metrics overlay is shown
+     */
+    private final BooleanProperty showMetrics = new SimpleBooleanProperty(false);
+    /**
+     * Whether the map is drawn as a heatmap of animal density
+     */
+    private final BooleanProperty showDensity = new SimpleBooleanProperty(false);
+    /**
+     * Size of animal counted by the density heatmap, or null for every size
+     */
+    private final ObjectProperty<Size> densitySize = new SimpleObjectProperty<>();
+    /**
+     * Habitat of animal counted by the density heatmap, or null for every habitat
+     */
+    private final ObjectProperty<TileType> densityHabitat = new SimpleObjectProperty<>();
 
     /**
      * Contents of entities information text box
@@ -69,25 +90,46 @@ public class ViewModel {
     private boolean hasMoved = false;
 
     /**
-     * Creates a new view model and constructs scenarios by reading from the given filenames.
-     *
-     * @param filenames list of filenames specifying the path to: the scenario files
-     * @throws IOException      if loading from a file specified generates an
-     *                          IOException
-     * @throws BadSaveException if any file is invalid according to
-     *                          {@link Scenario#load(Reader)}
-     * @requires filenames != null &amp;&amp; filenames.size() >= 1
-     * @given
+     * Number of delta segments appended to the default save before it is compacted back into a
+     * single full save.
+     * The value of this constant is {@value}
      */
-    public ViewModel(List<String> filenames) throws IOException, BadSaveException {
-        for (String file : filenames) {
-            Scenario.load(new FileReader(file));
-        }
+    public static final int COMPACTION_INTERVAL = 16;
 
-        // make sure set scenario was first loaded
-        ScenarioManager manager = ScenarioManager.getInstance();
-        manager.setScenario(manager.getLoadedScenarios().values().iterator().next().getName());
+    /**
+     * Number of latest events shown by {@link #updateRecentScenarioLog()}.
+     * The value of this constant is {@value}
+     */
+    public static final int RECENT_EVENTS = 64;
+
+    /**
+     * Path of the file written to by {@link #save()}
+     */
+    private static final String DEFAULT_SAVE = "saves/_default_save.txt";
+
+    /**
+     * The scenario whose state is currently held in the default save, or null if it has not
+     * been written this session
+     */
+    private Scenario defaultSaveScenario = null;
+
+    /**
+     * Number of events in the default save scenario's log when the default save was last written
+     */
+    private int defaultSaveCheckpoint = 0;
+
+    /**
+     * Number of delta segments appended to the default save since it was last fully written
+     */
+    private int defaultSaveSegments = 0;
 
+    /**
+     * Creates a new view model of whichever scenario is current in the ScenarioManager, without
+     * loading any files.
+     * <p>
+     * Used to draw scenarios that were loaded elsewhere, such as by a {@link FrameRenderer}.
+     */
+    public ViewModel() {
         this.selectedEntity.addListener((observable, oldValue, newValue) -> {
             if (newValue == null) {
                 entityInfoText.set("No collectable selected");
@@ -108,6 +150,49 @@ public class ViewModel {
         });
     }
 
+    /**
+     * Creates a new view model and constructs scenarios by reading from the given filenames.
+     * <p>
+     * The files are parsed concurrently by a {@link ScenarioLoader} and registered in the order
+     * given, so the first file's scenario is the one selected. Any directory given instead has
+     * every file in it registered lazily (in name order, after the files given), so that it is
+     * only parsed when first selected.
+     *
+     * @param filenames list of filenames specifying the path to: the scenario files or
+     *                  directories of scenario files
+     * @throws IOException      if loading from a file specified generates an
+     *                          IOException
+     * @throws BadSaveException if any file is invalid according to
+     *                          {@link Scenario#load(Reader)}
+     * @requires filenames != null &amp;&amp; filenames.size() >= 1
+     * @given
+     */
+    public ViewModel(List<String> filenames) throws IOException, BadSaveException {
+        this();
+        List<String> files = new ArrayList<>();
+        List<String> directoryFiles = new ArrayList<>();
+        for (String filename : filenames) {
+            // the distance files saved next to scenario files are not scenarios themselves
+            File[] contents = new File(filename).listFiles(file -> file.isFile()
+                && !file.getName().endsWith(DistanceOracle.FILE_EXTENSION));
+            if (contents == null) {
+                files.add(filename);
+            } else {
+                Arrays.sort(contents);
+                for (File file : contents) {
+                    directoryFiles.add(file.getPath());
+                }
+            }
+        }
+        ScenarioLoader loader = new ScenarioLoader();
+        loader.loadAll(files);
+        loader.registerAll(directoryFiles);
+
+        // make sure set scenario was first loaded
+        ScenarioManager manager = ScenarioManager.getInstance();
+        manager.setScenario(manager.getScenarioNames().get(0));
+    }
+
     /**
      * Returns if the user has moved this turn
      *
@@ -239,16 +324,38 @@ public class ViewModel {
             newScenarioLog.add(event.toString());
         }
         this.scenarioLogText.set(newScenarioLog.toString());
+        updateScenarioStatistics(scenarioEvents);
+
+
+        /* Implement this method for Assignment 2 */
+    }
 
-        //update scenarioStatisticsText
+    /**
+     * Updates the scenario log text to only the latest {@link #RECENT_EVENTS} events, and the
+     * statistics text as {@link #updateScenarioLog()} does.
+     * <p>
+     * Unlike {@link #updateScenarioLog()}, the cost does not grow with the length of the log, so
+     * this may be called for every tick while auto-run is on.
+     */
+    public void updateRecentScenarioLog() {
+        Logger scenarioEvents = ScenarioManager.getInstance().getScenario().getLog();
+        List<Event> events = scenarioEvents.getEvents();
+        StringJoiner newScenarioLog = new StringJoiner(System.lineSeparator());
+        for (Event event : events.subList(Math.max(0, events.size() - RECENT_EVENTS),
+                events.size())) {
+            newScenarioLog.add(event.toString());
+        }
+        this.scenarioLogText.set(newScenarioLog.toString());
+        updateScenarioStatistics(scenarioEvents);
+    }
+
+    /* Updates the statistics text from the given log */
+    private void updateScenarioStatistics(Logger scenarioEvents) {
         StringJoiner newScenarioStats = new StringJoiner(System.lineSeparator());
         newScenarioStats.add("Entities Collected: " + scenarioEvents.getEntitiesCollected());
         newScenarioStats.add("Tiles Traversed: " + scenarioEvents.getTilesTraversed());
         newScenarioStats.add("Points Earned: " + scenarioEvents.getPointsEarned());
         this.scenarioStatisticsText.set(newScenarioStats.toString());
-
-
-        /* Implement this method for Assignment 2 */
     }
 
     /**
@@ -271,15 +378,58 @@ public class ViewModel {
         return showGrid.get();
     }
 
+    /**
+     * Returns the status of if the performance metrics overlay should be shown
+     *
+     * @return metrics overlay visibility
+     */
+    public boolean showMetrics() {
+        return showMetrics.get();
+    }
+
+    /**
+     * Returns the status of if the map should be drawn as a heatmap of animal density
+     *
+     * @return density heatmap visibility
+     */
+    public boolean showDensity() {
+        return showDensity.get();
+    }
+
 
     /**
      * Saves the current state of the research simulation to the file "_default_save.txt"
+     * <p>
+     * If the file already holds an earlier save of the current scenario from this session, only
+     * the cells changed since that save are appended as a delta segment
+     * ({@link Scenario#encodeDelta(int, int)}). Every {@value #COMPACTION_INTERVAL} segments, or
+     * when a different scenario is saved, the file is compacted by writing a full save instead.
      *
      * @throws IOException if an IOException occurs when writing to the files
      * @given
      */
     public void save() throws IOException {
-        saveAs(new FileWriter("saves/_default_save.txt"));
+        Scenario currScenario = ScenarioManager.getInstance().getScenario();
+        int events = currScenario.getLog().getEvents().size();
+
+        if (currScenario != defaultSaveScenario || defaultSaveSegments >= COMPACTION_INTERVAL
+                || !new File(DEFAULT_SAVE).exists()) {
+            //compact: write a full save that later deltas build on
+            saveAs(new FileWriter(DEFAULT_SAVE));
+            defaultSaveScenario = currScenario;
+            defaultSaveSegments = 0;
+        } else {
+            String delta = currScenario.encodeDelta(defaultSaveSegments + 1,
+                defaultSaveCheckpoint);
+            if (delta != null) {
+                BufferedWriter newWriter = new BufferedWriter(new FileWriter(DEFAULT_SAVE, true));
+                newWriter.write(System.lineSeparator());
+                newWriter.write(delta);
+                newWriter.close();
+                defaultSaveSegments++;
+            }
+        }
+        defaultSaveCheckpoint = events;
     }
 
     /**
@@ -434,4 +584,44 @@ public class ViewModel {
     public BooleanProperty showCoordinateProperty() {
         return showCoordinate;
     }
+
+    /**
+     * Returns the object containing the status of if the performance metrics overlay should be
+     * shown
+     *
+     * @return metrics overlay visibility
+     */
+    public BooleanProperty showMetricsProperty() {
+        return showMetrics;
+    }
+
+    /**
+     * Returns the object containing the status of if the map should be drawn as a heatmap of
+     * animal density
+     *
+     * @return density heatmap visibility
+     */
+    public BooleanProperty showDensityProperty() {
+        return showDensity;
+    }
+
+    /**
+     * Returns the property storing the size of animal counted by the density heatmap; or null
+     * if every size is counted.
+     *
+     * @return density heatmap size filter
+     */
+    public ObjectProperty<Size> getDensitySize() {
+        return densitySize;
+    }
+
+    /**
+     * Returns the property storing the habitat of animal counted by the density heatmap; or
+     * null if every habitat is counted.
+     *
+     * @return density heatmap habitat filter
+     */
+    public ObjectProperty<TileType> getDensityHabitat() {
+        return densityHabitat;
+    }
 }
@@ -79,6 +79,14 @@ public abstract class Entity implements Encodable {
      */
     public abstract String getName();
 
+    /**
+     * Returns a new entity of the same type with the same state as this entity.
+     * NB: used to give a forked scenario its own copy of an entity before it is modified
+     *
+     * @return : copy of this entity
+     */
+    public abstract Entity copy();
+
     /**
      * Returns the machine-readable string representation of the Entity
      * The format of the string to return is:
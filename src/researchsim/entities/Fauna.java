@@ -3,6 +3,7 @@ package researchsim.entities;
 import researchsim.logging.CollectEvent;
 import researchsim.logging.MoveEvent;
 import researchsim.map.Coordinate;
+import researchsim.map.MoverClass;
 import researchsim.map.Tile;
 import researchsim.map.TileType;
 import researchsim.scenario.Scenario;
@@ -60,6 +61,16 @@ public class Fauna extends Entity implements Movable, Collectable {
         return habitat;
     }
 
+    /**
+     * Returns a new animal with the same size, coordinate and habitat as this animal.
+     *
+     * @return : copy of this animal
+     */
+    @Override
+    public Fauna copy() {
+        return new Fauna(this.getSize(), this.getCoordinate(), this.habitat);
+    }
+
     /**
      * Returns the human-readable name of this animal.
      * The name is determined by the following table.
@@ -234,21 +245,13 @@ public class Fauna extends Entity implements Movable, Collectable {
      *            and the event is logged
      */
     public void move(Coordinate coordinate) {
-        Tile[] mapGrid = this.getScenario().getMapGrid();
-
         //create and add MoveEvent to Scenario log
         MoveEvent animalMove = new MoveEvent(this, coordinate);
         this.getScenario().getLog().add(animalMove);
 
         //update map grid
-        mapGrid[coordinate.getIndex()].setContents(this);
-        mapGrid[this.getCoordinate().getIndex()].setContents(null);
-
-        try {
-            this.getScenario().setMapGrid(mapGrid);
-        } catch (CoordinateOutOfBoundsException exp) {
-            //do nothing
-        }
+        this.getScenario().setTileContents(coordinate.getIndex(), this);
+        this.getScenario().setTileContents(this.getCoordinate().getIndex(), null);
 
         //change entity's own coordinate
         this.setCoordinate(coordinate);
@@ -263,11 +266,12 @@ public class Fauna extends Entity implements Movable, Collectable {
     }
 
     /**
-     * Returns the current map grid.
-     * @return : the current map grid
+     * Returns the tile at the given coordinate of the current map grid, for reading only.
+     * @param coordinate : coordinate of the tile
+     * @return : the tile at the coordinate
      */
-    private Tile[] getMapGrid() {
-        return this.getScenario().getMapGrid();
+    private Tile getTile(Coordinate coordinate) {
+        return this.getScenario().getTile(coordinate.getIndex());
     }
 
     /**
@@ -338,14 +342,12 @@ public class Fauna extends Entity implements Movable, Collectable {
      *      -the animal's habitat is OCEAN and the new tile is NOT OCEAN
      *
      * @param animalHabitat : moving animal's habitat
-     * @param coordinate : new coordinate to move to
-     * @param mapGrid : current map grid
+     * @param newTile : tile at the new coordinate
      * @return : true if the new tile type is appropriate for the animal,
      *           false otherwise
      */
-    private boolean checkOceanAndLand(TileType animalHabitat, Coordinate coordinate,
-                                      Tile[] mapGrid) {
-        TileType nextCoordinateType = mapGrid[coordinate.getIndex()].getType();
+    private boolean checkOceanAndLand(TileType animalHabitat, Tile newTile) {
+        TileType nextCoordinateType = newTile.getType();
         //check ocean condition
         if (animalHabitat.equals(TileType.OCEAN)) {
             return nextCoordinateType.equals(TileType.OCEAN);
@@ -361,43 +363,11 @@ public class Fauna extends Entity implements Movable, Collectable {
      * Returns true if the new tile to move to is empty,
      * false otherwise
      *
-     * @param coordinate : new coordinate to move to
-     * @param mapGrid : current map grid
+     * @param newTile : tile at the new coordinate
      * @return : true if tile is empty, false otherwise
      */
-    private boolean newTileEmpty(Coordinate coordinate, Tile[] mapGrid) {
-
-        return !mapGrid[coordinate.getIndex()].hasContents();
-    }
-
-    /**
-     * Returns the X (horizontal) move direction for the traversal
-     * ie: LEFT = -1 (decreasing X), RIGHT = 1 (increasing X)
-     *
-     * @param coordinate : the new coordinate to move to
-     * @return : X (horizontal) move direction
-     */
-    private int getDx(Coordinate coordinate) {
-        Coordinate distance = this.getDistance(this.getCoordinate(), coordinate);
-        if (distance.getX() != 0) {
-            return distance.getX() / Math.abs(distance.getX());
-        }
-        return distance.getX();
-    }
-
-    /**
-     * Returns the Y (vertical) move direction for the traversal
-     * ie: UP = -1 (decreasing Y), DOWN = 1 (increasing Y)
-     *
-     * @param coordinate : the new coordinate to move to
-     * @return : Y (vertical) move direction
-     */
-    private int getDy(Coordinate coordinate) {
-        Coordinate distance = this.getDistance(this.getCoordinate(), coordinate);
-        if (distance.getY() != 0) {
-            return distance.getY() / Math.abs(distance.getY());
-        }
-        return distance.getY();
+    private boolean newTileEmpty(Tile newTile) {
+        return !newTile.hasContents();
     }
 
     /**
@@ -407,131 +377,16 @@ public class Fauna extends Entity implements Movable, Collectable {
      *
      * @param currCoordinate : current coordinate of the animal
      * @param newCoordinate : new coordinate to travel to
-     * @param mapGrid : the current map grid
      * @return : true if the animal can validly move from the current coordinate
      *          to the new coordinate
      */
-    private boolean checkConditions(Coordinate currCoordinate, Coordinate newCoordinate,
-                                    Tile[] mapGrid) {
+    private boolean checkConditions(Coordinate currCoordinate, Coordinate newCoordinate) {
         Coordinate distance = this.getDistance(currCoordinate, newCoordinate);
+        Tile newTile = this.getTile(newCoordinate);
         return (this.coordinatesNotEqual(currCoordinate, newCoordinate)
                 && this.isValidDistance(distance)
-                && this.checkOceanAndLand(this.getHabitat(), newCoordinate, mapGrid)
-                && this.newTileEmpty(newCoordinate, mapGrid));
-    }
-
-    /**
-     * This performs a traversal of tiles in the x direction, checking at
-     * each tile whether the animal can move to the next tile. The method
-     * returns true if the animal can reach the desired X coordinate
-     * having satisfying all the conditions for each tile it traversed.
-     *
-     * The method returns false if, at any point in the traversal, the
-     * animal cannot traverse a tile.
-     *
-     * @param initCoordinate : initial coordinate of animal (before move)
-     * @param destination : coordinate the animal seeks (animal has free will I guess)
-     *                      to move to
-     * @param mapGrid : the current map grid
-     * @param dx : X (horizontal) movement direction
-     * @return : true if the animal could successfully traverse the required
-     *          number of X tiles, false otherwise.
-     */
-    private boolean xtraversal(Coordinate initCoordinate, Coordinate destination,
-                               Tile[] mapGrid, int dx) {
-
-        Coordinate currCoordinate = initCoordinate;
-        for (int x = currCoordinate.getX(); x != destination.getX(); x += dx) {
-            //check if next coordinate in x direction is valid
-            Coordinate newCoordinate = new Coordinate(x + dx, currCoordinate.getY());
-            if (!(this.checkConditions(currCoordinate, newCoordinate, mapGrid))) {
-                return false;
-            }
-            currCoordinate = newCoordinate;
-        }
-        //successful traversal in x direction
-        return true;
-    }
-
-    /**
-     * This performs a traversal of tiles in the y direction, checking at
-     * each tile whether the animal can move to the next tile. The method
-     * returns true if the animal can reach the desired X coordinate
-     * having satisfying all the conditions for each tile it traversed.
-     *
-     * The method returns false if, at any point in the traversal, the
-     * animal cannot traverse a tile.
-     *
-     * @param initCoordinate : initial coordinate of the animal (before move)
-     * @param destination : coordinate the animal seeks (animal has free will I guess)
-     *                      to move to (wow same joke again hey?)
-     * @param mapGrid : the current map grid
-     * @param dy : Y (horizontal) movement direction
-     * @return : true if the animal could successfully traverse the required
-     *          number of Y tiles, false otherwise.
-     */
-    private boolean ytraversal(Coordinate initCoordinate, Coordinate destination,
-                               Tile[] mapGrid, int dy) {
-
-        Coordinate currCoordinate = initCoordinate;
-        for (int y = currCoordinate.getY(); y != destination.getY(); y += dy) {
-            //check if next coordinate in y direction is valid
-            Coordinate newCoordinate = new Coordinate(currCoordinate.getX(), y + dy);
-            if (!(this.checkConditions(currCoordinate, newCoordinate, mapGrid))) {
-                return false;
-            }
-            currCoordinate = newCoordinate;
-        }
-        //successful traversal in y direction
-        return true;
-    }
-
-    /**
-     * This is the main traversal method. Either X or Y is traversed first depending
-     * on the firstX value. If the first traversal succeeds, the second direction is
-     * traversed starting from the coordinate the first traversal finished at.
-     *
-     * The method returns true if both the first and second traversal succeeds and
-     * false otherwise.
-     *
-     * @param initCoordinate : the initial coordinate of the animal (before move)
-     * @param destination : the coordinate the animal seeks to move to
-     * @param mapGrid : the current map grid
-     * @param dx : X (horizontal) move direction
-     * @param dy : Y (vertical) move direction
-     * @param firstX : true if x is being traversed first, false if y is being
-     *                traversed first
-     * @return : true if the animal can traverse the necessary number of tiles
-     *           in th direction specified by firstX, false otherwise
-     */
-    private boolean generalTraversal(Coordinate initCoordinate, Coordinate destination,
-                                     Tile[] mapGrid, int dx, int dy, boolean firstX) {
-        boolean firstTraversal;
-        Coordinate currCoordinate = initCoordinate;
-
-        //traverse x first
-        if (firstX) {
-            //result of x traversal
-            firstTraversal = this.xtraversal(initCoordinate, destination, mapGrid, dx);
-            if (firstTraversal) {
-                currCoordinate = new Coordinate(destination.getX(), currCoordinate.getY());
-                //result of y traversal
-                return this.ytraversal(currCoordinate, destination, mapGrid, dy);
-            }
-
-        //traverse y first
-        } else {
-            //result of y traversal
-            firstTraversal = this.ytraversal(initCoordinate, destination, mapGrid, dy);
-            if (firstTraversal) {
-                currCoordinate = new Coordinate(currCoordinate.getX(), destination.getY());
-                //result of x traversal
-                return this.xtraversal(currCoordinate, destination, mapGrid, dx);
-            }
-        }
-
-        //both traversals failed
-        return false;
+                && this.checkOceanAndLand(this.getHabitat(), newTile)
+                && this.newTileEmpty(newTile));
     }
 
     /**
@@ -557,37 +412,25 @@ public class Fauna extends Entity implements Movable, Collectable {
      */
     public boolean canMove(Coordinate coordinate) throws CoordinateOutOfBoundsException {
         Coordinate currCoordinate = this.getCoordinate();
-        Tile[] mapGrid = this.getMapGrid();
 
-        //initially check conditions before traversing any tiles
+        //initially check conditions before checking the tiles crossed
         if (!this.isOnScenarioMap(coordinate)) {
             throw new CoordinateOutOfBoundsException();
         }
 
-        if (!(this.checkConditions(currCoordinate, coordinate, mapGrid))) {
+        if (!(this.checkConditions(currCoordinate, coordinate))) {
             return false;
         }
 
         /*
-        The following simulates a traversal of the tiles the animal must cross
-        in order to move to the new coordinate. Given that the animal can only
-        turn once there are two path combinations: (x direction first then y) OR
-        (y direction first then x).
-
-        The necessary conditions are checked at each tile of the traversal
+        Given that the animal can only turn once there are two paths it can take
+        to the new coordinate: (x direction first then y) OR (y direction first
+        then x). A path is clear if none of the tiles it crosses is blocked (of
+        the wrong habitat or occupied), which the scenario's running counts of
+        blocked tiles along each row and column tell without visiting the tiles.
          */
-
-        //x and y directions to traverse
-        int dx = this.getDx(coordinate);
-        int dy = this.getDy(coordinate);
-
-        //traverse x first, then y
-        if (generalTraversal(currCoordinate, coordinate, mapGrid, dx, dy, true)) {
-            return true;
-        //traverse y first, then x
-        } else {
-            return generalTraversal(currCoordinate, coordinate, mapGrid, dx, dy, false);
-        }
+        return this.getScenario().getBlockedCounts()
+            .isPathClear(MoverClass.of(this), currCoordinate, coordinate);
     }
 
     /**
@@ -606,13 +449,7 @@ public class Fauna extends Entity implements Movable, Collectable {
         this.getScenario().getLog().add(collectEvent);
 
         //clear tile the animal was occupying
-        Tile[] mapGrid = this.getScenario().getMapGrid();
-        mapGrid[collectEvent.getCoordinate().getIndex()].setContents(null);
-        try {
-            this.getScenario().setMapGrid(mapGrid);
-        } catch (CoordinateOutOfBoundsException exp) {
-            //do nothing
-        }
+        this.getScenario().setTileContents(collectEvent.getCoordinate().getIndex(), null);
 
         //animal removed from scenario's animal controller
         this.getScenario().getController().removeAnimal(this);
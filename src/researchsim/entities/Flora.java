@@ -2,11 +2,9 @@ package researchsim.entities;
 
 import researchsim.logging.CollectEvent;
 import researchsim.map.Coordinate;
-import researchsim.map.Tile;
 import researchsim.scenario.Scenario;
 import researchsim.scenario.ScenarioManager;
 import researchsim.util.Collectable;
-import researchsim.util.CoordinateOutOfBoundsException;
 
 /**
  * Flora is all the plant life present in a particular region or time, generally the naturally
@@ -30,6 +28,16 @@ public class Flora extends Entity implements Collectable {
         super(size, coordinate);
     }
 
+    /**
+     * Returns a new plant with the same size and coordinate as this plant.
+     *
+     * @return : copy of this plant
+     */
+    @Override
+    public Flora copy() {
+        return new Flora(this.getSize(), this.getCoordinate());
+    }
+
     /**
      * Returns the human-readable name of this plant.
      * The name is determined by the following table.
@@ -97,13 +105,7 @@ public class Flora extends Entity implements Collectable {
         this.getScenario().getLog().add(collectEvent);
 
         //clear tile the plant was occupying
-        Tile[] mapGrid = this.getScenario().getMapGrid();
-        mapGrid[collectEvent.getCoordinate().getIndex()].setContents(null);
-        try {
-            this.getScenario().setMapGrid(mapGrid);
-        } catch (CoordinateOutOfBoundsException exp) {
-            //do nothing
-        }
+        this.getScenario().setTileContents(collectEvent.getCoordinate().getIndex(), null);
         return this.getSize().points;
     }
 }
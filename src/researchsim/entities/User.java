@@ -1,6 +1,7 @@
 package researchsim.entities;
 
 import researchsim.logging.MoveEvent;
+import researchsim.map.MoverClass;
 import researchsim.map.Tile;
 import researchsim.map.TileType;
 import researchsim.scenario.Scenario;
@@ -47,6 +48,16 @@ public class User extends Entity implements Movable {
         return this.userName;
     }
 
+    /**
+     * Returns a new user with the same coordinate and name as this user.
+     *
+     * @return : copy of this user
+     */
+    @Override
+    public User copy() {
+        return new User(this.getCoordinate(), this.userName);
+    }
+
     /**
      * Returns the machine-readable string representation of this user
      * The format of the string is:
@@ -133,8 +144,6 @@ public class User extends Entity implements Movable {
      *            and the event is logged
      */
     public void move(Coordinate coordinate) {
-        Tile[] mapGrid = this.getMapGrid();
-
         //create and add MoveEvent to Scenario log
         MoveEvent animalMove = new MoveEvent(this, coordinate);
         this.getScenario().getLog().add(animalMove);
@@ -147,14 +156,8 @@ public class User extends Entity implements Movable {
         }
 
         //update map grid
-        mapGrid[coordinate.getIndex()].setContents(this);
-        mapGrid[this.getCoordinate().getIndex()].setContents(null);
-
-        try {
-            this.getScenario().setMapGrid(mapGrid);
-        } catch (CoordinateOutOfBoundsException exp) {
-            //do nothing
-        }
+        this.getScenario().setTileContents(coordinate.getIndex(), this);
+        this.getScenario().setTileContents(this.getCoordinate().getIndex(), null);
 
         //change entity's own coordinate
         this.setCoordinate(coordinate);
@@ -169,11 +172,12 @@ public class User extends Entity implements Movable {
     }
 
     /**
-     * Returns the current map grid.
-     * @return : the current map grid
+     * Returns the tile at the given coordinate of the current map grid, for reading only.
+     * @param coordinate : coordinate of the tile
+     * @return : the tile at the coordinate
      */
-    private Tile[] getMapGrid() {
-        return this.getScenario().getMapGrid();
+    private Tile getTile(Coordinate coordinate) {
+        return this.getScenario().getTile(coordinate.getIndex());
     }
 
 
@@ -199,37 +203,6 @@ public class User extends Entity implements Movable {
         return distanceCoordinate.getAbsX() + distanceCoordinate.getAbsY();
     }
 
-    /**
-     * Returns the X (horizontal) move direction for the traversal
-     * ie: LEFT = -1 (decreasing X), RIGHT = 1 (increasing X)
-     *
-     * @param otherCoordinate : the new coordinate to move to
-     * @return : X (horizontal) move direction
-     */
-    private int getDx(Coordinate otherCoordinate) {
-        Coordinate distance = this.getDistance(this.getCoordinate(), otherCoordinate);
-        if (distance.getX() != 0) {
-            return distance.getX() / Math.abs(distance.getX());
-        }
-        return distance.getX();
-    }
-
-
-    /**
-     * Returns the Y (vertical) move direction for the traversal
-     * ie: UP = -1 (decreasing Y), DOWN = 1 (increasing Y)
-     *
-     * @param otherCoordinate : the new coordinate to move to
-     * @return : Y (vertical) move direction
-     */
-    private int getDy(Coordinate otherCoordinate) {
-        Coordinate distance = this.getDistance(this.getCoordinate(), otherCoordinate);
-        if (distance.getY() != 0) {
-            return distance.getY() / Math.abs(distance.getY());
-        }
-        return distance.getY();
-    }
-
     /**
      * Returns true if the current coordinate is different from
      * the new coordinate and false otherwise.
@@ -274,13 +247,12 @@ public class User extends Entity implements Movable {
      * false otherwise. A new tile is appropriate if it is NOT of type
      * OCEAN or MOUNTAIN.
      *
-     * @param mapGrid : current map grid
-     * @param coordinate : new coordinate to move to
+     * @param newTile : tile at the new coordinate
      * @return : true if the new tile type is appropriate for the user,
      *           false otherwise
      */
-    private boolean checkOceanAndMountain(Tile[] mapGrid, Coordinate coordinate) {
-        TileType habitat = mapGrid[coordinate.getIndex()].getType();
+    private boolean checkOceanAndMountain(Tile newTile) {
+        TileType habitat = newTile.getType();
         return (!(habitat.equals(TileType.MOUNTAIN)
                 || habitat.equals(TileType.OCEAN)));
     }
@@ -292,131 +264,15 @@ public class User extends Entity implements Movable {
      *
      * @param currCoordinate : current coordinate of the user
      * @param newCoordinate : new coordinate to travel to
-     * @param mapGrid : the current map grid
      * @return : true if the user can validly move from the current coordinate
      *          to the new coordinate
      */
-    private boolean checkConditions(Coordinate currCoordinate, Coordinate newCoordinate,
-                                    Tile[] mapGrid) {
+    private boolean checkConditions(Coordinate currCoordinate, Coordinate newCoordinate) {
 
         Coordinate distance = this.getDistance(currCoordinate, newCoordinate);
         return (this.coordinateNotEqual(currCoordinate, newCoordinate)
                 && this.isValidDistance(distance)
-                && this.checkOceanAndMountain(mapGrid, newCoordinate));
-    }
-
-    /**
-     * This performs a traversal of tiles in the x direction, checking at
-     * each tile whether the user can move to the next tile. The method
-     * returns true if the user can reach the desired X coordinate
-     * having satisfying all the conditions for each tile they traversed.
-     *
-     * The method returns false if, at any point in the traversal, the
-     * animal cannot traverse a tile.
-     *
-     * @param initCoordinate : initial coordinate of animal (before move)
-     * @param destination : coordinate the animal seeks (animal has free will I guess)
-     *                      to move to
-     * @param mapGrid : the current map grid
-     * @param dx : X (horizontal) movement direction
-     * @return : true if the animal could successfully traverse the required
-     *          number of X tiles, false otherwise.
-     */
-    private boolean xtraversal(Coordinate initCoordinate, Coordinate destination,
-                               Tile[] mapGrid, int dx) {
-
-        Coordinate currCoordinate = initCoordinate;
-        for (int x = currCoordinate.getX(); x != destination.getX(); x += dx) {
-            //check if next coordinate in x direction is valid
-            Coordinate newCoordinate = new Coordinate(x + dx, currCoordinate.getY());
-            if (!(this.checkConditions(currCoordinate, newCoordinate, mapGrid))) {
-                return false;
-            }
-            currCoordinate = newCoordinate;
-        }
-        //successful traversal
-        return true;
-    }
-
-    /**
-     * This performs a traversal of tiles in the y direction, checking at
-     * each tile whether the user can move to the next tile. The method
-     * returns true if the user can reach the desired X coordinate
-     * having satisfying all the conditions for each tile they traversed.
-     *
-     * The method returns false if, at any point in the traversal, the
-     * user cannot traverse a tile.
-     *
-     * @param initCoordinate : initial coordinate of the user (before move)
-     * @param destination : coordinate the user seeks to move to
-     * @param mapGrid : the current map grid
-     * @param dy : Y (horizontal) movement direction
-     * @return : true if the user could successfully traverse the required
-     *          number of Y tiles, false otherwise.
-     */
-    private boolean ytraversal(Coordinate initCoordinate, Coordinate destination,
-                               Tile[] mapGrid, int dy) {
-
-        Coordinate currCoordinate = initCoordinate;
-        for (int y = currCoordinate.getY(); y != destination.getY(); y += dy) {
-            //check if next coordinate in y direction is valid
-            Coordinate newCoordinate = new Coordinate(currCoordinate.getX(), y + dy);
-            if (!(this.checkConditions(currCoordinate, newCoordinate, mapGrid))) {
-                return false;
-            }
-            currCoordinate = newCoordinate;
-        }
-        //successful traversal in x direction
-        return true;
-    }
-
-    /**
-     * This is the main traversal method. Either X or Y is traversed first depending
-     * on the firstX value. If the first traversal succeeds, the second direction is
-     * traversed starting from the coordinate the first traversal finished at.
-     *
-     * The method returns true if both the first and second traversal succeeds and
-     * false otherwise.
-     *
-     * @param initCoordinate : the initial coordinate of the user (before move)
-     * @param destination : the coordinate the user seeks to move to
-     * @param mapGrid : the current map grid
-     * @param dx : X (horizontal) move direction
-     * @param dy : Y (vertical) move direction
-     * @param firstX : true if x is being traversed first, false if y is being
-     *                traversed first
-     * @return : true if the user can traverse the necessary number of tiles
-     *           in th direction specified by firstX, false otherwise
-     */
-    private boolean generalTraversal(Coordinate initCoordinate, Coordinate destination,
-                                     Tile[] mapGrid, int dx, int dy, boolean firstX) {
-
-        boolean firstTraversal;
-        Coordinate currCoordinate = initCoordinate;
-
-        //traverse x first
-        if (firstX) {
-            //result of x traversal
-            firstTraversal = this.xtraversal(initCoordinate, destination, mapGrid, dx);
-            if (firstTraversal) {
-                currCoordinate = new Coordinate(destination.getX(), currCoordinate.getY());
-                //result of y traversal
-                return this.ytraversal(currCoordinate, destination, mapGrid, dy);
-            }
-
-            //traverse y first
-        } else {
-            //result of y traversal
-            firstTraversal = this.ytraversal(initCoordinate, destination, mapGrid, dy);
-            if (firstTraversal) {
-                currCoordinate = new Coordinate(currCoordinate.getX(), destination.getY());
-                //result of x traversal
-                return this.xtraversal(currCoordinate, destination, mapGrid, dx);
-            }
-        }
-
-        //the particular traversal failed
-        return false;
+                && this.checkOceanAndMountain(this.getTile(newCoordinate)));
     }
 
     /**
@@ -438,37 +294,25 @@ public class User extends Entity implements Movable {
      */
     public boolean canMove(Coordinate coordinate) throws CoordinateOutOfBoundsException {
         Coordinate currCoordinate = this.getCoordinate();
-        Tile[] mapGrid = this.getMapGrid();
 
-        //initially check conditions before traversing any tiles
+        //initially check conditions before checking the tiles crossed
         if (!this.isOnScenarioMap(coordinate)) {
             throw new CoordinateOutOfBoundsException();
         }
 
-        if (!(this.checkConditions(currCoordinate, coordinate, mapGrid))) {
+        if (!(this.checkConditions(currCoordinate, coordinate))) {
             return false;
         }
 
         /*
-        The following simulates a traversal of the tiles the user must cross
-        in order to move to the new coordinate. Given that the user can only
-        turn once there are two path combinations: (x direction first then y) OR
-        (y direction first then x).
-
-        The necessary conditions are checked at each tile of the traversal
+        Given that the user can only turn once there are two paths it can take
+        to the new coordinate: (x direction first then y) OR (y direction first
+        then x). A path is clear if none of the tiles it crosses is OCEAN or
+        MOUNTAIN, which the scenario's running counts of blocked tiles along each
+        row and column tell without visiting the tiles.
          */
-
-        //x and y directions to traverse
-        int dx = this.getDx(coordinate);
-        int dy = this.getDy(coordinate);
-
-        //traverse x first, then y
-        if (generalTraversal(currCoordinate, coordinate, mapGrid, dx, dy, true)) {
-            return true;
-        //traverse y first, then x
-        } else {
-            return generalTraversal(currCoordinate, coordinate, mapGrid, dx, dy, false);
-        }
+        return this.getScenario().getBlockedCounts()
+            .isPathClear(MoverClass.USER, currCoordinate, coordinate);
     }
 
     /**
@@ -488,7 +332,7 @@ public class User extends Entity implements Movable {
          */
         for (Coordinate coordinate : checkRange(1, this.getCoordinate())) {
             if (coordinate.isInBounds()) {
-                Tile newTile = this.getMapGrid()[coordinate.getIndex()];
+                Tile newTile = this.getScenario().getTile(coordinate.getIndex());
                 try {
                     if (!(coordinate.equals(this.getCoordinate()))
                             && newTile.hasContents()
@@ -520,7 +364,7 @@ public class User extends Entity implements Movable {
             throw new CoordinateOutOfBoundsException("coordinate not in map bounds");
         }
 
-        Tile collectingTile = this.getMapGrid()[coordinate.getIndex()];
+        Tile collectingTile = this.getScenario().getTile(coordinate.getIndex());
 
         //collect the entity if it's in the range of possible moves for the user
         if (this.getPossibleMoves().contains(coordinate)) {
@@ -0,0 +1,115 @@
+package researchsim.logging;
+
+import java.util.Arrays;
+
+/**
+ * Records the most recent durations of some repeated operation, such as drawing a frame.
+ * <p>
+ * Only the latest {@code capacity} samples are kept (in a ring buffer), so percentiles and
+ * histograms describe recent behaviour rather than the whole run. Samples may be recorded and
+ * read from different threads.
+ */
+public class LatencyRecorder {
+
+    /**
+     * Latest samples, in nanoseconds, oldest overwritten first
+     */
+    private final long[] samples;
+
+    /**
+     * Number of samples recorded so far, including overwritten ones
+     */
+    private long count;
+
+    /**
+     * Creates a new recorder that keeps the given number of latest samples.
+     *
+     * @param capacity : number of samples to keep
+     * @throws IllegalArgumentException : if capacity &lt; 1
+     */
+    public LatencyRecorder(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The given capacity does not conform to the "
+                + "requirement: capacity >= 1.");
+        }
+        this.samples = new long[capacity];
+        this.count = 0;
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos : duration in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+    }
+
+    /**
+     * Records several durations at once, in the order given. Threads that time an operation
+     * together can keep their own durations and record them here afterwards, rather than
+     * taking turns to record each one.
+     *
+     * @param nanos : durations in nanoseconds
+     * @param length : number of durations to record, from the start of nanos
+     */
+    public synchronized void recordAll(long[] nanos, int length) {
+        for (int i = 0; i < length; i++) {
+            samples[(int) (count % samples.length)] = nanos[i];
+            count++;
+        }
+    }
+
+    /**
+     * Returns the number of durations recorded so far, including those no longer kept.
+     *
+     * @return : number of durations recorded
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the given percentile of the kept durations, or 0 if none have been recorded.
+     *
+     * @param percentile : percentile to return, between 0 and 100
+     * @return : duration in nanoseconds that the given percent of kept durations do not exceed
+     */
+    public long getPercentile(double percentile) {
+        long[] sorted = getSamples();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    /**
+     * Returns how many of the kept durations fall into each of the given number of equal-width
+     * buckets between 0 and the given maximum. Durations above the maximum are counted in the
+     * last bucket.
+     *
+     * @param buckets  : number of buckets
+     * @param maxNanos : upper bound of the last bucket, in nanoseconds
+     * @return : number of kept durations in each bucket
+     */
+    public int[] getHistogram(int buckets, long maxNanos) {
+        int[] histogram = new int[buckets];
+        for (long sample : getSamples()) {
+            int bucket = (int) (sample * buckets / Math.max(1, maxNanos));
+            histogram[Math.min(buckets - 1, bucket)]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns a copy of the kept durations, in no particular order.
+     *
+     * @return : kept durations
+     */
+    private synchronized long[] getSamples() {
+        return Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+    }
+}
@@ -1,34 +1,143 @@
 package researchsim.logging;
 
+import researchsim.entities.User;
 import researchsim.map.Coordinate;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A detailed log that contains a record of {@link Event}s and contains some event statistics.
+ * <p>
+ * A log can be forked in O(1) ({@link #fork()}): the events logged since the last fork are frozen
+ * into a segment, the segments are shared by both logs, and each only stores the events added to
+ * it afterwards. Events are never copied, however often a log is forked.
  *
  * @ass2
  */
 public class Logger {
 
-    /** list of events that have occurred in the given scenario */
+    /** number of segments there is room for when a log first freezes its events */
+    private static final int INITIAL_SEGMENTS = 16;
+
+    /** list of events that have occurred in the given scenario (after those in the segments) */
     private ArrayList<Event> eventList;
+    /**
+     * frozen events logged before the last fork, one array per fork; shared with every log
+     * forked from this one, of which only the first segmentCount belong to this log
+     */
+    private Event[][] segments;
+    /** position in the log just after the last event of each segment */
+    private int[] segmentEnds;
+    /** number of segments holding this log's earlier events */
+    private int segmentCount;
+    /** number of segments filled in by any of the logs sharing them */
+    private AtomicInteger segmentsFilled;
+    /** number of events in this log's segments */
+    private int frozenSize;
     /** number of entities that have been collected by the user */
     private int numEntitiesCollected;
     /** number of tiles that have been traversed by entities */
     private int numTilesTravelled;
     /** number of points earned in the given scenario */
     private int numPointsEarned;
+    /** position in the log of the latest event initiated by a user, or -1 if there is none */
+    private int lastUserEvent;
 
     /**
      * Creates a new logger to maintain a list of events that occur in a scenario
      */
     public Logger() {
         this.eventList = new ArrayList<Event>();
+        this.segments = new Event[0][];
+        this.segmentEnds = new int[0];
+        this.segmentCount = 0;
+        this.segmentsFilled = new AtomicInteger();
+        this.frozenSize = 0;
         this.numEntitiesCollected = 0;
         this.numTilesTravelled = 0;
         this.numPointsEarned = 0;
+        this.lastUserEvent = -1;
+    }
+
+    /**
+     * Creates a copy of the given log that shares its events.
+     *
+     * @param other : log to copy
+     */
+    private Logger(Logger other) {
+        this.eventList = other.eventList;
+        this.segments = other.segments;
+        this.segmentEnds = other.segmentEnds;
+        this.segmentCount = other.segmentCount;
+        this.segmentsFilled = other.segmentsFilled;
+        this.frozenSize = other.frozenSize;
+        this.numEntitiesCollected = other.numEntitiesCollected;
+        this.numTilesTravelled = other.numTilesTravelled;
+        this.numPointsEarned = other.numPointsEarned;
+        this.lastUserEvent = other.lastUserEvent;
+    }
+
+    /**
+     * Returns a fork of this log holding the same events and statistics.
+     * <p>
+     * Events added to either log afterwards are not seen by the other. Forking costs amortised
+     * O(1): the events logged since the last fork are frozen into a new segment shared by both
+     * logs (segments are read-only, so both logs may then be used from different threads).
+     *
+     * @return : fork of this log
+     */
+    public Logger fork() {
+        if (!this.eventList.isEmpty()) {
+            this.freeze();
+        }
+        Logger fork = new Logger(this);
+        fork.eventList = new ArrayList<Event>();
+        return fork;
+    }
+
+    /**
+     * Moves the events logged since the last fork into a new segment.
+     * <p>
+     * The segment is added in place if no other log has added one after this log's segments
+     * yet; otherwise (or if there is no room left) the segments are copied first, which copies
+     * references to the segments but never the events in them.
+     */
+    private void freeze() {
+        Event[] segment = this.eventList.toArray(new Event[0]);
+        if (this.segmentCount == this.segments.length
+                || !this.segmentsFilled.compareAndSet(this.segmentCount, this.segmentCount + 1)) {
+            int capacity = Math.max(INITIAL_SEGMENTS, 2 * this.segmentCount);
+            this.segments = Arrays.copyOf(this.segments, capacity);
+            this.segmentEnds = Arrays.copyOf(this.segmentEnds, capacity);
+            this.segmentsFilled = new AtomicInteger(this.segmentCount + 1);
+        }
+        this.frozenSize += segment.length;
+        this.segments[this.segmentCount] = segment;
+        this.segmentEnds[this.segmentCount] = this.frozenSize;
+        this.segmentCount++;
+        this.eventList = new ArrayList<Event>();
+    }
+
+    /**
+     * Returns the event at the given position of the log.
+     *
+     * @param index : position of the event
+     * @return : the event
+     */
+    private Event getEvent(int index) {
+        if (index >= this.frozenSize) {
+            return this.eventList.get(index - this.frozenSize);
+        }
+        //segments are never empty, so their ends strictly increase
+        int segment = Arrays.binarySearch(this.segmentEnds, 0, this.segmentCount, index);
+        segment = segment >= 0 ? segment + 1 : -segment - 1;
+        int start = segment == 0 ? 0 : this.segmentEnds[segment - 1];
+        return this.segments[segment][index - start];
     }
 
     /**
@@ -57,10 +166,46 @@ public class Logger {
 
     /**
      * Return the list of all logged events
+     * NB: once the log has been forked, the returned list is a read-only view
      * @return : all logged events
      */
     public List<Event> getEvents() {
-        return this.eventList;
+        if (this.segmentCount == 0) {
+            return this.eventList;
+        }
+        return new AbstractList<Event>() {
+            @Override
+            public Event get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+                return getEvent(index);
+            }
+
+            @Override
+            public int size() {
+                return frozenSize + eventList.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the events of the latest turn.
+     * <p>
+     * A turn is either a single user action, or the animal moves between two user actions. So
+     * if the latest event was initiated by a user, only that event is returned; otherwise every
+     * event since the latest user event (or since the start of the log) is returned.
+     * <p>
+     * The turn's bounds are kept up to date as events are added, so this costs O(1) and reading
+     * the returned (read-only) list only costs as much as the turn's events.
+     *
+     * @return : events of the latest turn, in the order they were added
+     */
+    public List<Event> getTurnEvents() {
+        List<Event> events = this.getEvents();
+        int start = this.lastUserEvent == events.size() - 1
+            ? Math.max(0, this.lastUserEvent) : this.lastUserEvent + 1;
+        return Collections.unmodifiableList(events.subList(start, events.size()));
     }
 
     /**
@@ -76,7 +221,10 @@ public class Logger {
      * @param event : the new event
      */
     public void add(Event event) {
-        this.getEvents().add(event);
+        this.eventList.add(event);
+        if (event.getEntity() instanceof User) {
+            this.lastUserEvent = this.frozenSize + this.eventList.size() - 1;
+        }
         if (event instanceof CollectEvent) {
             //increment points and number of entities collected
             CollectEvent collectEvent = (CollectEvent) event;
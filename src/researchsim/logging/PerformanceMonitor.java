@@ -0,0 +1,82 @@
+package researchsim.logging;
+
+/**
+ * Collects live performance metrics of one simulation, for display while it runs.
+ * <p>
+ * Records how long {@code AnimalController.move()} takes and how long automated users take to
+ * decide their turns, and samples how quickly events are logged. Each scenario has its own
+ * monitor, shared with its forks ({@code Scenario.getMonitor()}), so that the threads driving
+ * forks of one simulation record into the same monitor while other simulations, such as headless
+ * runs or tests, are kept apart.
+ */
+public class PerformanceMonitor {
+
+    /**
+     * Number of latest samples kept for each duration.
+     * The value of this constant is {@value}
+     */
+    public static final int WINDOW = 256;
+
+    /** durations of moving the animals of a scenario */
+    private final LatencyRecorder tickTimes;
+    /** durations of an automated user deciding its turn */
+    private final LatencyRecorder decisionTimes;
+    /** number of events logged when the event rate was last sampled, or -1 if never */
+    private long sampledEvents;
+    /** time the event rate was last sampled, in nanoseconds */
+    private long sampledAt;
+
+    /**
+     * Creates a monitor with no samples.
+     */
+    public PerformanceMonitor() {
+        this.tickTimes = new LatencyRecorder(WINDOW);
+        this.decisionTimes = new LatencyRecorder(WINDOW);
+        this.sampledEvents = -1;
+        this.sampledAt = System.nanoTime();
+    }
+
+    /**
+     * Returns the recorder of how long moving the animals of a scenario takes.
+     *
+     * @return : tick durations
+     */
+    public LatencyRecorder getTickTimes() {
+        return tickTimes;
+    }
+
+    /**
+     * Returns the recorder of how long automated users take to decide their turns.
+     *
+     * @return : decision durations
+     */
+    public LatencyRecorder getDecisionTimes() {
+        return decisionTimes;
+    }
+
+    /**
+     * Returns the number of events logged every second since this method was last called, given
+     * the number of events in the simulation's log now. The first call returns 0.
+     *
+     * @param events : number of events in the log
+     * @return : events logged per second
+     */
+    public synchronized double sampleEventRate(long events) {
+        long now = System.nanoTime();
+        double rate = sampledEvents < 0 ? 0
+            : Math.max(0, events - sampledEvents) * 1e9 / Math.max(1, now - sampledAt);
+        sampledEvents = events;
+        sampledAt = now;
+        return rate;
+    }
+
+    /**
+     * Returns the number of bytes of heap currently in use.
+     *
+     * @return : heap used, in bytes
+     */
+    public long getHeapUsed() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
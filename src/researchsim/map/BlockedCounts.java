@@ -0,0 +1,176 @@
+package researchsim.map;
+
+/**
+ * Running counts of blocked tiles along every row and column of a map, for each
+ * {@link MoverClass}, so that whether a straight line of tiles is clear takes two lookups.
+ * <p>
+ * A tile is blocked for a mover class if the class can not enter its terrain, or (for animals
+ * only, as users are not stopped by entities) if it is occupied. Occupancy is kept up to date
+ * with {@link #setOccupied(int, boolean)}, which costs O(width + height).
+ */
+public class BlockedCounts {
+
+    /** width of the map, in tiles */
+    private final int width;
+    /** height of the map, in tiles */
+    private final int height;
+    /** whether each tile (by index) is occupied */
+    private final boolean[] occupied;
+    /** whether each mover class can enter the terrain of each tile, by class ordinal */
+    private final boolean[][] enterable;
+    /** blocked tiles in row y before column x (at y * (width + 1) + x), by class ordinal */
+    private final int[][] rows;
+    /** blocked tiles in column x before row y (at x * (height + 1) + y), by class ordinal */
+    private final int[][] columns;
+
+    /**
+     * Counts the blocked tiles of the given map.
+     *
+     * @param map : tiles of the map, in index order
+     * @param width : width of the map, in tiles
+     */
+    public BlockedCounts(Tile[] map, int width) {
+        this.width = width;
+        this.height = map.length / width;
+        this.occupied = new boolean[map.length];
+        for (int i = 0; i < map.length; i++) {
+            this.occupied[i] = map[i].hasContents();
+        }
+        int classes = MoverClass.values().length;
+        this.enterable = new boolean[classes][map.length];
+        this.rows = new int[classes][(width + 1) * height];
+        this.columns = new int[classes][(height + 1) * width];
+        for (MoverClass mover : MoverClass.values()) {
+            boolean[] enter = enterable[mover.ordinal()];
+            for (int i = 0; i < map.length; i++) {
+                enter[i] = mover.canEnter(map[i].getType());
+            }
+            int[] row = rows[mover.ordinal()];
+            int[] column = columns[mover.ordinal()];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int blocked = isBlocked(mover, x + y * width) ? 1 : 0;
+                    row[y * (width + 1) + x + 1] = row[y * (width + 1) + x] + blocked;
+                    column[x * (height + 1) + y + 1] = column[x * (height + 1) + y] + blocked;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of the given counts.
+     *
+     * @param other : counts to copy
+     */
+    public BlockedCounts(BlockedCounts other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.occupied = other.occupied.clone();
+        //terrain never changes, so it is shared
+        this.enterable = other.enterable;
+        this.rows = new int[other.rows.length][];
+        this.columns = new int[other.columns.length][];
+        for (int i = 0; i < rows.length; i++) {
+            this.rows[i] = other.rows[i].clone();
+            this.columns[i] = other.columns[i].clone();
+        }
+    }
+
+    /**
+     * Records whether the tile at the given index is occupied.
+     *
+     * @param index : index of the tile
+     * @param isOccupied : true if the tile now has contents, false if it is empty
+     */
+    public void setOccupied(int index, boolean isOccupied) {
+        if (occupied[index] == isOccupied) {
+            return;
+        }
+        occupied[index] = isOccupied;
+        int x = index % width;
+        int y = index / width;
+        int change = isOccupied ? 1 : -1;
+        for (MoverClass mover : MoverClass.values()) {
+            //a user is not blocked by entities, and terrain that is blocked stays blocked
+            if (mover == MoverClass.USER || !enterable[mover.ordinal()][index]) {
+                continue;
+            }
+            int[] row = rows[mover.ordinal()];
+            for (int i = y * (width + 1) + x + 1; i <= y * (width + 1) + width; i++) {
+                row[i] += change;
+            }
+            int[] column = columns[mover.ordinal()];
+            for (int i = x * (height + 1) + y + 1; i <= x * (height + 1) + height; i++) {
+                column[i] += change;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the tile at the given index is blocked for a mover class.
+     *
+     * @param mover : class of mover
+     * @param index : index of the tile
+     * @return : true if the mover can not enter the tile, false otherwise
+     */
+    public boolean isBlocked(MoverClass mover, int index) {
+        return !enterable[mover.ordinal()][index]
+            || (mover != MoverClass.USER && occupied[index]);
+    }
+
+    /**
+     * Returns true if a mover of the given class could travel from one coordinate to another,
+     * going along a row and then a column or along a column and then a row (turning at most
+     * once), without crossing a blocked tile. The starting tile itself is not checked.
+     *
+     * @param mover : class of mover
+     * @param from : coordinate to start at
+     * @param to : coordinate to reach
+     * @return : true if either path is clear, false otherwise
+     */
+    public boolean isPathClear(MoverClass mover, Coordinate from, Coordinate to) {
+        return isPathClear(mover, from.getX(), from.getY(), to.getX(), to.getY());
+    }
+
+    /**
+     * Returns true if a mover of the given class could travel from one tile to another turning
+     * at most once, as per {@link #isPathClear(MoverClass, Coordinate, Coordinate)}.
+     *
+     * @param mover : class of mover
+     * @param fromX : column to start at
+     * @param fromY : row to start at
+     * @param toX : column to reach
+     * @param toY : row to reach
+     * @return : true if either path is clear, false otherwise
+     */
+    public boolean isPathClear(MoverClass mover, int fromX, int fromY, int toX, int toY) {
+        int[] row = rows[mover.ordinal()];
+        int[] column = columns[mover.ordinal()];
+        //along the row first, then the column
+        if (isRowClear(row, fromY, fromX, toX) && isColumnClear(column, toX, fromY, toY)) {
+            return true;
+        }
+        //along the column first, then the row
+        return isColumnClear(column, fromX, fromY, toY) && isRowClear(row, toY, fromX, toX);
+    }
+
+    /* Whether the tiles of a row after the start, up to and including the end, are clear */
+    private boolean isRowClear(int[] row, int y, int fromX, int toX) {
+        if (fromX == toX) {
+            return true;
+        }
+        int first = fromX < toX ? fromX + 1 : toX;
+        int last = fromX < toX ? toX : fromX - 1;
+        return row[y * (width + 1) + last + 1] == row[y * (width + 1) + first];
+    }
+
+    /* Whether the tiles of a column after the start, up to and including the end, are clear */
+    private boolean isColumnClear(int[] column, int x, int fromY, int toY) {
+        if (fromY == toY) {
+            return true;
+        }
+        int first = fromY < toY ? fromY + 1 : toY;
+        int last = fromY < toY ? toY : fromY - 1;
+        return column[x * (height + 1) + last + 1] == column[x * (height + 1) + first];
+    }
+}
@@ -0,0 +1,307 @@
+package researchsim.map;
+
+import researchsim.scenario.Scenario;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Shortest distances, in tiles, between every pair of tiles of a scenario's map, for each
+ * {@link MoverClass}.
+ * <p>
+ * The distances are found once by a breadth first search from every tile, over the terrain
+ * only, so a query is a single array lookup. Since terrain never changes after a scenario is
+ * loaded, the distances can be saved to a file next to the scenario's save file and read back
+ * instead of being searched again (see {@link #forSaveFile(Scenario, File)}).
+ * <p>
+ * Distances count single tile steps; a mover that covers several tiles a move needs at least
+ * {@link #getMinimumMoves(MoverClass, Coordinate, Coordinate, int)} moves.
+ * <p>
+ * The table holds a short for every pair of tiles, per mover class, and is built when a scenario
+ * is loaded. This is only affordable because maps have at most
+ * {@link Scenario#MAX_TILES} tiles (a few hundred kilobytes in all); maps larger than that are
+ * refused by {@link #build(Scenario)} rather than overflowing the table's size or the heap.
+ */
+public class DistanceOracle {
+
+    /**
+     * Extension added to a scenario's save file to name the file its distances are saved in.
+     * The value of this constant is {@value}
+     */
+    public static final String FILE_EXTENSION = ".dist";
+
+    /**
+     * Distance returned between tiles that can not reach each other.
+     * The value of this constant is {@value}
+     */
+    public static final int UNREACHABLE = -1;
+
+    /** first int of a distance file, to recognise it */
+    private static final int MAGIC = 0x44495354;
+    /** version of the distance file format */
+    private static final int VERSION = 1;
+
+    /** width of the map, in tiles */
+    private final int width;
+    /** height of the map, in tiles */
+    private final int height;
+    /** type of each tile (by index) the distances were found over */
+    private final TileType[] terrain;
+    /** distances from each tile to each tile (from * tiles + to), by mover class ordinal */
+    private final short[][] distances;
+
+    /**
+     * Creates an oracle from distances that have already been found.
+     *
+     * @param width : width of the map
+     * @param height : height of the map
+     * @param terrain : type of each tile
+     * @param distances : distances between each pair of tiles, by mover class ordinal
+     */
+    private DistanceOracle(int width, int height, TileType[] terrain, short[][] distances) {
+        this.width = width;
+        this.height = height;
+        this.terrain = terrain;
+        this.distances = distances;
+    }
+
+    /**
+     * Finds the distances between every pair of tiles of the given scenario's map.
+     *
+     * @param scenario : scenario whose map to measure
+     * @return : an oracle for the scenario's map
+     * @throws IllegalArgumentException : if the map has more than {@link Scenario#MAX_TILES}
+     *                                    tiles
+     */
+    public static DistanceOracle build(Scenario scenario) throws IllegalArgumentException {
+        int width = scenario.getWidth();
+        int height = scenario.getHeight();
+        if ((long) width * height > Scenario.MAX_TILES) {
+            throw new IllegalArgumentException("The given scenario's map does not conform to "
+                + "the requirement: width * height <= " + Scenario.MAX_TILES + ".");
+        }
+        TileType[] terrain = terrainOf(scenario);
+        int tiles = terrain.length;
+        short[][] distances = new short[MoverClass.values().length][];
+        int[] queue = new int[tiles];
+        boolean[] passable = new boolean[tiles];
+        for (MoverClass mover : MoverClass.values()) {
+            for (int i = 0; i < tiles; i++) {
+                passable[i] = mover.canEnter(terrain[i]);
+            }
+            short[] distance = new short[tiles * tiles];
+            Arrays.fill(distance, (short) UNREACHABLE);
+            for (int from = 0; from < tiles; from++) {
+                if (passable[from]) {
+                    search(from, width, height, passable, distance, from * tiles, queue);
+                }
+            }
+            distances[mover.ordinal()] = distance;
+        }
+        return new DistanceOracle(width, height, terrain, distances);
+    }
+
+    /**
+     * Returns the oracle for a scenario saved in the given file.
+     * <p>
+     * The distances are read from the file next to it (its path followed by
+     * {@link #FILE_EXTENSION}) if that was saved for the same terrain. Otherwise they are found
+     * again and saved there for next time; if they can not be saved the oracle is still
+     * returned.
+     *
+     * @param scenario : scenario loaded from the save file
+     * @param saveFile : file the scenario is saved in
+     * @return : an oracle for the scenario's map
+     * @throws IllegalArgumentException : if the map has more than {@link Scenario#MAX_TILES}
+     *                                    tiles
+     */
+    public static DistanceOracle forSaveFile(Scenario scenario, File saveFile)
+            throws IllegalArgumentException {
+        File file = new File(saveFile.getPath() + FILE_EXTENSION);
+        if (file.isFile()) {
+            try {
+                DistanceOracle oracle = read(file);
+                if (oracle.matches(scenario)) {
+                    return oracle;
+                }
+            } catch (IOException exp) {
+                //search again and replace the unreadable file
+            }
+        }
+        DistanceOracle oracle = build(scenario);
+        try {
+            oracle.write(file);
+        } catch (IOException exp) {
+            //the distances are only a cache
+        }
+        return oracle;
+    }
+
+    /**
+     * Reads an oracle from a file written by {@link #write(File)}.
+     *
+     * @param file : file to read
+     * @return : the oracle in the file
+     * @throws IOException : if the file can not be read or is not a distance file
+     */
+    public static DistanceOracle read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + ": not a distance file");
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            if (width < 1 || height < 1 || width > Scenario.MAX_SIZE
+                    || height > Scenario.MAX_SIZE) {
+                throw new IOException(file + ": invalid map size");
+            }
+            int tiles = width * height;
+            TileType[] types = TileType.values();
+            TileType[] terrain = new TileType[tiles];
+            for (int i = 0; i < tiles; i++) {
+                int type = in.readUnsignedByte();
+                if (type >= types.length) {
+                    throw new IOException(file + ": invalid tile type");
+                }
+                terrain[i] = types[type];
+            }
+            short[][] distances = new short[MoverClass.values().length][tiles * tiles];
+            for (short[] distance : distances) {
+                for (int i = 0; i < distance.length; i++) {
+                    distance[i] = in.readShort();
+                }
+            }
+            return new DistanceOracle(width, height, terrain, distances);
+        }
+    }
+
+    /**
+     * Writes the oracle to a file, replacing any existing contents.
+     *
+     * @param file : file to write
+     * @throws IOException : if the file can not be written
+     */
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            for (TileType type : terrain) {
+                out.writeByte(type.ordinal());
+            }
+            for (short[] distance : distances) {
+                for (short value : distance) {
+                    out.writeShort(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the oracle was built for a map with the same terrain as the given
+     * scenario's.
+     *
+     * @param scenario : scenario to compare with
+     * @return : true if the oracle's distances hold for the scenario, false otherwise
+     */
+    public boolean matches(Scenario scenario) {
+        return scenario.getWidth() == width && scenario.getHeight() == height
+            && Arrays.equals(terrain, terrainOf(scenario));
+    }
+
+    /**
+     * Returns the fewest tile steps a mover of the given class needs between two coordinates.
+     *
+     * @param mover : class of mover
+     * @param from : coordinate to start at
+     * @param to : coordinate to reach
+     * @return : number of steps, or {@link #UNREACHABLE} if either tile is impassable for the
+     *          mover or they are not connected
+     */
+    public int getDistance(MoverClass mover, Coordinate from, Coordinate to) {
+        return distances[mover.ordinal()][index(from) * terrain.length + index(to)];
+    }
+
+    /**
+     * Returns a lower bound on the number of moves a mover of the given class needs between two
+     * coordinates, if it covers at most moveDistance tiles a move.
+     *
+     * @param mover : class of mover
+     * @param from : coordinate to start at
+     * @param to : coordinate to reach
+     * @param moveDistance : greatest number of tiles a single move may cover
+     * @return : lower bound on the number of moves, or {@link #UNREACHABLE} if the coordinates
+     *          are not connected
+     */
+    public int getMinimumMoves(MoverClass mover, Coordinate from, Coordinate to,
+            int moveDistance) {
+        int distance = getDistance(mover, from, to);
+        return distance == UNREACHABLE
+            ? UNREACHABLE : (distance + moveDistance - 1) / moveDistance;
+    }
+
+    /* Index of a coordinate on this oracle's map */
+    private int index(Coordinate coordinate) {
+        if (coordinate.getX() < 0 || coordinate.getX() >= width
+                || coordinate.getY() < 0 || coordinate.getY() >= height) {
+            throw new IllegalArgumentException("Coordinate is not on the map: " + coordinate);
+        }
+        return coordinate.getX() + coordinate.getY() * width;
+    }
+
+    /* Type of each tile of a scenario's map */
+    private static TileType[] terrainOf(Scenario scenario) {
+        TileType[] terrain = new TileType[scenario.getWidth() * scenario.getHeight()];
+        for (int i = 0; i < terrain.length; i++) {
+            terrain[i] = scenario.getTile(i).getType();
+        }
+        return terrain;
+    }
+
+    /* Breadth first search from one tile, filling in its row of distances */
+    private static void search(int from, int width, int height, boolean[] passable,
+            short[] distance, int row, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        distance[row + from] = 0;
+        while (head < tail) {
+            int tile = queue[head++];
+            int x = tile % width;
+            int y = tile / width;
+            short next = (short) (distance[row + tile] + 1);
+            if (x > 0) {
+                tail = visit(tile - 1, next, passable, distance, row, queue, tail);
+            }
+            if (x < width - 1) {
+                tail = visit(tile + 1, next, passable, distance, row, queue, tail);
+            }
+            if (y > 0) {
+                tail = visit(tile - width, next, passable, distance, row, queue, tail);
+            }
+            if (y < height - 1) {
+                tail = visit(tile + width, next, passable, distance, row, queue, tail);
+            }
+        }
+    }
+
+    /* Reaches a neighbouring tile for the first time, if it is passable and new */
+    private static int visit(int tile, short next, boolean[] passable, short[] distance, int row,
+            int[] queue, int tail) {
+        if (passable[tile] && distance[row + tile] == UNREACHABLE) {
+            distance[row + tile] = next;
+            queue[tail++] = tile;
+        }
+        return tail;
+    }
+}
@@ -0,0 +1,160 @@
+package researchsim.map;
+
+import researchsim.scenario.Scenario;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Distances from every tile of a map to the nearest of a set of goals, for steering many movers
+ * of one {@link MoverClass} towards (or away from) those goals.
+ * <p>
+ * The field is found once with a single breadth first search started from every goal at once,
+ * over the tiles the mover class can enter. Goals themselves need not be passable: a field
+ * towards OCEAN tiles for LAND animals leads them to the shore. Afterwards steering a mover only
+ * compares the distances of the moves it could make, whatever the number of movers.
+ */
+public class FlowField {
+
+    /**
+     * Distance of a tile that no goal can be reached from.
+     * The value of this constant is {@value}
+     */
+    public static final int UNREACHABLE = -1;
+
+    /** width of the map, in tiles */
+    private final int width;
+    /** class of mover the field steers */
+    private final MoverClass mover;
+    /** whether movers are steered away from the goals rather than towards them */
+    private final boolean away;
+    /** tile steps from each tile (by index) to the nearest goal */
+    private final int[] distance;
+
+    /**
+     * Finds the field towards (or away from) the given goals on the terrain of a scenario.
+     *
+     * @param scenario : scenario whose map to find the field on
+     * @param mover : class of mover to steer
+     * @param goals : coordinates to steer towards or away from
+     * @param away : true to steer movers away from the goals, false to steer them towards
+     */
+    public FlowField(Scenario scenario, MoverClass mover, Collection<Coordinate> goals,
+            boolean away) {
+        this.width = scenario.getWidth();
+        this.mover = mover;
+        this.away = away;
+        int tiles = scenario.getSize();
+        int height = scenario.getHeight();
+        this.distance = new int[tiles];
+        boolean[] passable = new boolean[tiles];
+        for (int i = 0; i < tiles; i++) {
+            this.distance[i] = UNREACHABLE;
+            passable[i] = mover.canEnter(scenario.getTile(i).getType());
+        }
+
+        int[] queue = new int[tiles];
+        int head = 0;
+        int tail = 0;
+        for (Coordinate goal : goals) {
+            int index = goal.getX() + goal.getY() * width;
+            if (goal.getX() >= 0 && goal.getX() < width && goal.getY() >= 0
+                    && goal.getY() < height && distance[index] == UNREACHABLE) {
+                distance[index] = 0;
+                queue[tail++] = index;
+            }
+        }
+        while (head < tail) {
+            int tile = queue[head++];
+            int x = tile % width;
+            int y = tile / width;
+            int next = distance[tile] + 1;
+            int[] neighbours = {x > 0 ? tile - 1 : -1, x < width - 1 ? tile + 1 : -1,
+                y > 0 ? tile - width : -1, y < height - 1 ? tile + width : -1};
+            for (int neighbour : neighbours) {
+                if (neighbour != -1 && passable[neighbour] && distance[neighbour] == UNREACHABLE) {
+                    distance[neighbour] = next;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the field towards (or away from) every tile of the given type.
+     *
+     * @param scenario : scenario whose map to find the field on
+     * @param mover : class of mover to steer
+     * @param type : type of tile to steer towards or away from
+     * @param away : true to steer movers away from the tiles, false to steer them towards
+     * @return : the field
+     */
+    public static FlowField ofTileType(Scenario scenario, MoverClass mover, TileType type,
+            boolean away) {
+        List<Coordinate> goals = new ArrayList<>();
+        for (int i = 0; i < scenario.getSize(); i++) {
+            if (scenario.getTile(i).getType() == type) {
+                goals.add(new Coordinate(i % scenario.getWidth(), i / scenario.getWidth()));
+            }
+        }
+        return new FlowField(scenario, mover, goals, away);
+    }
+
+    /**
+     * Returns the class of mover this field steers.
+     *
+     * @return : class of mover
+     */
+    public MoverClass getMoverClass() {
+        return mover;
+    }
+
+    /**
+     * Returns true if this field steers movers away from its goals.
+     *
+     * @return : true if steering away, false if steering towards
+     */
+    public boolean isAway() {
+        return away;
+    }
+
+    /**
+     * Returns the number of tile steps from the given coordinate to the nearest goal.
+     *
+     * @param coordinate : coordinate on the map
+     * @return : number of steps, or {@link #UNREACHABLE} if no goal can be reached from it
+     */
+    public int getDistance(Coordinate coordinate) {
+        return distance[coordinate.getX() + coordinate.getY() * width];
+    }
+
+    /**
+     * Chooses which of the given moves follows the field best from the given coordinate.
+     * <p>
+     * When steering towards the goals the move that ends closest to a goal is chosen, and when
+     * steering away the move that ends furthest from one. Earlier moves win ties. No move is
+     * chosen if none is an improvement on staying put, or if no goal can be reached from the
+     * coordinate (then the field has nothing to say about where to go).
+     *
+     * @param from : coordinate of the mover
+     * @param moves : coordinates the mover could move to
+     * @return : the chosen move, or null if the mover should not follow the field
+     */
+    public Coordinate chooseMove(Coordinate from, List<Coordinate> moves) {
+        int best = getDistance(from);
+        if (best == UNREACHABLE) {
+            return null;
+        }
+        Coordinate chosen = null;
+        for (Coordinate move : moves) {
+            int moveDistance = getDistance(move);
+            if (moveDistance != UNREACHABLE
+                    && (away ? moveDistance > best : moveDistance < best)) {
+                best = moveDistance;
+                chosen = move;
+            }
+        }
+        return chosen;
+    }
+}
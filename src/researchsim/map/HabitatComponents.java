@@ -0,0 +1,141 @@
+package researchsim.map;
+
+/**
+ * Labels the connected regions of a map that each {@link MoverClass} can travel within.
+ * <p>
+ * Two tiles are in the same component for a mover class if the mover can walk between them one
+ * tile step at a time, considering terrain only. The components are found once with union-find
+ * (by size, with path halving) and flattened into a label per tile, so telling whether a target
+ * can be reached at all is O(1) and needs no search.
+ */
+public class HabitatComponents {
+
+    /**
+     * Label of a tile that a mover class can not enter.
+     * The value of this constant is {@value}
+     */
+    public static final int IMPASSABLE = -1;
+
+    /** width of the map, in tiles */
+    private final int width;
+    /** component of each tile (by index), by mover class ordinal */
+    private final int[][] labels;
+    /** number of components, by mover class ordinal */
+    private final int[] counts;
+
+    /**
+     * Labels the components of the given map.
+     *
+     * @param map : tiles of the map, in index order
+     * @param width : width of the map, in tiles
+     */
+    public HabitatComponents(Tile[] map, int width) {
+        this.width = width;
+        MoverClass[] movers = MoverClass.values();
+        this.labels = new int[movers.length][];
+        this.counts = new int[movers.length];
+        int[] parent = new int[map.length];
+        int[] size = new int[map.length];
+        for (MoverClass mover : movers) {
+            boolean[] passable = new boolean[map.length];
+            for (int i = 0; i < map.length; i++) {
+                passable[i] = map[i] != null && mover.canEnter(map[i].getType());
+                parent[i] = i;
+                size[i] = 1;
+            }
+            //join each passable tile with its passable right and lower neighbours
+            for (int i = 0; i < map.length; i++) {
+                if (!passable[i]) {
+                    continue;
+                }
+                if ((i + 1) % width != 0 && i + 1 < map.length && passable[i + 1]) {
+                    union(parent, size, i, i + 1);
+                }
+                if (i + width < map.length && passable[i + width]) {
+                    union(parent, size, i, i + width);
+                }
+            }
+            //number the roots in index order, so labels do not depend on union order
+            int[] label = new int[map.length];
+            int count = 0;
+            for (int i = 0; i < map.length; i++) {
+                if (passable[i] && find(parent, i) == i) {
+                    label[i] = count++;
+                }
+            }
+            for (int i = 0; i < map.length; i++) {
+                label[i] = passable[i] ? label[find(parent, i)] : IMPASSABLE;
+            }
+            labels[mover.ordinal()] = label;
+            counts[mover.ordinal()] = count;
+        }
+    }
+
+    /**
+     * Returns the component the tile at the given index belongs to for a mover class.
+     *
+     * @param mover : class of mover
+     * @param index : index of the tile
+     * @return : label of the component, or {@link #IMPASSABLE} if the mover can not enter the
+     *          tile
+     */
+    public int getComponent(MoverClass mover, int index) {
+        return labels[mover.ordinal()][index];
+    }
+
+    /**
+     * Returns the number of separate components a mover class can travel within.
+     *
+     * @param mover : class of mover
+     * @return : number of components
+     */
+    public int getComponentCount(MoverClass mover) {
+        return counts[mover.ordinal()];
+    }
+
+    /**
+     * Returns true if a mover of the given class could travel between two coordinates, ignoring
+     * any entities in the way.
+     *
+     * @param mover : class of mover
+     * @param from : coordinate to start at
+     * @param to : coordinate to reach
+     * @return : true if both tiles are passable and in the same component, false otherwise
+     */
+    public boolean isConnected(MoverClass mover, Coordinate from, Coordinate to) {
+        int[] label = labels[mover.ordinal()];
+        int start = from.getX() + from.getY() * width;
+        int target = to.getX() + to.getY() * width;
+        if (from.getX() < 0 || from.getX() >= width || start < 0 || start >= label.length
+                || to.getX() < 0 || to.getX() >= width || target < 0
+                || target >= label.length) {
+            return false;
+        }
+        return label[start] != IMPASSABLE && label[start] == label[target];
+    }
+
+    /* Root of the set holding a tile, halving the path to it on the way */
+    private static int find(int[] parent, int tile) {
+        while (parent[tile] != tile) {
+            parent[tile] = parent[parent[tile]];
+            tile = parent[tile];
+        }
+        return tile;
+    }
+
+    /* Joins the sets holding two tiles, under the root of the larger */
+    private static void union(int[] parent, int[] size, int first, int second) {
+        int a = find(parent, first);
+        int b = find(parent, second);
+        if (a == b) {
+            return;
+        }
+        if (size[a] < size[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        parent[b] = a;
+        size[a] += size[b];
+    }
+}
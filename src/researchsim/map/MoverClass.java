@@ -0,0 +1,59 @@
+package researchsim.map;
+
+import researchsim.entities.Entity;
+import researchsim.entities.Fauna;
+import researchsim.entities.User;
+
+/**
+ * Class of entity that moves over the map, grouped by the terrain it may cross.
+ * <p>
+ * Only terrain is considered: whether a tile is occupied changes from turn to turn, so it is
+ * left to the entity's own {@code canMove} check.
+ */
+public enum MoverClass {
+    /**
+     * A user, which may cross any tile that is not OCEAN or MOUNTAIN
+     */
+    USER,
+    /**
+     * A LAND animal, which may cross any tile that is not OCEAN
+     */
+    LAND_FAUNA,
+    /**
+     * An OCEAN animal, which may only cross OCEAN tiles
+     */
+    OCEAN_FAUNA;
+
+    /**
+     * Returns true if this class of mover may enter (or cross) a tile of the given type.
+     *
+     * @param type : type of the tile
+     * @return : true if the tile is passable for this class, false otherwise
+     */
+    public boolean canEnter(TileType type) {
+        switch (this) {
+            case USER:
+                return type != TileType.OCEAN && type != TileType.MOUNTAIN;
+            case LAND_FAUNA:
+                return type != TileType.OCEAN;
+            default:
+                return type == TileType.OCEAN;
+        }
+    }
+
+    /**
+     * Returns the class of mover the given entity belongs to.
+     *
+     * @param entity : entity to classify
+     * @return : class of the entity
+     * @throws IllegalArgumentException : if the entity cannot move
+     */
+    public static MoverClass of(Entity entity) throws IllegalArgumentException {
+        if (entity instanceof User) {
+            return USER;
+        } else if (entity instanceof Fauna) {
+            return ((Fauna) entity).getHabitat() == TileType.OCEAN ? OCEAN_FAUNA : LAND_FAUNA;
+        }
+        throw new IllegalArgumentException("Entity cannot move: " + entity);
+    }
+}
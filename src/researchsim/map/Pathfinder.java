@@ -0,0 +1,307 @@
+package researchsim.map;
+
+import researchsim.entities.User;
+import researchsim.scenario.Scenario;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans routes across a scenario's map that take several moves to travel.
+ * <p>
+ * Routes are found with A* over a snapshot of which tiles are passable for a
+ * {@link MoverClass}, taken when the pathfinder is created. {@link #findTiles} searches single
+ * tile steps, using the Manhattan distance as the heuristic, for a route that is the shortest in
+ * tiles. {@link #findMoves} searches whole moves instead: from each tile, every tile at most the
+ * move distance away that can be reached turning at most once
+ * ({@link BlockedCounts#isPathClear}), so that every move would pass {@code canMove}. The
+ * Manhattan distance divided by the move distance (rounded up) is its heuristic, so the route
+ * found takes as few moves as possible.
+ * <p>
+ * Targets outside the start's {@link HabitatComponents component} are rejected without
+ * searching. The search buffers are allocated once and reused by every query, so a pathfinder
+ * should be kept for as long as the map is used. A pathfinder is not safe to share between
+ * threads.
+ */
+public class Pathfinder {
+
+    /** offsets of the four neighbours of a tile: right, down, left, up */
+    private static final int[] DX = {1, 0, -1, 0};
+    /** offsets of the four neighbours of a tile: right, down, left, up */
+    private static final int[] DY = {0, 1, 0, -1};
+
+    /** width of the map, in tiles */
+    private final int width;
+    /** height of the map, in tiles */
+    private final int height;
+    /** whether each tile (by index) is passable for the mover class */
+    private final boolean[] passable;
+    /** class of mover planned for */
+    private final MoverClass mover;
+    /** blocked tiles along the rows and columns, to tell which moves are clear */
+    private final BlockedCounts blocked;
+    /** connected regions of the map, to reject unreachable targets */
+    private final HabitatComponents components;
+
+    /** tiles (or moves) from the start to each tile, valid when its seen stamp is current */
+    private final int[] distance;
+    /** tile each tile was reached from, valid when its seen stamp is current */
+    private final int[] parent;
+    /** query number each tile was last reached in */
+    private final int[] seen;
+    /** query number each tile was last expanded (closed) in */
+    private final int[] closed;
+    /** number of the current query */
+    private int query;
+
+    /** open tiles, as a binary heap ordered by (estimated length, remaining estimate) */
+    private long[] heapKeys;
+    /** open tiles, parallel to heapKeys */
+    private int[] heapTiles;
+    /** number of entries in the heap */
+    private int heapSize;
+
+    /**
+     * Creates a pathfinder for the given class of mover on the terrain of the given scenario.
+     *
+     * @param scenario : scenario whose map to plan over
+     * @param mover : class of mover to plan for
+     */
+    public Pathfinder(Scenario scenario, MoverClass mover) {
+        this.width = scenario.getWidth();
+        this.height = scenario.getHeight();
+        int size = this.width * this.height;
+        this.passable = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            this.passable[i] = mover.canEnter(scenario.getTile(i).getType());
+        }
+        this.mover = mover;
+        this.blocked = scenario.getBlockedCounts();
+        this.components = scenario.getComponents();
+        this.distance = new int[size];
+        this.parent = new int[size];
+        this.seen = new int[size];
+        this.closed = new int[size];
+        this.query = 0;
+        this.heapKeys = new long[Math.max(16, size)];
+        this.heapTiles = new int[this.heapKeys.length];
+        this.heapSize = 0;
+    }
+
+    /**
+     * Returns the moves the given user should make, in order, to reach the given target.
+     * <p>
+     * Each move is at most the user's move distance long, so it is one of
+     * {@link User#getPossibleMoves()} when made in turn (provided no other user is in the way).
+     *
+     * @param user : user to plan for, on the scenario this pathfinder was created for
+     * @param target : coordinate to reach
+     * @return : the coordinates to move to (empty if already there), or null if the target
+     *          cannot be reached
+     */
+    public List<Coordinate> planMoves(User user, Coordinate target) {
+        return findMoves(user.getCoordinate(), target, user.getSize().moveDistance);
+    }
+
+    /**
+     * Returns the moves to make, in order, to travel between the given coordinates.
+     * <p>
+     * Each move is at most moveDistance tiles long, takes at most one turn and only crosses
+     * passable tiles, and no route with fewer such moves exists.
+     *
+     * @param from : coordinate to start at
+     * @param to : coordinate to reach
+     * @param moveDistance : greatest number of tiles a single move may cover
+     * @return : the coordinates to move to (empty if from equals to), or null if to cannot be
+     *          reached
+     * @throws IllegalArgumentException : if moveDistance &lt; 1
+     */
+    public List<Coordinate> findMoves(Coordinate from, Coordinate to, int moveDistance)
+            throws IllegalArgumentException {
+        if (moveDistance < 1) {
+            throw new IllegalArgumentException("The given move distance does not conform to "
+                + "the requirement: moveDistance >= 1.");
+        }
+        if (!startQuery(from, to)) {
+            return null;
+        }
+        int start = from.getX() + from.getY() * width;
+        int target = to.getX() + to.getY() * width;
+        distance[start] = 0;
+        parent[start] = -1;
+        seen[start] = query;
+        push(start, estimate(start, to, moveDistance));
+        while (heapSize > 0) {
+            int tile = pop();
+            if (closed[tile] == query) {
+                continue;
+            }
+            if (tile == target) {
+                int[] tiles = route(target);
+                List<Coordinate> moves = new ArrayList<>();
+                for (int i = 1; i < tiles.length; i++) {
+                    moves.add(new Coordinate(tiles[i] % width, tiles[i] / width));
+                }
+                return moves;
+            }
+            closed[tile] = query;
+            int x = tile % width;
+            int y = tile / width;
+            //every tile within the move distance that a single move can reach
+            for (int ny = Math.max(0, y - moveDistance);
+                    ny <= Math.min(height - 1, y + moveDistance); ny++) {
+                int reach = moveDistance - Math.abs(ny - y);
+                for (int nx = Math.max(0, x - reach); nx <= Math.min(width - 1, x + reach); nx++) {
+                    int next = nx + ny * width;
+                    if (next == tile || !passable[next] || closed[next] == query
+                            || !blocked.isPathClear(mover, x, y, nx, ny)) {
+                        continue;
+                    }
+                    relax(tile, next, estimate(next, to, moveDistance));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the shortest route between the given coordinates, one tile at a time.
+     *
+     * @param from : coordinate to start at
+     * @param to : coordinate to reach
+     * @return : indices of every tile on the route, from the start to the target inclusive, or
+     *          null if either coordinate is off the map or impassable, or the target cannot be
+     *          reached
+     */
+    public int[] findTiles(Coordinate from, Coordinate to) {
+        if (!startQuery(from, to)) {
+            return null;
+        }
+        int start = from.getX() + from.getY() * width;
+        int target = to.getX() + to.getY() * width;
+        distance[start] = 0;
+        parent[start] = -1;
+        seen[start] = query;
+        push(start, estimate(start, to, 1));
+        while (heapSize > 0) {
+            int tile = pop();
+            if (closed[tile] == query) {
+                continue;
+            }
+            if (tile == target) {
+                return route(target);
+            }
+            closed[tile] = query;
+            int x = tile % width;
+            int y = tile / width;
+            for (int direction = 0; direction < DX.length; direction++) {
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                    continue;
+                }
+                int next = nx + ny * width;
+                if (!passable[next] || closed[next] == query) {
+                    continue;
+                }
+                relax(tile, next, estimate(next, to, 1));
+            }
+        }
+        return null;
+    }
+
+    /* Starts a new query, returning false if the target can not be reached from the start */
+    private boolean startQuery(Coordinate from, Coordinate to) {
+        if (!isOnMap(from) || !isOnMap(to)) {
+            return false;
+        }
+        int start = from.getX() + from.getY() * width;
+        int target = to.getX() + to.getY() * width;
+        if (!passable[start] || !passable[target]
+                || components.getComponent(mover, start)
+                    != components.getComponent(mover, target)) {
+            return false;
+        }
+        if (++query == 0) {
+            //the stamps wrapped, so forget every earlier query
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            query = 1;
+        }
+        heapSize = 0;
+        return true;
+    }
+
+    /* Reaches a tile one step (tile or move) after another, if that is shorter than before */
+    private void relax(int tile, int next, int remaining) {
+        int nextDistance = distance[tile] + 1;
+        if (seen[next] != query || nextDistance < distance[next]) {
+            seen[next] = query;
+            distance[next] = nextDistance;
+            parent[next] = tile;
+            push(next, remaining);
+        }
+    }
+
+    /* Fewest steps of at most the given length from a tile to a coordinate, ignoring terrain */
+    private int estimate(int tile, Coordinate to, int stepLength) {
+        int tiles = Math.abs(tile % width - to.getX()) + Math.abs(tile / width - to.getY());
+        return (tiles + stepLength - 1) / stepLength;
+    }
+
+    /* Whether a coordinate is on the map */
+    private boolean isOnMap(Coordinate coordinate) {
+        return coordinate.getX() >= 0 && coordinate.getX() < width
+            && coordinate.getY() >= 0 && coordinate.getY() < height;
+    }
+
+    /* Follows the parents back from the target to build the route */
+    private int[] route(int target) {
+        int[] tiles = new int[distance[target] + 1];
+        for (int tile = target, i = tiles.length - 1; tile != -1; tile = parent[tile], i--) {
+            tiles[i] = tile;
+        }
+        return tiles;
+    }
+
+    /* Adds a tile to the open heap, keyed by its estimated route length then its estimate */
+    private void push(int tile, int remaining) {
+        long key = ((long) (distance[tile] + remaining) << 32) | remaining;
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            heapTiles = Arrays.copyOf(heapTiles, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0 && heapKeys[(i - 1) / 2] > key) {
+            heapKeys[i] = heapKeys[(i - 1) / 2];
+            heapTiles[i] = heapTiles[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heapKeys[i] = key;
+        heapTiles[i] = tile;
+    }
+
+    /* Removes and returns the open tile with the smallest key */
+    private int pop() {
+        int top = heapTiles[0];
+        long key = heapKeys[--heapSize];
+        int tile = heapTiles[heapSize];
+        int i = 0;
+        while (2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (heapKeys[child] >= key) {
+                break;
+            }
+            heapKeys[i] = heapKeys[child];
+            heapTiles[i] = heapTiles[child];
+            i = child;
+        }
+        heapKeys[i] = key;
+        heapTiles[i] = tile;
+        return top;
+    }
+}
@@ -0,0 +1,230 @@
+package researchsim.map;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Index of the occupied tiles of a map, grouped into square buckets of tiles, for finding the
+ * entities nearest to (or within a distance of) a coordinate without scanning the whole map.
+ * <p>
+ * Tiles are indexed rather than entities, since a scenario replaces its entities with copies
+ * when it is forked; the entity on a tile is looked up when a query needs it. Distances are
+ * Manhattan distances, as used for moving, and ties are broken by tile index so that results do
+ * not depend on the order tiles were filled in. Occupancy is kept up to date with
+ * {@link #setOccupied(int, boolean)}, which costs O(1).
+ */
+public class SpatialIndex {
+
+    /** width of the map, in tiles */
+    private final int width;
+    /** height of the map, in tiles */
+    private final int height;
+    /** width and height of each bucket, in tiles */
+    private final int bucketSize;
+    /** number of buckets across the map */
+    private final int bucketsWide;
+    /** number of buckets down the map */
+    private final int bucketsHigh;
+    /** occupied tiles of each bucket, bucketSize * bucketSize slots per bucket */
+    private final int[] members;
+    /** number of occupied tiles in each bucket */
+    private final int[] sizes;
+    /** slot of each occupied tile within its bucket's members, or -1 if it is empty */
+    private final int[] slots;
+
+    /**
+     * Indexes the occupied tiles of the given map.
+     *
+     * @param map : tiles of the map, in index order
+     * @param width : width of the map, in tiles
+     * @param bucketSize : width and height of each bucket, in tiles
+     * @throws IllegalArgumentException : if bucketSize &lt; 1
+     */
+    public SpatialIndex(Tile[] map, int width, int bucketSize) throws IllegalArgumentException {
+        if (bucketSize < 1) {
+            throw new IllegalArgumentException("The given bucket size does not conform to the "
+                + "requirement: bucketSize >= 1.");
+        }
+        this.width = width;
+        this.height = map.length / width;
+        this.bucketSize = bucketSize;
+        this.bucketsWide = (width + bucketSize - 1) / bucketSize;
+        this.bucketsHigh = (height + bucketSize - 1) / bucketSize;
+        this.members = new int[bucketsWide * bucketsHigh * bucketSize * bucketSize];
+        this.sizes = new int[bucketsWide * bucketsHigh];
+        this.slots = new int[map.length];
+        Arrays.fill(this.slots, -1);
+        for (int i = 0; i < map.length; i++) {
+            if (map[i].hasContents()) {
+                setOccupied(i, true);
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of the given index.
+     *
+     * @param other : index to copy
+     */
+    public SpatialIndex(SpatialIndex other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.bucketSize = other.bucketSize;
+        this.bucketsWide = other.bucketsWide;
+        this.bucketsHigh = other.bucketsHigh;
+        this.members = other.members.clone();
+        this.sizes = other.sizes.clone();
+        this.slots = other.slots.clone();
+    }
+
+    /**
+     * Records whether the tile at the given index is occupied.
+     *
+     * @param index : index of the tile
+     * @param occupied : true if the tile now has contents, false if it is empty
+     */
+    public void setOccupied(int index, boolean occupied) {
+        if ((slots[index] != -1) == occupied) {
+            return;
+        }
+        int bucket = bucketOf(index);
+        int base = bucket * bucketSize * bucketSize;
+        if (occupied) {
+            slots[index] = sizes[bucket];
+            members[base + sizes[bucket]++] = index;
+        } else {
+            //move the bucket's last tile into the emptied slot
+            int last = members[base + --sizes[bucket]];
+            members[base + slots[index]] = last;
+            slots[last] = slots[index];
+            slots[index] = -1;
+        }
+    }
+
+    /**
+     * Returns the occupied tiles nearest to the given coordinate that are accepted by a filter.
+     *
+     * @param x : column to measure from
+     * @param y : row to measure from
+     * @param count : greatest number of tiles to return
+     * @param accept : filter of tile indices, or null to accept every occupied tile
+     * @return : indices of up to count tiles, nearest first (ties by lower index)
+     */
+    public int[] nearest(int x, int y, int count, IntPredicate accept) {
+        long[] found = new long[Math.max(count, 8)];
+        int size = 0;
+        int centreX = x / bucketSize;
+        int centreY = y / bucketSize;
+        int rings = Math.max(Math.max(centreX, bucketsWide - 1 - centreX),
+            Math.max(centreY, bucketsHigh - 1 - centreY));
+        for (int ring = 0; ring <= rings && count > 0; ring++) {
+            //every tile in this ring is at least this far away along one axis
+            long bound = ring == 0 ? 0 : (long) (ring - 1) * bucketSize + 1;
+            if (size >= count) {
+                Arrays.sort(found, 0, size);
+                if ((found[count - 1] >>> 32) < bound) {
+                    break;
+                }
+            }
+            for (int by = centreY - ring; by <= centreY + ring; by++) {
+                for (int bx = centreX - ring; bx <= centreX + ring; bx++) {
+                    if (Math.max(Math.abs(bx - centreX), Math.abs(by - centreY)) != ring
+                            || bx < 0 || by < 0 || bx >= bucketsWide || by >= bucketsHigh) {
+                        continue;
+                    }
+                    int bucket = bx + by * bucketsWide;
+                    int base = bucket * bucketSize * bucketSize;
+                    for (int i = 0; i < sizes[bucket]; i++) {
+                        int tile = members[base + i];
+                        if (accept == null || accept.test(tile)) {
+                            if (size == found.length) {
+                                found = Arrays.copyOf(found, size * 2);
+                            }
+                            found[size++] = ((long) distance(x, y, tile) << 32) | tile;
+                        }
+                    }
+                }
+            }
+        }
+        Arrays.sort(found, 0, size);
+        int[] nearest = new int[Math.min(count, size)];
+        for (int i = 0; i < nearest.length; i++) {
+            nearest[i] = (int) found[i];
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the occupied tiles within a distance of the given coordinate that are accepted by
+     * a filter.
+     *
+     * @param x : column to measure from
+     * @param y : row to measure from
+     * @param radius : greatest distance of a tile to return
+     * @param accept : filter of tile indices, or null to accept every occupied tile
+     * @return : indices of the tiles, in increasing order
+     */
+    public int[] within(int x, int y, int radius, IntPredicate accept) {
+        int[] found = new int[8];
+        int size = 0;
+        int firstX = Math.max(0, x - radius) / bucketSize;
+        int lastX = Math.min(width - 1, x + radius) / bucketSize;
+        int firstY = Math.max(0, y - radius) / bucketSize;
+        int lastY = Math.min(height - 1, y + radius) / bucketSize;
+        for (int by = firstY; by <= lastY; by++) {
+            for (int bx = firstX; bx <= lastX; bx++) {
+                int bucket = bx + by * bucketsWide;
+                int base = bucket * bucketSize * bucketSize;
+                for (int i = 0; i < sizes[bucket]; i++) {
+                    int tile = members[base + i];
+                    if (distance(x, y, tile) <= radius && (accept == null || accept.test(tile))) {
+                        if (size == found.length) {
+                            found = Arrays.copyOf(found, size * 2);
+                        }
+                        found[size++] = tile;
+                    }
+                }
+            }
+        }
+        found = Arrays.copyOf(found, size);
+        Arrays.sort(found);
+        return found;
+    }
+
+    /**
+     * Returns every occupied tile that is accepted by a filter. Only the occupied tiles are
+     * visited, not the whole map.
+     *
+     * @param accept : filter of tile indices, or null to accept every occupied tile
+     * @return : indices of the tiles, in increasing order
+     */
+    public int[] occupied(IntPredicate accept) {
+        int[] found = new int[8];
+        int size = 0;
+        for (int bucket = 0; bucket < sizes.length; bucket++) {
+            int base = bucket * bucketSize * bucketSize;
+            for (int i = 0; i < sizes[bucket]; i++) {
+                int tile = members[base + i];
+                if (accept == null || accept.test(tile)) {
+                    if (size == found.length) {
+                        found = Arrays.copyOf(found, size * 2);
+                    }
+                    found[size++] = tile;
+                }
+            }
+        }
+        found = Arrays.copyOf(found, size);
+        Arrays.sort(found);
+        return found;
+    }
+
+    /* Bucket holding a tile */
+    private int bucketOf(int index) {
+        return (index % width) / bucketSize + ((index / width) / bucketSize) * bucketsWide;
+    }
+
+    /* Manhattan distance from a coordinate to a tile */
+    private int distance(int x, int y, int index) {
+        return Math.abs(index % width - x) + Math.abs(index / width - y);
+    }
+}
@@ -2,8 +2,13 @@ package researchsim.scenario;
 
 import researchsim.entities.Fauna;
 import researchsim.map.Coordinate;
+import researchsim.map.FlowField;
+import researchsim.map.MoverClass;
+import researchsim.util.NoSuchEntityException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -16,13 +21,57 @@ public class AnimalController extends Object {
     /**
      * List of all the animals this manager knows about
      */
-    private final List<Fauna> animals;
+    private List<Fauna> animals;
+
+    /**
+     * Whether the list of animals is shared with a fork of this controller, and so must be
+     * copied before it is changed
+     */
+    private boolean shared;
+
+    /**
+     * Field steering the animals of each class of mover, if any
+     */
+    private Map<MoverClass, FlowField> flowFields;
 
     /**
      * Creates a new controller with an empty list of animals (Fauna) that it controls
      */
     public AnimalController() {
         this.animals = new ArrayList<>();
+        this.shared = false;
+        this.flowFields = new EnumMap<>(MoverClass.class);
+    }
+
+    /**
+     * Returns a fork of this controller that manages the same animals.
+     * <p>
+     * The list of animals is shared until either controller changes it. The animals themselves
+     * are replaced by the forked scenario's own copies as they are moved
+     * (see {@link Scenario#ownEntity(researchsim.entities.Entity)}).
+     *
+     * @return : fork of this controller
+     */
+    AnimalController fork() {
+        AnimalController fork = new AnimalController();
+        fork.animals = this.animals;
+        fork.shared = true;
+        fork.flowFields.putAll(this.flowFields);
+        this.shared = true;
+        return fork;
+    }
+
+    /**
+     * Returns the list of animals after making sure it is not shared with a fork.
+     *
+     * @return : list of animals that may be changed
+     */
+    private List<Fauna> ownAnimals() {
+        if (this.shared) {
+            this.animals = new ArrayList<>(this.animals);
+            this.shared = false;
+        }
+        return this.animals;
     }
 
     /**
@@ -39,7 +88,7 @@ public class AnimalController extends Object {
      * @param animal : animal that this instance will now manage
      */
     public void addAnimal(Fauna animal) {
-        this.animals.add(animal);
+        this.ownAnimals().add(animal);
     }
 
     /**
@@ -47,10 +96,39 @@ public class AnimalController extends Object {
      * @param animal : animal to be removed
      */
     public void removeAnimal(Fauna animal) {
-        this.animals.remove(animal);
+        this.ownAnimals().remove(animal);
     }
 
 
+    /**
+     * Steers the animals of the field's class of mover along the field when they move, in place
+     * of any field set for that class before.
+     *
+     * @param field : field to steer by
+     */
+    public void setFlowField(FlowField field) {
+        this.flowFields.put(field.getMoverClass(), field);
+    }
+
+    /**
+     * Stops steering the animals of the given class of mover, so they move at random again.
+     *
+     * @param mover : class of mover
+     */
+    public void removeFlowField(MoverClass mover) {
+        this.flowFields.remove(mover);
+    }
+
+    /**
+     * Returns the field steering the animals of the given class of mover.
+     *
+     * @param mover : class of mover
+     * @return : the field, or null if they move at random
+     */
+    public FlowField getFlowField(MoverClass mover) {
+        return this.flowFields.get(mover);
+    }
+
     /**
      * Attempts to move a selection of the animals.
      * <p>
@@ -82,6 +160,11 @@ public class AnimalController extends Object {
      *     </li>
      * </ol>
      * The random variable should be retrieved using {@link Scenario#getRandom()}.
+     * <p>
+     * If a {@link FlowField} is set for the animal's class (see {@link #setFlowField(FlowField)})
+     * and a goal can be reached from the animal, the move chosen by the field is made instead of
+     * the random one (or none, if no move improves on staying put). The random number is still
+     * drawn, so the same animals are chosen as when no field is set.
      *
      * @given
      * @see Random#nextInt(int)
@@ -90,21 +173,62 @@ public class AnimalController extends Object {
      */
     public void move() {
         Scenario scenario = ScenarioManager.getInstance().getScenario();
+        long start = System.nanoTime();
+        moveAnimals(scenario);
+        scenario.getMonitor().getTickTimes().record(System.nanoTime() - start);
+    }
+
+    /**
+     * Moves a random selection of animals, as described by {@link #move()}.
+     *
+     * @param scenario : current scenario, which the animals are on
+     */
+    private void moveAnimals(Scenario scenario) {
         if (animals.isEmpty()) {
             return;
         }
         Random rand = scenario.getRandom();
         int num1 = rand.nextInt(animals.size());
         for (int i = 0; i <= num1; i++) {
-            Fauna animal = animals.get(rand.nextInt(animals.size()));
+            int index = rand.nextInt(animals.size());
+            Fauna animal = ownAnimal(scenario, index);
             List<Coordinate> possibleMoves = animal.getPossibleMoves();
             if (possibleMoves.isEmpty()) {
                 continue;
-            } else if (possibleMoves.size() == 1) {
-                animal.move(possibleMoves.get(0));
-            } else {
-                animal.move(possibleMoves.get(rand.nextInt(possibleMoves.size())));
             }
+            Coordinate next = possibleMoves.size() == 1 ? possibleMoves.get(0)
+                : possibleMoves.get(rand.nextInt(possibleMoves.size()));
+            FlowField field = flowFields.get(MoverClass.of(animal));
+            if (field != null
+                    && field.getDistance(animal.getCoordinate()) != FlowField.UNREACHABLE) {
+                next = field.chooseMove(animal.getCoordinate(), possibleMoves);
+                if (next == null) {
+                    continue;
+                }
+            }
+            animal.move(next);
+        }
+    }
+
+    /**
+     * Returns the given scenario's own copy of the animal at the given position of the list,
+     * replacing the animal in the list if it was shared with a fork.
+     * NB: an animal that is not on the map is returned as is
+     *
+     * @param scenario : scenario the animals are on
+     * @param index : position of the animal in the list
+     * @return : animal that may be moved
+     */
+    private Fauna ownAnimal(Scenario scenario, int index) {
+        Fauna animal = animals.get(index);
+        try {
+            Fauna owned = (Fauna) scenario.ownEntity(animal);
+            if (owned != animal) {
+                this.ownAnimals().set(index, owned);
+            }
+            return owned;
+        } catch (NoSuchEntityException | ClassCastException exp) {
+            return animal;
         }
     }
 }
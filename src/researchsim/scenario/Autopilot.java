@@ -0,0 +1,183 @@
+package researchsim.scenario;
+
+import researchsim.entities.Entity;
+import researchsim.entities.User;
+import researchsim.logging.LatencyRecorder;
+import researchsim.logging.PerformanceMonitor;
+import researchsim.map.Coordinate;
+import researchsim.map.Tile;
+import researchsim.util.Collectable;
+import researchsim.util.NoSuchEntityException;
+
+/**
+ * Drives a {@link User} by asking a {@link UserPolicy} for its move every turn.
+ * <p>
+ * The user is followed by its position rather than by reference, as a scenario's entities are
+ * replaced by copies when it is forked. How long the policy takes to decide each turn is recorded
+ * here and in the scenario's {@link PerformanceMonitor} ({@link Scenario#getMonitor()}), so that
+ * slow policies show up. A {@link UserTeam} records its members' turns in the monitor together
+ * once they have all decided.
+ */
+public class Autopilot {
+
+    /**
+     * Number of latest decision durations kept.
+     * The value of this constant is {@value}
+     */
+    public static final int WINDOW = 1024;
+
+    /** policy deciding the user's moves */
+    private final UserPolicy policy;
+    /** coordinate of the user being driven */
+    private Coordinate position;
+    /** durations of the policy deciding each turn */
+    private final LatencyRecorder decisionTimes;
+    /** duration of the policy deciding the latest turn, in nanoseconds */
+    private long lastDecisionTime;
+    /** number of turns taken */
+    private long turns;
+    /** points earned by the user while driven */
+    private int pointsEarned;
+
+    /**
+     * Creates an autopilot for the given user.
+     *
+     * @param user : user to drive
+     * @param policy : policy deciding the user's moves
+     */
+    public Autopilot(User user, UserPolicy policy) {
+        this.policy = policy;
+        this.position = user.getCoordinate();
+        this.decisionTimes = new LatencyRecorder(WINDOW);
+        this.lastDecisionTime = 0;
+        this.turns = 0;
+        this.pointsEarned = 0;
+    }
+
+    /**
+     * Takes the user's turn on the current scenario: the policy chooses a move, which is made if
+     * it is one of the user's possible moves and no other user stands there.
+     *
+     * @return : true if the user moved, false if it stayed put (or is no longer on the map)
+     */
+    public boolean takeTurn() {
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        User user = prepareTurn(scenario);
+        if (user == null) {
+            return false;
+        }
+        Coordinate move = decide(scenario, user);
+        scenario.getMonitor().getDecisionTimes().record(lastDecisionTime);
+        return makeMove(scenario, user, move);
+    }
+
+    /**
+     * Finds the given scenario's own copy of the user, ready for its turn.
+     *
+     * @param scenario : scenario the user is on
+     * @return : the user, or null if it is no longer where it was left
+     */
+    User prepareTurn(Scenario scenario) {
+        try {
+            Entity entity = scenario.getTile(position.getIndex()).getContents();
+            return entity instanceof User ? (User) scenario.ownEntity(entity) : null;
+        } catch (NoSuchEntityException exp) {
+            return null;
+        }
+    }
+
+    /**
+     * Asks the policy for the user's move, recording how long it took in this autopilot only
+     * (see {@link #getLastDecisionTime()}). The scenario is only read, so different autopilots
+     * may decide at the same time.
+     *
+     * @param scenario : scenario the user is on
+     * @param user : user returned by {@link #prepareTurn(Scenario)}
+     * @return : move chosen by the policy, or null to stay put
+     */
+    Coordinate decide(Scenario scenario, User user) {
+        turns++;
+        long start = System.nanoTime();
+        Coordinate move = policy.chooseMove(scenario, user);
+        lastDecisionTime = System.nanoTime() - start;
+        decisionTimes.record(lastDecisionTime);
+        return move;
+    }
+
+    /**
+     * Moves the user to the given coordinate, if it is one of the user's possible moves and no
+     * other user stands there (moving would otherwise replace that user).
+     *
+     * @param scenario : scenario the user is on
+     * @param user : user returned by {@link #prepareTurn(Scenario)}
+     * @param move : coordinate to move to, or null to stay put
+     * @return : true if the user moved, false otherwise
+     */
+    boolean makeMove(Scenario scenario, User user, Coordinate move) {
+        if (move == null || !user.getPossibleMoves().contains(move)) {
+            return false;
+        }
+        Tile tile = scenario.getTile(move.getIndex());
+        if (tile.hasContents()) {
+            try {
+                Entity contents = tile.getContents();
+                if (contents instanceof User) {
+                    return false;
+                }
+                if (contents instanceof Collectable) {
+                    pointsEarned += contents.getSize().points;
+                }
+            } catch (NoSuchEntityException exp) {
+                //the tile has contents, so this does not happen
+            }
+        }
+        user.move(move);
+        position = move;
+        return true;
+    }
+
+    /**
+     * Returns the coordinate of the user being driven.
+     *
+     * @return : coordinate of the user
+     */
+    public Coordinate getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the number of turns taken so far.
+     *
+     * @return : number of turns
+     */
+    public long getTurns() {
+        return turns;
+    }
+
+    /**
+     * Returns the points the user has earned by collecting entities while driven.
+     *
+     * @return : points earned
+     */
+    public int getPointsEarned() {
+        return pointsEarned;
+    }
+
+    /**
+     * Returns the recorder of how long the policy took to decide each turn.
+     *
+     * @return : decision durations
+     */
+    public LatencyRecorder getDecisionTimes() {
+        return decisionTimes;
+    }
+
+    /**
+     * Returns how long the policy took to decide the latest turn.
+     *
+     * @return : duration in nanoseconds, or 0 if no turn has been taken
+     */
+    public long getLastDecisionTime() {
+        return lastDecisionTime;
+    }
+}
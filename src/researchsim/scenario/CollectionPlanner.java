@@ -0,0 +1,434 @@
+package researchsim.scenario;
+
+import researchsim.entities.Entity;
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+import researchsim.map.DistanceOracle;
+import researchsim.map.MoverClass;
+import researchsim.map.Pathfinder;
+import researchsim.util.Collectable;
+import researchsim.util.NoSuchEntityException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Chooses which collectable entities a user should collect, and in what order, to earn as many
+ * points as possible within a budget of moves.
+ * <p>
+ * This is an orienteering problem, which is solved approximately by simulated annealing. Several
+ * independent chains are annealed at once, the first on the planning thread and the others on a
+ * pool of threads shared by every planner, and the best tour found by any chain is kept. Each
+ * chain is seeded from the planner's seed, and ties are broken by chain number, so the plan only
+ * depends on the seed and the number of chains, never on how the threads were scheduled. The
+ * exception is a planning thread that is interrupted: rather than planning nothing, it returns
+ * the best tour of the chains that had finished, so that plan depends on when it was
+ * interrupted.
+ * <p>
+ * An entity is collected by moving onto its tile, so the cost of travelling between two entities
+ * is the number of moves {@link Pathfinder} needs between their tiles. The scenario's
+ * {@link DistanceOracle} bounds that cost first, so that no route is searched between entities
+ * too far apart to both be collected within the budget. Entities on tiles the user
+ * cannot enter (such as OCEAN animals) cannot be collected. The plan is made against the map as
+ * it is when planning; animals that move afterwards are not followed.
+ */
+public class CollectionPlanner {
+
+    /**
+     * Default number of proposals each chain anneals.
+     * The value of this constant is {@value}
+     */
+    public static final int DEFAULT_ITERATIONS = 20000;
+
+    /**
+     * Default number of chains annealed at once. It is fixed, rather than following the number of
+     * processors, so that a seed gives the same plan on every machine.
+     * The value of this constant is {@value}
+     */
+    public static final int DEFAULT_CHAINS = 4;
+
+    /** temperature each chain starts annealing at */
+    private static final double START_TEMPERATURE = 4.0;
+    /** temperature each chain finishes annealing at */
+    private static final double END_TEMPERATURE = 0.05;
+    /** penalty per move spent, so that of two tours with equal points the shorter wins */
+    private static final double MOVE_PENALTY = 0.001;
+
+    /** threads annealing the chains after the first, shared by every planner */
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "collection-planner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** number of chains annealed */
+    private final int chains;
+    /** number of proposals each chain anneals */
+    private final int iterations;
+    /** seed the chains' random number generators are derived from */
+    private final long seed;
+    /** scenario the pathfinder was last used on, or null */
+    private Scenario planned;
+    /** pathfinder for the map of the planned scenario, or null */
+    private Pathfinder pathfinder;
+
+    /**
+     * Creates a planner that anneals {@link #DEFAULT_CHAINS} chains of
+     * {@link #DEFAULT_ITERATIONS} proposals.
+     *
+     * @param seed : seed the plan is derived from
+     */
+    public CollectionPlanner(long seed) {
+        this(DEFAULT_CHAINS, DEFAULT_ITERATIONS, seed);
+    }
+
+    /**
+     * Creates a planner.
+     *
+     * @param chains : number of chains to anneal at once
+     * @param iterations : number of proposals each chain anneals
+     * @param seed : seed the plan is derived from
+     * @throws IllegalArgumentException : if chains &lt; 1 or iterations &lt; 0
+     */
+    public CollectionPlanner(int chains, int iterations, long seed)
+            throws IllegalArgumentException {
+        if (chains < 1 || iterations < 0) {
+            throw new IllegalArgumentException("The given parameters do not conform to the "
+                + "requirement: chains >= 1 && iterations >= 0.");
+        }
+        this.chains = chains;
+        this.iterations = iterations;
+        this.seed = seed;
+    }
+
+    /**
+     * Plans the collections of the given user on the current scenario within the given number of
+     * moves.
+     *
+     * @param user : user to plan for, in the current scenario
+     * @param moveBudget : greatest number of moves the plan may take
+     * @return : the plan with the most points found
+     * @throws IllegalArgumentException : if moveBudget &lt; 0
+     */
+    public Plan plan(User user, int moveBudget) throws IllegalArgumentException {
+        return plan(ScenarioManager.getInstance().getScenario(), user, moveBudget);
+    }
+
+    /**
+     * Plans the collections of the given user on the given scenario within the given number of
+     * moves. The scenario is only read, so several planners may plan on it at once; each planner
+     * makes one plan at a time, since it keeps its {@link Pathfinder} (and the buffers sized to
+     * the map) for as long as it plans on the same lineage of scenarios.
+     *
+     * @param scenario : scenario the user is on
+     * @param user : user to plan for
+     * @param moveBudget : greatest number of moves the plan may take
+     * @return : the plan with the most points found
+     * @throws IllegalArgumentException : if moveBudget &lt; 0
+     */
+    public synchronized Plan plan(Scenario scenario, User user, int moveBudget)
+            throws IllegalArgumentException {
+        if (moveBudget < 0) {
+            throw new IllegalArgumentException("The given move budget does not conform to the "
+                + "requirement: moveBudget >= 0.");
+        }
+        if (pathfinder == null || !scenario.isSameLineage(planned)) {
+            pathfinder = new Pathfinder(scenario, MoverClass.USER);
+        }
+        planned = scenario;
+        DistanceOracle oracle = scenario.getDistanceOracle();
+        int moveDistance = user.getSize().moveDistance;
+
+        //the user is stop 0, each reachable collectable entity is a later stop
+        List<Coordinate> stops = new ArrayList<>();
+        List<Integer> points = new ArrayList<>();
+        stops.add(user.getCoordinate());
+        points.add(0);
+        for (int i = 0; i < scenario.getSize(); i++) {
+            Entity entity;
+            try {
+                entity = scenario.getTile(i).getContents();
+            } catch (NoSuchEntityException exp) {
+                continue;
+            }
+            if (entity instanceof Collectable && scenario.getComponents()
+                    .isConnected(MoverClass.USER, user.getCoordinate(), entity.getCoordinate())) {
+                stops.add(entity.getCoordinate());
+                points.add(entity.getSize().points);
+            }
+        }
+
+        //moves between each pair of stops, which are all reachable from each other
+        int count = stops.size();
+        int[][] cost = new int[count][count];
+        for (int from = 0; from < count; from++) {
+            for (int to = 0; to < count; to++) {
+                if (from == to) {
+                    continue;
+                }
+                //a pair that can not fit in the budget is never on a tour, so its bound will do
+                int bound = oracle.getMinimumMoves(MoverClass.USER, stops.get(from),
+                    stops.get(to), moveDistance);
+                cost[from][to] = bound > moveBudget ? bound : pathfinder.findMoves(
+                    stops.get(from), stops.get(to), moveDistance).size();
+            }
+        }
+        int[] value = points.stream().mapToInt(Integer::intValue).toArray();
+
+        int[] best = anneal(cost, value, moveBudget);
+        List<Coordinate> targets = new ArrayList<>();
+        List<Coordinate> moves = new ArrayList<>();
+        int earned = 0;
+        int previous = 0;
+        for (int stop : best) {
+            targets.add(stops.get(stop));
+            moves.addAll(pathfinder.findMoves(stops.get(previous), stops.get(stop),
+                moveDistance));
+            earned += value[stop];
+            previous = stop;
+        }
+        return new Plan(targets, moves, earned);
+    }
+
+    /* Anneals every chain in parallel and returns the best tour found */
+    private int[] anneal(int[][] cost, int[] value, int moveBudget) {
+        //the first chain is annealed on this thread, so a single chain needs no other thread
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int chain = 1; chain < chains; chain++) {
+            Random random = new Random(seed + chain);
+            results.add(WORKERS.submit(
+                () -> new Chain(cost, value, moveBudget, random).run(iterations)));
+        }
+        int[] best = new Chain(cost, value, moveBudget, new Random(seed)).run(iterations);
+        try {
+            for (Future<int[]> result : results) {
+                int[] tour = result.get();
+                if (score(tour, cost, value) > score(best, cost, value)) {
+                    best = tour;
+                }
+            }
+            return best;
+        } catch (InterruptedException exp) {
+            //keep the best tour found so far rather than planning nothing
+            Thread.currentThread().interrupt();
+            return best;
+        } catch (ExecutionException exp) {
+            throw new IllegalStateException(exp.getCause());
+        } finally {
+            for (Future<int[]> result : results) {
+                result.cancel(true);
+            }
+        }
+    }
+
+    /* Points of a tour, less a small penalty for the moves it takes */
+    private static double score(int[] tour, int[][] cost, int[] value) {
+        double score = 0;
+        int previous = 0;
+        for (int stop : tour) {
+            score += value[stop] - MOVE_PENALTY * cost[previous][stop];
+            previous = stop;
+        }
+        return score;
+    }
+
+    /**
+     * A single annealing chain, run on one thread.
+     */
+    private static class Chain {
+
+        /** moves between each pair of stops */
+        private final int[][] cost;
+        /** points earned at each stop */
+        private final int[] value;
+        /** greatest number of moves a tour may take */
+        private final int moveBudget;
+        /** random number generator of the chain */
+        private final Random random;
+        /** stops of the current tour, in order */
+        private final List<Integer> tour;
+        /** whether each stop is in the current tour */
+        private final boolean[] visited;
+
+        /**
+         * Creates a chain starting from an empty tour.
+         *
+         * @param cost : moves between each pair of stops
+         * @param value : points earned at each stop
+         * @param moveBudget : greatest number of moves a tour may take
+         * @param random : random number generator of the chain
+         */
+        Chain(int[][] cost, int[] value, int moveBudget, Random random) {
+            this.cost = cost;
+            this.value = value;
+            this.moveBudget = moveBudget;
+            this.random = random;
+            this.tour = new ArrayList<>();
+            this.visited = new boolean[value.length];
+        }
+
+        /**
+         * Anneals the tour and returns the best one seen.
+         *
+         * @param iterations : number of proposals to make
+         * @return : stops of the best tour, in order
+         */
+        int[] run(int iterations) {
+            double current = 0;
+            double bestScore = 0;
+            int[] best = new int[0];
+            if (value.length == 1) {
+                return best;
+            }
+            for (int i = 0; i < iterations; i++) {
+                double temperature = START_TEMPERATURE
+                    * Math.pow(END_TEMPERATURE / START_TEMPERATURE, (double) i / iterations);
+                List<Integer> before = new ArrayList<>(tour);
+                propose();
+                if (length() > moveBudget) {
+                    restore(before);
+                    continue;
+                }
+                double next = score();
+                if (next >= current
+                        || random.nextDouble() < Math.exp((next - current) / temperature)) {
+                    current = next;
+                    if (current > bestScore) {
+                        bestScore = current;
+                        best = tour.stream().mapToInt(Integer::intValue).toArray();
+                    }
+                } else {
+                    restore(before);
+                }
+            }
+            return best;
+        }
+
+        /* Changes the tour at random, possibly going over the budget */
+        private void propose() {
+            int stop = 1 + random.nextInt(value.length - 1);
+            int size = tour.size();
+            switch (size == 0 ? 0 : random.nextInt(4)) {
+                case 0:
+                    //add a stop, or drop it if it is already visited
+                    if (visited[stop]) {
+                        tour.remove(Integer.valueOf(stop));
+                        visited[stop] = false;
+                    } else {
+                        tour.add(random.nextInt(size + 1), stop);
+                        visited[stop] = true;
+                    }
+                    break;
+                case 1:
+                    //replace a visited stop with an unvisited one
+                    if (!visited[stop]) {
+                        int position = random.nextInt(size);
+                        visited[tour.get(position)] = false;
+                        tour.set(position, stop);
+                        visited[stop] = true;
+                    }
+                    break;
+                case 2:
+                    //swap two stops
+                    Collections.swap(tour, random.nextInt(size), random.nextInt(size));
+                    break;
+                default:
+                    //reverse a section of the tour
+                    int first = random.nextInt(size);
+                    int last = random.nextInt(size);
+                    Collections.reverse(tour.subList(Math.min(first, last),
+                        Math.max(first, last) + 1));
+                    break;
+            }
+        }
+
+        /* Returns the tour to an earlier state */
+        private void restore(List<Integer> before) {
+            for (int stop : tour) {
+                visited[stop] = false;
+            }
+            tour.clear();
+            tour.addAll(before);
+            for (int stop : tour) {
+                visited[stop] = true;
+            }
+        }
+
+        /* Moves the current tour takes */
+        private int length() {
+            int length = 0;
+            int previous = 0;
+            for (int stop : tour) {
+                length += cost[previous][stop];
+                previous = stop;
+            }
+            return length;
+        }
+
+        /* Score of the current tour */
+        private double score() {
+            return CollectionPlanner.score(
+                tour.stream().mapToInt(Integer::intValue).toArray(), cost, value);
+        }
+    }
+
+    /**
+     * The collections chosen for a user, and the moves that make them.
+     */
+    public static class Plan {
+
+        /** coordinates of the entities to collect, in order */
+        private final List<Coordinate> targets;
+        /** moves that collect the targets, in order */
+        private final List<Coordinate> moves;
+        /** points earned by collecting every target */
+        private final int points;
+
+        /**
+         * Creates a plan.
+         *
+         * @param targets : coordinates of the entities to collect, in order
+         * @param moves : moves that collect the targets, in order
+         * @param points : points earned by collecting every target
+         */
+        Plan(List<Coordinate> targets, List<Coordinate> moves, int points) {
+            this.targets = Collections.unmodifiableList(targets);
+            this.moves = Collections.unmodifiableList(moves);
+            this.points = points;
+        }
+
+        /**
+         * Returns the coordinates of the entities to collect, in the order they are collected.
+         *
+         * @return : coordinates to collect from
+         */
+        public List<Coordinate> getTargets() {
+            return targets;
+        }
+
+        /**
+         * Returns the moves to make, in order. Each move is one of the user's possible moves
+         * when it is made, and the last move of each leg lands on a target, collecting it.
+         *
+         * @return : coordinates to move to
+         */
+        public List<Coordinate> getMoves() {
+            return moves;
+        }
+
+        /**
+         * Returns the points earned by collecting every target.
+         *
+         * @return : points earned
+         */
+        public int getPoints() {
+            return points;
+        }
+    }
+}
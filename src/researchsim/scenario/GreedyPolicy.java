@@ -0,0 +1,60 @@
+package researchsim.scenario;
+
+import researchsim.entities.Entity;
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+import researchsim.map.HabitatComponents;
+import researchsim.map.MoverClass;
+import researchsim.map.Pathfinder;
+import researchsim.util.Collectable;
+
+import java.util.List;
+
+/**
+ * Policy that heads for whichever nearby collectable entity earns the most points for the moves
+ * it takes to reach, and collects it.
+ * <p>
+ * The nearest reachable entities are found with the scenario's spatial index, and the moves to
+ * each with a {@link Pathfinder} that is kept while the map stays the same. The choice is made
+ * afresh every turn, so the user changes course when animals move.
+ */
+public class GreedyPolicy implements UserPolicy {
+
+    /**
+     * Number of nearest entities compared each turn.
+     * The value of this constant is {@value}
+     */
+    public static final int CANDIDATES = 8;
+
+    /** scenario the pathfinder was last used on, or null */
+    private Scenario planned;
+    /** pathfinder for the map of the planned scenario, or null */
+    private Pathfinder pathfinder;
+
+    @Override
+    public Coordinate chooseMove(Scenario scenario, User user) {
+        if (pathfinder == null || !scenario.isSameLineage(planned)) {
+            pathfinder = new Pathfinder(scenario, MoverClass.USER);
+        }
+        planned = scenario;
+
+        HabitatComponents components = scenario.getComponents();
+        List<Entity> candidates = scenario.findNearest(user.getCoordinate(), CANDIDATES,
+            entity -> entity instanceof Collectable && components.isConnected(MoverClass.USER,
+                user.getCoordinate(), entity.getCoordinate()));
+        List<Coordinate> best = null;
+        double bestRate = 0;
+        for (Entity candidate : candidates) {
+            List<Coordinate> moves = pathfinder.planMoves(user, candidate.getCoordinate());
+            if (moves == null || moves.isEmpty()) {
+                continue;
+            }
+            double rate = (double) candidate.getSize().points / moves.size();
+            if (rate > bestRate) {
+                bestRate = rate;
+                best = moves;
+            }
+        }
+        return best == null ? null : best.get(0);
+    }
+}
@@ -0,0 +1,151 @@
+package researchsim.scenario;
+
+import researchsim.entities.Fauna;
+import researchsim.map.BlockedCounts;
+import researchsim.map.Coordinate;
+import researchsim.map.MoverClass;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The moves every animal of a scenario could make, found in one sweep of the map.
+ * <p>
+ * The moves are stored in compressed sparse row form: the moves of animal {@code a} are the
+ * tile indices {@code moves[offsets[a]]} to {@code moves[offsets[a + 1] - 1]}, in the same order
+ * as {@link Fauna#getPossibleMoves()} lists them. No list or coordinate is created per animal.
+ * <p>
+ * The table is a snapshot: it is not updated when animals move afterwards.
+ */
+public class MoveTable {
+
+    /** animals the moves are for, in the order of the rows */
+    private final List<Fauna> animals;
+    /** position in moves of the first move of each animal, followed by the number of moves */
+    private final int[] offsets;
+    /** tile index of each move, row by row */
+    private final int[] moves;
+    /** width of the map, in tiles */
+    private final int width;
+
+    /**
+     * Finds the moves the given animals could make on the given scenario's map, as
+     * {@link Fauna#canMove(Coordinate)} decides them.
+     * <p>
+     * A move is legal if no tile along one of its two single-turn paths is blocked, which the
+     * scenario's {@link BlockedCounts} tell in O(1) per move.
+     *
+     * @param scenario : scenario the animals are on
+     * @param animals : animals to find the moves of
+     * @param parallel : true to find the moves of different animals on several threads
+     */
+    MoveTable(Scenario scenario, List<Fauna> animals, boolean parallel) {
+        this.animals = animals;
+        this.width = scenario.getWidth();
+        int height = scenario.getHeight();
+        BlockedCounts blocked = scenario.getBlockedCounts();
+
+        //count the moves of each animal, then fill them in after their offsets are known
+        int[] counts = new int[animals.size()];
+        IntStream rows = IntStream.range(0, animals.size());
+        (parallel ? rows.parallel() : rows).forEach(animal -> counts[animal] = sweep(
+            animals.get(animal), blocked, height, null, 0));
+        this.offsets = new int[animals.size() + 1];
+        for (int animal = 0; animal < animals.size(); animal++) {
+            offsets[animal + 1] = offsets[animal] + counts[animal];
+        }
+        this.moves = new int[offsets[animals.size()]];
+        rows = IntStream.range(0, animals.size());
+        (parallel ? rows.parallel() : rows).forEach(animal -> sweep(animals.get(animal),
+            blocked, height, moves, offsets[animal]));
+    }
+
+    /**
+     * Returns the number of animals in the table.
+     *
+     * @return : number of rows
+     */
+    public int getAnimalCount() {
+        return animals.size();
+    }
+
+    /**
+     * Returns the animal of the given row.
+     *
+     * @param animal : row of the animal
+     * @return : the animal
+     */
+    public Fauna getAnimal(int animal) {
+        return animals.get(animal);
+    }
+
+    /**
+     * Returns the number of moves the animal of the given row could make.
+     *
+     * @param animal : row of the animal
+     * @return : number of moves
+     */
+    public int getMoveCount(int animal) {
+        return offsets[animal + 1] - offsets[animal];
+    }
+
+    /**
+     * Returns the tile index of one of the moves the animal of the given row could make.
+     *
+     * @param animal : row of the animal
+     * @param move : position of the move, from 0 to {@link #getMoveCount(int)} - 1
+     * @return : tile index of the move
+     */
+    public int getMove(int animal, int move) {
+        return moves[offsets[animal] + move];
+    }
+
+    /**
+     * Returns the coordinate of one of the moves the animal of the given row could make.
+     *
+     * @param animal : row of the animal
+     * @param move : position of the move, from 0 to {@link #getMoveCount(int)} - 1
+     * @return : coordinate of the move
+     */
+    public Coordinate getMoveCoordinate(int animal, int move) {
+        int index = getMove(animal, move);
+        return new Coordinate(index % width, index / width);
+    }
+
+    /**
+     * Returns the total number of moves in the table.
+     *
+     * @return : number of moves of every animal
+     */
+    public int getTotalMoves() {
+        return moves.length;
+    }
+
+    /*
+     * Visits the moves of one animal in checkRange order, writing their tile indices from the
+     * given position (if moves is not null), and returns how many there are
+     */
+    private int sweep(Fauna animal, BlockedCounts blocked, int height, int[] moves,
+            int position) {
+        MoverClass mover = MoverClass.of(animal);
+        int distance = animal.getSize().moveDistance;
+        int centreX = animal.getCoordinate().getX();
+        int centreY = animal.getCoordinate().getY();
+        int count = 0;
+        for (int y = Math.max(0, centreY - distance);
+                y <= Math.min(height - 1, centreY + distance); y++) {
+            int reach = distance - Math.abs(y - centreY);
+            for (int x = Math.max(0, centreX - reach);
+                    x <= Math.min(width - 1, centreX + reach); x++) {
+                if ((x != centreX || y != centreY)
+                        && blocked.isPathClear(mover, centreX, centreY, x, y)) {
+                    if (moves != null) {
+                        moves[position + count] = x + y * width;
+                    }
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,35 @@
+package researchsim.scenario;
+
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Policy that moves the user to one of its possible moves chosen at random, as a baseline for
+ * other policies.
+ * <p>
+ * The policy has its own random number generator, so it does not change the moves the
+ * scenario's animals make.
+ */
+public class RandomPolicy implements UserPolicy {
+
+    /** random number generator of the policy */
+    private final Random random;
+
+    /**
+     * Creates a random policy.
+     *
+     * @param seed : seed of the policy's random number generator
+     */
+    public RandomPolicy(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public Coordinate chooseMove(Scenario scenario, User user) {
+        List<Coordinate> moves = user.getPossibleMoves();
+        return moves.isEmpty() ? null : moves.get(random.nextInt(moves.size()));
+    }
+}
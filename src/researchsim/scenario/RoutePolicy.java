@@ -0,0 +1,98 @@
+package researchsim.scenario;
+
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+import researchsim.util.Collectable;
+import researchsim.util.NoSuchEntityException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Policy that follows a route planned by a {@link CollectionPlanner}, planning a new route when
+ * the current one is finished or has gone stale (its next target has moved or been collected, or
+ * its next move is no longer possible).
+ * <p>
+ * When no route can be planned, planning again every turn would only find nothing again, so the
+ * user waits until an entity has been collected or {@link #IDLE_TURNS} turns have passed (in
+ * which time animals may have come within reach).
+ */
+public class RoutePolicy implements UserPolicy {
+
+    /**
+     * Greatest number of turns waited after no route could be planned before planning again.
+     * The value of this constant is {@value}
+     */
+    public static final int IDLE_TURNS = 16;
+
+    /** planner the routes are planned with */
+    private final CollectionPlanner planner;
+    /** greatest number of moves each route may take */
+    private final int moveBudget;
+    /** moves of the current route that are still to be made */
+    private final Deque<Coordinate> moves;
+    /** targets of the current route that are still to be collected */
+    private final Deque<Coordinate> targets;
+    /** number of entities collected on the scenario when no route was last found, or -1 */
+    private int idleCollected;
+    /** number of turns waited since no route was last found */
+    private int idleTurns;
+
+    /**
+     * Creates a route following policy.
+     *
+     * @param planner : planner to plan routes with
+     * @param moveBudget : greatest number of moves each route may take
+     * @throws IllegalArgumentException : if moveBudget &lt; 1
+     */
+    public RoutePolicy(CollectionPlanner planner, int moveBudget)
+            throws IllegalArgumentException {
+        if (moveBudget < 1) {
+            throw new IllegalArgumentException("The given move budget does not conform to the "
+                + "requirement: moveBudget >= 1.");
+        }
+        this.planner = planner;
+        this.moveBudget = moveBudget;
+        this.moves = new ArrayDeque<>();
+        this.targets = new ArrayDeque<>();
+        this.idleCollected = -1;
+        this.idleTurns = 0;
+    }
+
+    @Override
+    public Coordinate chooseMove(Scenario scenario, User user) {
+        if (isStale(scenario, user) && !isIdle(scenario)) {
+            CollectionPlanner.Plan plan = planner.plan(scenario, user, moveBudget);
+            moves.clear();
+            moves.addAll(plan.getMoves());
+            targets.clear();
+            targets.addAll(plan.getTargets());
+            idleCollected = moves.isEmpty() ? scenario.getLog().getEntitiesCollected() : -1;
+            idleTurns = 0;
+        }
+        Coordinate move = moves.poll();
+        if (move != null && move.equals(targets.peek())) {
+            targets.poll();
+        }
+        return move;
+    }
+
+    /* Whether to keep waiting after no route was found, rather than planning again */
+    private boolean isIdle(Scenario scenario) {
+        return idleCollected == scenario.getLog().getEntitiesCollected()
+            && ++idleTurns < IDLE_TURNS;
+    }
+
+    /* Whether the current route should be replaced by a new one */
+    private boolean isStale(Scenario scenario, User user) {
+        if (moves.isEmpty() || !user.getPossibleMoves().contains(moves.peek())) {
+            return true;
+        }
+        try {
+            return !(scenario.getTile(targets.peek().getIndex()).getContents()
+                instanceof Collectable);
+        } catch (NoSuchEntityException exp) {
+            return true;
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package researchsim.scenario;
 
 import researchsim.entities.*;
+import researchsim.map.BlockedCounts;
 import researchsim.map.Coordinate;
+import researchsim.map.DistanceOracle;
+import researchsim.map.HabitatComponents;
+import researchsim.map.SpatialIndex;
 import researchsim.map.Tile;
 import researchsim.map.TileType;
 import researchsim.util.BadSaveException;
 import researchsim.util.CoordinateOutOfBoundsException;
+import researchsim.logging.CollectEvent;
+import researchsim.logging.Event;
 import researchsim.logging.Logger;
+import researchsim.logging.PerformanceMonitor;
+import researchsim.logging.MoveEvent;
 import researchsim.util.Encodable;
 import researchsim.util.NoSuchEntityException;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.Predicate;
 
 
 /**
@@ -46,6 +55,48 @@ public class Scenario extends Object implements Encodable {
      * @ass1
      */
     public static final int MAX_TILES = MAX_SIZE * MAX_SIZE;
+    /**
+     * Key of the header line that opens each delta segment of a save file.
+     * The value of this constant is {@value}
+     */
+    public static final String DELTA_KEY = "Delta";
+    /**
+     * Encoding used within a delta segment for a cell that no longer has contents.
+     * The value of this constant is {@value}
+     */
+    public static final String EMPTY_CELL = "Empty";
+    /**
+     * Keys of the sections a snapshot ({@link #encodeSnapshot()}) adds after the encoding.
+     */
+    private static final String ANIMALS_KEY = "Animals";
+    private static final String ENTITIES_KEY = "Entities";
+    private static final String LOG_KEY = "Log";
+    private static final String RANDOM_KEY = "Random";
+    /**
+     * Headers of the two kinds of event in the log section of a snapshot.
+     */
+    private static final String MOVE_EVENT = "Move";
+    private static final String COLLECT_EVENT = "Collect";
+    /**
+     * Prefix of an entity of a snapshot's entity table that is on the map, followed by the
+     * index of its tile.
+     */
+    private static final String ON_MAP = "@";
+    /**
+     * Number of characters the reader may look ahead while checking whether the next line
+     * opens a delta segment.
+     */
+    private static final int LINE_MARK_LIMIT = 1024;
+    /**
+     * Number of tiles in each chunk of the map grid, the unit copied when a forked scenario
+     * first writes to a tile it shares.
+     */
+    private static final int CHUNK_SIZE = 16;
+
+    /**
+     * Width and height, in tiles, of each bucket of the spatial index.
+     */
+    private static final int SPATIAL_BUCKET_SIZE = 4;
     /**
      * The name of this scenario.
      */
@@ -59,15 +110,80 @@ public class Scenario extends Object implements Encodable {
      */
     private final int height;
     /**
-     * The tile grid for this scenario.
+     * The tile grid for this scenario, split into chunks of CHUNK_SIZE tiles.
+     * NB: after a fork, the chunks (and the table itself) are shared with the other scenario
+     * until either writes to them
      */
-    private Tile[] mapGrid;
+    private Tile[][] chunks;
+
+    /**
+     * The owner token of the scenario each chunk was last copied for; a chunk may only be
+     * written to if its owner is this scenario's token.
+     */
+    private Object[] chunkOwners;
+
+    /**
+     * Whether the chunk table (chunks and chunkOwners) is shared with a fork of this scenario.
+     */
+    private boolean chunkTableShared;
+
+    /**
+     * This scenario's owner token, replaced every time it is forked.
+     */
+    private Object owner;
+
+    /**
+     * Token shared by this scenario and every fork descended from it, replaced when the map is
+     * replaced.
+     */
+    private Object lineage;
+
+    /**
+     * Connected regions of the terrain for each class of mover, found when the map is set and
+     * shared by every fork, or null if they have not been found yet.
+     */
+    private HabitatComponents components;
+
+    /**
+     * Distances between every pair of tiles of the terrain for each class of mover, shared by
+     * every fork, or null if they have not been found or read yet.
+     */
+    private DistanceOracle distances;
+
+    /**
+     * Running counts of blocked tiles along each row and column, kept up to date as tiles are
+     * filled and emptied, or null if they have not been counted since the map was set.
+     */
+    private BlockedCounts blockedCounts;
+
+    /**
+     * Whether the blocked counts are shared with a fork, and so must be copied before they are
+     * changed.
+     */
+    private boolean blockedCountsShared;
+
+    /**
+     * Index of the occupied tiles, kept up to date as tiles are filled and emptied, or null if
+     * it has not been built since the map was set.
+     */
+    private SpatialIndex spatialIndex;
+
+    /**
+     * Whether the spatial index is shared with a fork, and so must be copied before it is
+     * changed.
+     */
+    private boolean spatialIndexShared;
 
     /**
      * The scenario's activity log
      */
     private Logger log;
 
+    /**
+     * Performance metrics of the simulation this scenario belongs to, shared by every fork.
+     */
+    private final PerformanceMonitor monitor;
+
     /**
      * the random seed used to initialise the Random instance of this scenario
      */
@@ -125,7 +241,22 @@ public class Scenario extends Object implements Encodable {
         this.width = width;
         this.height = height;
         this.seed = seed;
-        this.mapGrid = new Tile[width * height];
+        this.owner = new Object();
+        this.lineage = new Object();
+        this.monitor = new PerformanceMonitor();
+        this.components = null;
+        this.distances = null;
+        this.blockedCounts = null;
+        this.blockedCountsShared = false;
+        this.spatialIndex = null;
+        this.spatialIndexShared = false;
+        this.chunks = new Tile[(width * height + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+        this.chunkOwners = new Object[this.chunks.length];
+        for (int i = 0; i < this.chunks.length; i++) {
+            this.chunks[i] = new Tile[Math.min(CHUNK_SIZE, width * height - i * CHUNK_SIZE)];
+            this.chunkOwners[i] = this.owner;
+        }
+        this.chunkTableShared = false;
         this.log = new Logger();
         this.animalController = new AnimalController();
         this.randomInstance = new Random(this.seed);
@@ -146,12 +277,411 @@ public class Scenario extends Object implements Encodable {
      * Returns the map grid for this scenario.
      * <p>
      * Adding or removing elements from the returned array should not affect the original array.
+     * <p>
+     * The returned tiles (and their contents) may be modified, so this takes ownership of every
+     * tile shared with a fork. Use {@link #getTile(int)} or {@link #viewMapGrid()} to only read.
      *
      * @return map grid
      * @ass1
      */
     public Tile[] getMapGrid() {
-        return Arrays.copyOf(mapGrid, getSize());
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            ownChunk(chunk);
+        }
+        return viewMapGrid();
+    }
+
+    /**
+     * Returns the map grid for this scenario, for reading only.
+     * <p>
+     * Unlike {@link #getMapGrid()}, this does not take ownership of tiles shared with a fork, so
+     * neither the returned tiles nor their contents may be modified.
+     *
+     * @return map grid
+     */
+    public Tile[] viewMapGrid() {
+        Tile[] map = new Tile[getSize()];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            System.arraycopy(chunks[chunk], 0, map, chunk * CHUNK_SIZE, chunks[chunk].length);
+        }
+        return map;
+    }
+
+    /**
+     * Returns the tile at the given index of the map grid, for reading only.
+     * <p>
+     * Neither the tile nor its contents may be modified; use
+     * {@link #setTileContents(int, Entity)} to change what the tile holds.
+     *
+     * @param index index of the tile in the map grid
+     * @return tile at the index
+     * @throws ArrayIndexOutOfBoundsException if index &lt; 0 or index &ge; {@link #getSize()}
+     */
+    public Tile getTile(int index) {
+        return chunks[index / CHUNK_SIZE][index % CHUNK_SIZE];
+    }
+
+    /**
+     * Sets the contents of the tile at the given index of the map grid, copying the tile's chunk
+     * first if it is shared with a fork.
+     *
+     * @param index  index of the tile in the map grid
+     * @param entity new contents of the tile, or null to empty it
+     * @throws ArrayIndexOutOfBoundsException if index &lt; 0 or index &ge; {@link #getSize()}
+     */
+    public void setTileContents(int index, Entity entity) {
+        ownChunk(index / CHUNK_SIZE)[index % CHUNK_SIZE].setContents(entity);
+        if (blockedCounts != null) {
+            if (blockedCountsShared) {
+                blockedCounts = new BlockedCounts(blockedCounts);
+                blockedCountsShared = false;
+            }
+            blockedCounts.setOccupied(index, entity != null);
+        }
+        if (spatialIndex != null) {
+            if (spatialIndexShared) {
+                spatialIndex = new SpatialIndex(spatialIndex);
+                spatialIndexShared = false;
+            }
+            spatialIndex.setOccupied(index, entity != null);
+        }
+    }
+
+    /**
+     * Returns running counts of the tiles blocked for each class of mover along every row and
+     * column of the map, with which {@code canMove} checks a path in O(1).
+     * <p>
+     * They are counted the first time they are asked for after the map is set, and afterwards
+     * kept up to date by {@link #setTileContents(int, Entity)}. They must not be modified.
+     *
+     * @return : blocked tile counts of the map
+     */
+    public BlockedCounts getBlockedCounts() {
+        if (blockedCounts == null) {
+            blockedCounts = new BlockedCounts(viewMapGrid(), width);
+            blockedCountsShared = false;
+        }
+        return blockedCounts;
+    }
+
+    /**
+     * Returns the index of the occupied tiles of the map, for nearest and range queries.
+     * <p>
+     * It is built the first time it is asked for after the map is set, and afterwards kept up to
+     * date by {@link #setTileContents(int, Entity)}. It must not be modified.
+     *
+     * @return : spatial index of the map
+     */
+    public SpatialIndex getSpatialIndex() {
+        if (spatialIndex == null) {
+            spatialIndex = new SpatialIndex(viewMapGrid(), width, SPATIAL_BUCKET_SIZE);
+            spatialIndexShared = false;
+        }
+        return spatialIndex;
+    }
+
+    /**
+     * Returns the entities nearest to the given coordinate that satisfy a filter, such as the
+     * nearest Flora to a User.
+     *
+     * @param coordinate : coordinate to measure from
+     * @param count : greatest number of entities to return
+     * @param filter : entities to consider
+     * @return : up to count entities, nearest (by Manhattan distance) first
+     */
+    public List<Entity> findNearest(Coordinate coordinate, int count, Predicate<Entity> filter) {
+        return entitiesAt(getSpatialIndex().nearest(coordinate.getX(), coordinate.getY(), count,
+            index -> filter.test(contentsOf(index))));
+    }
+
+    /**
+     * Returns the entities within a distance of the given coordinate that satisfy a filter, such
+     * as all Fauna within a radius of a User.
+     *
+     * @param coordinate : coordinate to measure from
+     * @param radius : greatest Manhattan distance of an entity to return
+     * @param filter : entities to consider
+     * @return : the entities, in tile index order
+     */
+    public List<Entity> findWithin(Coordinate coordinate, int radius, Predicate<Entity> filter) {
+        return entitiesAt(getSpatialIndex().within(coordinate.getX(), coordinate.getY(), radius,
+            index -> filter.test(contentsOf(index))));
+    }
+
+    /**
+     * Returns every user on the map, found through the spatial index so that only occupied
+     * tiles are visited.
+     *
+     * @return : the users, in tile index order
+     */
+    public List<User> getUsers() {
+        List<User> users = new ArrayList<>();
+        for (int index : getSpatialIndex().occupied(index -> contentsOf(index) instanceof User)) {
+            users.add((User) contentsOf(index));
+        }
+        return users;
+    }
+
+    /**
+     * Returns the entities on the tiles at the given indices.
+     *
+     * @param indices : indices of occupied tiles
+     * @return : the entities, in the same order
+     */
+    private List<Entity> entitiesAt(int[] indices) {
+        List<Entity> entities = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            entities.add(contentsOf(index));
+        }
+        return entities;
+    }
+
+    /**
+     * Returns the entity on an occupied tile.
+     *
+     * @param index : index of the tile
+     * @return : the tile's entity
+     */
+    private Entity contentsOf(int index) {
+        try {
+            return getTile(index).getContents();
+        } catch (NoSuchEntityException exp) {
+            //the spatial index only holds occupied tiles
+            throw new IllegalStateException(exp);
+        }
+    }
+
+    /**
+     * Returns this scenario's own copy of the given entity, which may be modified.
+     * <p>
+     * In a scenario that has not been forked this is the given entity. After a fork, entities
+     * obtained from the scenario before the fork (or through {@link #getTile(int)}) are shared
+     * with the fork and must not be modified; this copies the entity's chunk if needed and
+     * returns the copy that belongs to this scenario.
+     *
+     * @param entity entity on this scenario's map
+     * @return this scenario's own copy of the entity
+     * @throws NoSuchEntityException if the entity is no longer at its coordinate on this
+     *                               scenario's map
+     */
+    public Entity ownEntity(Entity entity) throws NoSuchEntityException {
+        int index = gridIndex(entity.getCoordinate(), width);
+        if (index < 0 || index >= getSize()) {
+            throw new NoSuchEntityException("Entity is not on the map");
+        }
+        Entity owned = ownChunk(index / CHUNK_SIZE)[index % CHUNK_SIZE].getContents();
+        if (owned != entity && !owned.equals(entity)) {
+            throw new NoSuchEntityException("Entity is no longer at its coordinate");
+        }
+        return owned;
+    }
+
+    /**
+     * Returns true if this scenario and the given scenario are forks of one another (directly or
+     * through other forks), or are the same scenario.
+     * <p>
+     * Such scenarios have the same terrain, and the log of a later fork starts with the events
+     * of the scenario it was forked from.
+     *
+     * @param other : scenario to compare with
+     * @return : true if the scenarios share a lineage, false otherwise
+     */
+    public boolean isSameLineage(Scenario other) {
+        return other != null && lineage == other.lineage;
+    }
+
+    /**
+     * Returns the connected regions of this scenario's terrain for each class of mover, which
+     * tell in O(1) whether a target can be reached at all.
+     * <p>
+     * They are found when the map is set (so when the scenario is loaded), and otherwise the
+     * first time they are asked for.
+     *
+     * @return : components of the terrain
+     */
+    public HabitatComponents getComponents() {
+        if (components == null) {
+            components = new HabitatComponents(viewMapGrid(), width);
+        }
+        return components;
+    }
+
+    /**
+     * Returns the performance metrics of the simulation this scenario belongs to, which are
+     * shared with every fork of it.
+     *
+     * @return : performance metrics of this scenario and its forks
+     */
+    public PerformanceMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * Returns the distances between every pair of tiles of this scenario's terrain for each
+     * class of mover.
+     * <p>
+     * They are read from the scenario's distance file when it is loaded from a file (see
+     * {@link #setDistanceOracle(DistanceOracle)}), and otherwise found the first time they are
+     * asked for.
+     *
+     * @return : distances over the terrain
+     */
+    public DistanceOracle getDistanceOracle() {
+        if (distances == null) {
+            distances = DistanceOracle.build(this);
+        }
+        return distances;
+    }
+
+    /**
+     * Sets the distances between every pair of tiles of this scenario's terrain, which are
+     * shared with every fork made afterwards.
+     *
+     * @param distances : distances found over the same terrain as this scenario's
+     * @throws IllegalArgumentException : if the distances were found over different terrain
+     */
+    public void setDistanceOracle(DistanceOracle distances) throws IllegalArgumentException {
+        if (!distances.matches(this)) {
+            throw new IllegalArgumentException("The given distances do not match the terrain "
+                + "of scenario " + name + ".");
+        }
+        this.distances = distances;
+    }
+
+    /**
+     * Creates a fork of this scenario that shares all of its state with this scenario until
+     * either writes to it.
+     * <p>
+     * Forking costs O(1) regardless of the size of the map: tiles (with their entities) are
+     * copied a chunk at a time when first written to, the animal list is copied when first
+     * changed and the log only stores events added after the fork. The fork's random number
+     * generator continues from the same state as this scenario's.
+     * <p>
+     * The fork has the same name as this scenario, so it should be driven in its own
+     * context ({@link ScenarioManager#createContext()}). Tiles and entities obtained from this
+     * scenario before the fork must not be modified afterwards; see {@link #ownEntity(Entity)}.
+     *
+     * @return fork of this scenario
+     */
+    public Scenario fork() {
+        Scenario fork = new Scenario(this);
+        //tiles this scenario owned are now shared, so neither may write to them in place
+        this.owner = new Object();
+        this.chunkTableShared = true;
+        this.blockedCountsShared = true;
+        this.spatialIndexShared = true;
+        return fork;
+    }
+
+    /**
+     * Creates a fork of the given scenario, sharing its map, animals and log.
+     *
+     * @param parent scenario to fork
+     */
+    private Scenario(Scenario parent) {
+        this.name = parent.name;
+        this.width = parent.width;
+        this.height = parent.height;
+        this.seed = parent.seed;
+        this.owner = new Object();
+        this.lineage = parent.lineage;
+        this.monitor = parent.monitor;
+        this.components = parent.components;
+        this.distances = parent.distances;
+        this.blockedCounts = parent.blockedCounts;
+        this.blockedCountsShared = true;
+        this.spatialIndex = parent.spatialIndex;
+        this.spatialIndexShared = true;
+        this.chunks = parent.chunks;
+        this.chunkOwners = parent.chunkOwners;
+        this.chunkTableShared = true;
+        this.log = parent.log.fork();
+        this.animalController = parent.animalController.fork();
+        this.randomInstance = copyRandom(parent.randomInstance);
+    }
+
+    /**
+     * Returns the given chunk after making sure this scenario owns it, copying the chunk table
+     * and then the chunk (with a copy of each entity in it) if they are shared with a fork.
+     *
+     * @param chunk : index of the chunk
+     * @return : the chunk, which this scenario may write to
+     */
+    private Tile[] ownChunk(int chunk) {
+        if (chunkOwners[chunk] == owner) {
+            return chunks[chunk];
+        }
+        if (chunkTableShared) {
+            chunks = chunks.clone();
+            chunkOwners = chunkOwners.clone();
+            chunkTableShared = false;
+        }
+        Tile[] copy = new Tile[chunks[chunk].length];
+        for (int i = 0; i < copy.length; i++) {
+            Tile tile = chunks[chunk][i];
+            if (tile != null) {
+                copy[i] = new Tile(tile.getType());
+                if (tile.hasContents()) {
+                    try {
+                        copy[i].setContents(tile.getContents().copy());
+                    } catch (NoSuchEntityException exp) {
+                        //checked by hasContents
+                    }
+                }
+            }
+        }
+        chunks[chunk] = copy;
+        chunkOwners[chunk] = owner;
+        return copy;
+    }
+
+    /**
+     * Returns a new Random that continues from the same state as the given one.
+     *
+     * @param random : random to copy
+     * @return : copy of the random
+     */
+    private static Random copyRandom(Random random) {
+        try {
+            return decodeRandom(encodeRandom(random));
+        } catch (IOException exp) {
+            //Random is serializable and the stream is in memory
+            throw new IllegalStateException(exp);
+        }
+    }
+
+    /**
+     * Returns the serialized state of the given Random.
+     *
+     * @param random : random to serialize
+     * @return : serialized state
+     */
+    private static byte[] encodeRandom(Random random) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(random);
+            }
+            return bytes.toByteArray();
+        } catch (IOException exp) {
+            //Random is serializable and the stream is in memory
+            throw new IllegalStateException(exp);
+        }
+    }
+
+    /**
+     * Returns a Random that continues from the given serialized state.
+     *
+     * @param state : state as per encodeRandom(Random)
+     * @return : the random
+     * @throws IOException : if the state is not a serialized Random
+     */
+    private static Random decodeRandom(byte[] state) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            return (Random) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException exp) {
+            throw new IOException("Not a serialized Random", exp);
+        }
     }
 
     /**
@@ -168,7 +698,19 @@ public class Scenario extends Object implements Encodable {
         if (map.length != this.getSize()) {
             throw new CoordinateOutOfBoundsException("incorrect map size");
         }
-        mapGrid = Arrays.copyOf(map, getSize());
+        chunks = new Tile[chunks.length][];
+        chunkOwners = new Object[chunks.length];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            chunks[chunk] = Arrays.copyOfRange(map, chunk * CHUNK_SIZE,
+                Math.min(map.length, (chunk + 1) * CHUNK_SIZE));
+            chunkOwners[chunk] = owner;
+        }
+        chunkTableShared = false;
+        lineage = new Object();
+        components = new HabitatComponents(map, width);
+        distances = null;
+        blockedCounts = null;
+        spatialIndex = null;
     }
 
 
@@ -182,6 +724,15 @@ public class Scenario extends Object implements Encodable {
         return width;
     }
 
+    /**
+     * Returns the seed this scenario's random number generator was created from.
+     *
+     * @return seed of the scenario
+     */
+    public int getSeed() {
+        return seed;
+    }
+
     /**
      * Returns the height of the map for this scenario.
      *
@@ -227,6 +778,17 @@ public class Scenario extends Object implements Encodable {
         return this.animalController;
     }
 
+    /**
+     * Returns the moves every animal of this scenario could make, found in one sweep of the map
+     * instead of one {@link Fauna#getPossibleMoves()} call (and list) per animal.
+     *
+     * @param parallel : true to find the moves of different animals on several threads
+     * @return : moves of every animal, in the order of {@link AnimalController#getAnimals()}
+     */
+    public MoveTable getAnimalMoves(boolean parallel) {
+        return new MoveTable(this, this.animalController.getAnimals(), parallel);
+    }
+
     /**
      * Creates a Scenario instance by reading information from the given reader.
      * The read is invalid if any of the following conditions are true:
@@ -272,6 +834,17 @@ public class Scenario extends Object implements Encodable {
      *          -If line starts with "User" AND the Tile specified by the
      *          Coordinate is not suitable
      *
+     * The entities may be followed by any number of delta segments (see
+     * {@link #encodeDelta(int, int)}). The read is also invalid if any of the
+     * following is true of a delta segment:
+     *      -The header line is not "Delta:{n}", where n is one more than the
+     *      number of the previous segment (the first segment is 1)
+     *      -The header is not followed by a valid separator
+     *      -An "Empty" line does not contain exactly one hyphen or its
+     *      Coordinate can not be decoded or is not on the map
+     *      -An entity line breaks any of the entity rules above, where the
+     *      "already assigned" check only applies within the segment
+     *
      * Additional notes:
      *      -if any of Width, Height and Seed is -1, they are assigned a default
      *      value of MIN_SIZE(5)
@@ -280,6 +853,9 @@ public class Scenario extends Object implements Encodable {
      *      reader
      *      -after the Scenario's map is set, the created entities are set
      *      to inhabit their respective coordinates
+     *      -delta segments are then applied in order, and the animal controller
+     *      is rebuilt in tile index order so the result is identical to loading
+     *      the compacted save
      *
      * @param reader : reader from which to load all info (will not be null)
      * @return : scenario created by reading from the given reader
@@ -290,6 +866,27 @@ public class Scenario extends Object implements Encodable {
      *                            of the reader are invalid)
      */
     public static Scenario load(Reader reader) throws IOException, BadSaveException {
+        Scenario newScenario = parse(reader);
+        ScenarioManager.getInstance().addScenario(newScenario);
+        return newScenario;
+    }
+
+    /**
+     * Creates a scenario by reading from the given reader, without adding it
+     * to the ScenarioManager.
+     * <p>
+     * The rules for a valid read are the same as for load(Reader). Parsing does
+     * not touch the ScenarioManager, so several readers may be parsed at once
+     * on different threads (see {@link ScenarioLoader}).
+     *
+     * @param reader : reader from which to load all info (will not be null)
+     * @return : scenario created by reading from the given reader
+     * @throws IOException : if an IOException is encountered when reading from
+     *                       the reader
+     * @throws BadSaveException : if the contents of the reader are invalid as
+     *                            per load(Reader)
+     */
+    static Scenario parse(Reader reader) throws IOException, BadSaveException {
 
         Scenario newScenario;
         BufferedReader newReader = new BufferedReader(reader);
@@ -330,25 +927,151 @@ public class Scenario extends Object implements Encodable {
         //read second separator
         readSeparator(width, newReader);
 
-        //add new Scenario to ScenarioManager
-        ScenarioManager.getInstance().addScenario(newScenario);
-
         //read entities
-        ArrayList<Entity> entities = readEntities(newReader, mapGrid);
+        ArrayList<Entity> entities = readEntities(newReader, mapGrid, width);
 
         //add created entities to their respective tiles
         addEntities(entities, newScenario);
 
-        /*
-        The scenario is added to ScenarioManager a second time
-        given that adding the entities to their respective tiles
-        changed the map grid.
-         */
-        ScenarioManager.getInstance().addScenario(newScenario);
+        //apply any delta segments written since the base snapshot
+        if (readDeltas(newReader, newScenario) > 0) {
+            rebuildController(newScenario);
+        }
+
+        return newScenario;
+    }
+
+    /**
+     * Creates a scenario from a snapshot written by {@link #encodeSnapshot()}, without adding
+     * it to the ScenarioManager.
+     * <p>
+     * Unlike a save, a snapshot restores the order of the animals, the event log (and so the
+     * statistics it keeps) and the state of the random number generator, so the restored
+     * scenario carries on exactly as the original would have.
+     *
+     * @param reader : reader from which to read the snapshot
+     * @return : the restored scenario
+     * @throws IOException : if an IOException is encountered when reading from
+     *                       the reader
+     * @throws BadSaveException : if the snapshot is invalid
+     */
+    static Scenario parseSnapshot(Reader reader) throws IOException, BadSaveException {
+        BufferedReader newReader = new BufferedReader(reader);
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        String line;
+        while ((line = newReader.readLine()) != null && !line.startsWith(ANIMALS_KEY + ":")) {
+            save.add(line);
+        }
+        if (line == null) {
+            throw new BadSaveException("Snapshot has no " + ANIMALS_KEY + " section");
+        }
+        Scenario newScenario = parse(new StringReader(save.toString()));
+
+        //put the animals back in the order they take their turns
+        newScenario.animalController = new AnimalController();
+        String animals = line.substring(ANIMALS_KEY.length() + 1);
+        for (String index : animals.isEmpty() ? new String[0] : animals.split(",")) {
+            try {
+                newScenario.animalController.addAnimal(
+                    (Fauna) newScenario.getTile(Integer.parseInt(index)).getContents());
+            } catch (NumberFormatException | IndexOutOfBoundsException | ClassCastException
+                    | NoSuchEntityException exp) {
+                throw new BadSaveException("No animal at " + index);
+            }
+        }
+
+        //the entities the log refers to, shared between events as they were originally
+        int count = readCount(String.valueOf(newReader.readLine()), ENTITIES_KEY);
+        List<Entity> logged = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logged.add(readLoggedEntity(String.valueOf(newReader.readLine()), newScenario));
+        }
 
+        count = readCount(String.valueOf(newReader.readLine()), LOG_KEY);
+        newScenario.log = new Logger();
+        for (int i = 0; i < count; i++) {
+            readEvent(String.valueOf(newReader.readLine()), logged, newScenario.log);
+        }
+
+        line = String.valueOf(newReader.readLine());
+        if (!line.startsWith(RANDOM_KEY + ":")) {
+            throw new BadSaveException("Snapshot has no " + RANDOM_KEY + " section");
+        }
+        try {
+            newScenario.randomInstance = decodeRandom(
+                Base64.getDecoder().decode(line.substring(RANDOM_KEY.length() + 1)));
+        } catch (IllegalArgumentException | IOException exp) {
+            throw new BadSaveException("Invalid random state", exp);
+        }
         return newScenario;
     }
 
+    /**
+     * Reads one event of the log section of a snapshot, as written by
+     * encodeSnapshot(), and restores it to the given log.
+     *
+     * @param line : event line
+     * @param logged : entities of the snapshot's entity table
+     * @param log : log to restore the event to
+     * @throws BadSaveException : if the event is incorrectly configured
+     */
+    private static void readEvent(String line, List<Entity> logged, Logger log)
+            throws BadSaveException {
+        String[] components = line.split("-");
+        try {
+            if (components[0].equals(MOVE_EVENT) && components.length == 4) {
+                Entity entity = logged.get(Integer.parseInt(components[1]));
+                Coordinate current = entity.getCoordinate();
+                //events take the entity's coordinate at the time as their starting point
+                entity.setCoordinate(Coordinate.decode(components[2]));
+                log.add(new MoveEvent(entity, Coordinate.decode(components[3])));
+                entity.setCoordinate(current);
+                return;
+            }
+            if (components[0].equals(COLLECT_EVENT) && components.length == 5) {
+                User user = (User) logged.get(Integer.parseInt(components[1]));
+                Entity target = logged.get(Integer.parseInt(components[3]));
+                Coordinate userCurrent = user.getCoordinate();
+                Coordinate targetCurrent = target.getCoordinate();
+                user.setCoordinate(Coordinate.decode(components[2]));
+                target.setCoordinate(Coordinate.decode(components[4]));
+                log.add(new CollectEvent(user, target));
+                user.setCoordinate(userCurrent);
+                target.setCoordinate(targetCurrent);
+                return;
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException | ClassCastException exp) {
+            throw new BadSaveException("Invalid event entity");
+        }
+        throw new BadSaveException("Invalid event");
+    }
+
+    /**
+     * Reads one entity of the entity table of a snapshot: either a reference to
+     * an entity on the restored map, or the encoding of an entity that is not.
+     *
+     * @param line : entity line
+     * @param newScenario : scenario being restored
+     * @return : the entity
+     * @throws BadSaveException : if the entity line is incorrectly configured
+     */
+    private static Entity readLoggedEntity(String line, Scenario newScenario)
+            throws BadSaveException {
+        if (line.startsWith(ON_MAP)) {
+            try {
+                return newScenario.getTile(
+                    Integer.parseInt(line.substring(ON_MAP.length()))).getContents();
+            } catch (NumberFormatException | IndexOutOfBoundsException
+                    | NoSuchEntityException exp) {
+                throw new BadSaveException("No entity at " + line);
+            }
+        }
+        ArrayList<Entity> entities = new ArrayList<>();
+        lineConfiguredCorrectly(line, line.split("-"));
+        readEntity(line, newScenario.viewMapGrid(), newScenario.getWidth(), entities);
+        return entities.get(0);
+    }
+
     /**
      * Returns true if an entity has already been assigned to the
      * given coordinate, false otherwise.
@@ -421,15 +1144,23 @@ public class Scenario extends Object implements Encodable {
      * encoding.
      *
      * @param coordinateEncoding : coordinate encoding
+     * @param mapGrid : new scenario's map grid
+     * @param width : width of new scenario
      * @param entities : list of entities already added
      * @return : entity's decoded coordinate
-     * @throws BadSaveException : if an entity already occupies the coordinate
+     * @throws BadSaveException : if the coordinate is not on the map or an
+     *                            entity already occupies it
      */
-    private static Coordinate decodeCoordinate(String coordinateEncoding,
-                                               ArrayList<Entity> entities)
+    private static Coordinate decodeCoordinate(String coordinateEncoding, Tile[] mapGrid,
+                                               int width, ArrayList<Entity> entities)
                                     throws BadSaveException {
 
         Coordinate entityCoordinate = Coordinate.decode(coordinateEncoding);
+        if (entityCoordinate.getX() < 0 || entityCoordinate.getX() >= width
+                || entityCoordinate.getY() < 0
+                || entityCoordinate.getY() >= mapGrid.length / width) {
+            throw new BadSaveException("Entity is not on the map");
+        }
         if (coordinateAlreadyAssigned(entities, entityCoordinate)) {
             throw new BadSaveException("Coordinate already assigned");
         }
@@ -447,7 +1178,7 @@ public class Scenario extends Object implements Encodable {
         Size entitySize;
         try {
             entitySize = Size.valueOf(sizeEncoding);
-        } catch (IllegalStateException exp) {
+        } catch (IllegalArgumentException exp) {
             throw new BadSaveException("Size component invalid");
         }
         return entitySize;
@@ -460,12 +1191,13 @@ public class Scenario extends Object implements Encodable {
      * @param line : line of file
      * @param components : elements of the User encoding
      * @param mapGrid : new scenario's map grid
+     * @param width : width of new scenario
      * @param entities : list of entities
      * @throws BadSaveException : if the Fauna line is incorrectly configured
      *                            as per Fauna.encode()
      */
-    private static void checkFauna(String line, String[] components,
-                                   Tile[] mapGrid, ArrayList<Entity> entities)
+    private static void checkFauna(String line, String[] components, Tile[] mapGrid,
+                                   int width, ArrayList<Entity> entities)
             throws BadSaveException {
 
         //encodings
@@ -477,11 +1209,11 @@ public class Scenario extends Object implements Encodable {
         Coordinate entityCoordinate;
         TileType entityHabitat;
 
-        entityCoordinate = decodeCoordinate(coordinateEncoding, entities);
+        entityCoordinate = decodeCoordinate(coordinateEncoding, mapGrid, width, entities);
         entitySize = decodeSize(sizeEncoding);
 
         //habitat of tile entity will be inhabiting
-        TileType tileHabitat = mapGrid[entityCoordinate.getIndex()].getType();
+        TileType tileHabitat = mapGrid[gridIndex(entityCoordinate, width)].getType();
 
         //check number of hyphens
         if (characterCount(line, '-') != 3) {
@@ -519,12 +1251,13 @@ public class Scenario extends Object implements Encodable {
      * @param line : line of file
      * @param components : elements of the User encoding
      * @param mapGrid : new scenario's map grid
+     * @param width : width of new scenario
      * @param entities : list of entities
      * @throws BadSaveException : if the Flora line is incorrectly configured
      *                            as per Flora.encode()
      */
-    private static void checkFlora(String line, String[] components,
-                                   Tile[] mapGrid, ArrayList<Entity> entities)
+    private static void checkFlora(String line, String[] components, Tile[] mapGrid,
+                                   int width, ArrayList<Entity> entities)
             throws BadSaveException {
 
         //encodings
@@ -534,11 +1267,11 @@ public class Scenario extends Object implements Encodable {
         Size entitySize;
         Coordinate entityCoordinate;
 
-        entityCoordinate = decodeCoordinate(coordinateEncoding, entities);
+        entityCoordinate = decodeCoordinate(coordinateEncoding, mapGrid, width, entities);
         entitySize = decodeSize(sizeEncoding);
 
         //habitat of tile entity will be inhabiting
-        TileType tileHabitat = mapGrid[entityCoordinate.getIndex()].getType();
+        TileType tileHabitat = mapGrid[gridIndex(entityCoordinate, width)].getType();
 
         //check number of hyphens
         if (characterCount(line, '-') != 2) {
@@ -561,17 +1294,19 @@ public class Scenario extends Object implements Encodable {
      * @param line : line of file
      * @param components : elements of the User encoding
      * @param mapGrid : new scenario's map grid
+     * @param width : width of new scenario
      * @param entities : list of entities
      * @throws BadSaveException : if the User line is incorrectly configured
      *                            as per User.encode()
      */
-    private static void checkUser(String line, String[] components,
-                                  Tile[] mapGrid, ArrayList<Entity> entities)
+    private static void checkUser(String line, String[] components, Tile[] mapGrid,
+                                  int width, ArrayList<Entity> entities)
             throws BadSaveException {
 
         String userCoordinateEncoding = components[1];
         String name = components[2];
-        Coordinate userCoordinate = decodeCoordinate(userCoordinateEncoding, entities);
+        Coordinate userCoordinate = decodeCoordinate(userCoordinateEncoding, mapGrid, width,
+            entities);
 
         //check number of hyphens
         if (characterCount(line, '-') != 2) {
@@ -579,7 +1314,7 @@ public class Scenario extends Object implements Encodable {
         }
 
         //check if User's tile habitat is not suitable
-        TileType tileHabitat = mapGrid[userCoordinate.getIndex()].getType();
+        TileType tileHabitat = mapGrid[gridIndex(userCoordinate, width)].getType();
         if (tileHabitat.equals(TileType.OCEAN)
                 || tileHabitat.equals(TileType.MOUNTAIN)) {
 
@@ -597,18 +1332,25 @@ public class Scenario extends Object implements Encodable {
      *
      * @param newReader : file reader
      * @param mapGrid : new map grid
+     * @param width : width of new scenario
      * @return : a List of the decoded entities to add to the map grid
      * @throws BadSaveException : if any of the entity encodings are incorrectly
      *                            configured
      * @throws IOException : if the file reader is empty
      */
     private static ArrayList<Entity> readEntities(BufferedReader newReader,
-                                              Tile[] mapGrid)
+                                              Tile[] mapGrid, int width)
             throws BadSaveException, IOException {
 
         ArrayList<Entity> entities = new ArrayList<>();
         String line;
+        newReader.mark(LINE_MARK_LIMIT);
         while ((line = newReader.readLine()) != null) {
+            //a delta header ends the entities, so leave it for readDeltas
+            if (line.startsWith(DELTA_KEY + ":")) {
+                newReader.reset();
+                break;
+            }
             String[] components = line.split("-");
 
             //general check of Flora/Fauna/User line configuration
@@ -620,19 +1362,147 @@ public class Scenario extends Object implements Encodable {
              * Additionally, if all conditions are satisfied, the entity
              * is added to the entities list
              */
-            if (line.startsWith("Flora")) {
-                checkFlora(line, components, mapGrid, entities);
-            }
+            readEntity(line, mapGrid, width, entities);
+            newReader.mark(LINE_MARK_LIMIT);
+        }
+        return entities;
+    }
 
-            if (line.startsWith("Fauna")) {
-                checkFauna(line, components, mapGrid, entities);
+    /**
+     * Reads and applies every delta segment remaining in the reader to the
+     * given scenario's map grid.
+     *
+     * @param newReader : file reader, positioned after the base entities
+     * @param newScenario : new scenario
+     * @return : number of delta segments applied
+     * @throws BadSaveException : if any delta segment is incorrectly configured
+     * @throws IOException : if there is a problem with the reader
+     */
+    private static int readDeltas(BufferedReader newReader, Scenario newScenario)
+            throws BadSaveException, IOException {
+
+        int segments = 0;
+        String line = newReader.readLine();
+        while (line != null) {
+            //check the header numbers the segments consecutively
+            if (readCount(line, DELTA_KEY) != segments + 1) {
+                throw new BadSaveException("Delta segment out of order");
             }
+            readSeparator(newScenario.getWidth(), newReader);
+
+            //apply the cells of this segment until the next header
+            Tile[] mapGrid = newScenario.viewMapGrid();
+            int width = newScenario.getWidth();
+            ArrayList<Entity> entities = new ArrayList<>();
+            while ((line = newReader.readLine()) != null
+                    && !line.startsWith(DELTA_KEY + ":")) {
+                if (line.startsWith(EMPTY_CELL)) {
+                    newScenario.setTileContents(
+                        gridIndex(decodeEmptyCell(line, newScenario), width), null);
+                    continue;
+                }
+                lineConfiguredCorrectly(line, line.split("-"));
+                readEntity(line, mapGrid, width, entities);
+                Entity entity = entities.get(entities.size() - 1);
+                newScenario.setTileContents(gridIndex(entity.getCoordinate(), width), entity);
+            }
+            segments++;
+        }
+        return segments;
+    }
 
-            if (line.startsWith("User")) {
-                checkUser(line, components, mapGrid, entities);
+    /**
+     * Reads the number of the given "{key}:{number}" header line, such as a
+     * delta segment's number.
+     *
+     * @param line : header line
+     * @param key : key the line must start with
+     * @return : the number
+     * @throws BadSaveException : if the header is incorrectly configured or
+     *                            the number is negative
+     */
+    private static int readCount(String line, String key) throws BadSaveException {
+        if (!line.startsWith(key + ":")) {
+            throw new BadSaveException("Wrong " + key + " key");
+        }
+
+        int count;
+        try {
+            count = Integer.parseInt(line.substring(key.length() + 1));
+        } catch (NumberFormatException exp) {
+            throw new BadSaveException("Bad " + key + " number format");
+        }
+        if (count < 0) {
+            throw new BadSaveException("Negative " + key + " number");
+        }
+        return count;
+    }
+
+    /**
+     * Reads a single entity line (Flora, Fauna or User) and adds the decoded
+     * entity to the given entities list.
+     *
+     * @param line : line of file
+     * @param mapGrid : new scenario's map grid
+     * @param width : width of new scenario
+     * @param entities : list of entities
+     * @throws BadSaveException : if the entity line is incorrectly configured
+     */
+    private static void readEntity(String line, Tile[] mapGrid, int width,
+                                   ArrayList<Entity> entities)
+            throws BadSaveException {
+        String[] components = line.split("-");
+        if (line.startsWith("Flora")) {
+            checkFlora(line, components, mapGrid, width, entities);
+        } else if (line.startsWith("Fauna")) {
+            checkFauna(line, components, mapGrid, width, entities);
+        } else {
+            checkUser(line, components, mapGrid, width, entities);
+        }
+    }
+
+    /**
+     * Returns the coordinate of an "Empty-x,y" delta line.
+     *
+     * @param line : line of file
+     * @param newScenario : new scenario
+     * @return : coordinate of the emptied cell
+     * @throws BadSaveException : if the line is incorrectly configured or the
+     *                            coordinate is not on the map
+     */
+    private static Coordinate decodeEmptyCell(String line, Scenario newScenario)
+            throws BadSaveException {
+        String[] components = line.split("-");
+        if (components.length != 2 || characterCount(line, '-') != 1
+                || !components[0].equals(EMPTY_CELL)) {
+            throw new BadSaveException("Empty cell line is configured incorrectly");
+        }
+        Coordinate coordinate = Coordinate.decode(components[1]);
+        if (coordinate.getX() < 0 || coordinate.getX() >= newScenario.getWidth()
+                || coordinate.getY() < 0 || coordinate.getY() >= newScenario.getHeight()) {
+            throw new BadSaveException("Empty cell is not on the map");
+        }
+        return coordinate;
+    }
+
+    /**
+     * Replaces the given scenario's animal controller with one that manages
+     * every animal on the map, in tile index order (the order a full load
+     * would add them in).
+     *
+     * @param newScenario : new scenario
+     */
+    private static void rebuildController(Scenario newScenario) {
+        newScenario.animalController = new AnimalController();
+        for (Tile tile : newScenario.viewMapGrid()) {
+            try {
+                if (tile.hasContents() && tile.getContents() instanceof Fauna) {
+                    newScenario.animalController.addAnimal((Fauna) tile.getContents());
+                }
+            } catch (NoSuchEntityException exp) {
+                //tile is empty, so there is no animal to add
             }
         }
-        return entities;
     }
 
     /**
@@ -644,9 +1514,8 @@ public class Scenario extends Object implements Encodable {
      */
     private static void addEntities(ArrayList<Entity> entities, Scenario newScenario) {
         for (Entity entity : entities) {
-            int coordinateIndex = entity.getCoordinate().getIndex();
-            Tile entityTile = newScenario.getMapGrid()[coordinateIndex];
-            entityTile.setContents(entity);
+            int coordinateIndex = gridIndex(entity.getCoordinate(), newScenario.getWidth());
+            newScenario.setTileContents(coordinateIndex, entity);
 
             //adds entity to AnimalController if its of type Fauna
             if (entity instanceof Fauna) {
@@ -812,6 +1681,20 @@ public class Scenario extends Object implements Encodable {
         }
     }
 
+    /**
+     * Returns the index in a map grid of the given width of the given coordinate.
+     * NB: unlike Coordinate.getIndex() this does not read the width of the
+     * ScenarioManager's current scenario, so it is safe to use while parsing a
+     * scenario that has not been registered
+     *
+     * @param coordinate : coordinate to convert
+     * @param width : width of the map grid
+     * @return : grid index of the coordinate
+     */
+    private static int gridIndex(Coordinate coordinate, int width) {
+        return coordinate.getX() + coordinate.getY() * width;
+    }
+
     /**
      * Returns the number of times the given character
      * occurs in the given string encoding.
@@ -841,7 +1724,7 @@ public class Scenario extends Object implements Encodable {
         return (this.getName().hashCode()
                 + Integer.hashCode(this.getWidth())
                 + Integer.hashCode(this.getHeight())
-                + Arrays.hashCode(this.getMapGrid()));
+                + Arrays.hashCode(this.viewMapGrid()));
     }
 
     /**
@@ -866,7 +1749,7 @@ public class Scenario extends Object implements Encodable {
         return (this.getName().equals(otherScenario.getName())
                 && this.getWidth() == otherScenario.getWidth()
                 && this.getHeight() == otherScenario.getHeight()
-                && Arrays.equals(this.getMapGrid(), otherScenario.getMapGrid()));
+                && Arrays.equals(this.viewMapGrid(), otherScenario.viewMapGrid()));
     }
 
     /**
@@ -904,7 +1787,7 @@ public class Scenario extends Object implements Encodable {
         result.add(name);
         result.add(String.format("Width: %d, Height: %d", width, height));
         result.add(String.format("Entities: %d",
-            Arrays.stream(mapGrid).filter(Objects::nonNull).filter(Tile::hasContents).count()));
+            Arrays.stream(viewMapGrid()).filter(Objects::nonNull).filter(Tile::hasContents).count()));
         return result.toString();
     }
 
@@ -923,7 +1806,7 @@ public class Scenario extends Object implements Encodable {
         encoding to the encoded map string.
          */
         int i = 0;
-        for (Tile tile : this.getMapGrid()) {
+        for (Tile tile : this.viewMapGrid()) {
             if (tile != null) {
                 String stringEncoding = tile.getType().encode();
 
@@ -954,7 +1837,7 @@ public class Scenario extends Object implements Encodable {
         Loops through the map grid and, if a tile has an entity,
         adds the entity's encoding to the combined entities string.
          */
-        for (Tile tile : this.getMapGrid()) {
+        for (Tile tile : this.viewMapGrid()) {
             if (tile != null) {
                 try {
                     entityString.append(tile.getContents().encode());
@@ -994,7 +1877,7 @@ public class Scenario extends Object implements Encodable {
      *      -{Width} is the width of the scenario
      *      -{Height} is the height of the scenario
      *      -{Seed} is the seed of the scenario
-     *      -{Separator} = "=====" (a string of 5 'equals' signs)
+     *      -{Separator} is a string of Width-many 'equals' signs (eg: Width 5 -> "=====")
      *      -{map} is the tile map where:
      *          -each tile is represented by its TileType encoding AND;
      *          -a system-dependent line separator is added after Width-many
@@ -1007,7 +1890,7 @@ public class Scenario extends Object implements Encodable {
         StringJoiner returnString = new StringJoiner(System.lineSeparator());
         String widthString = Integer.toString(this.getWidth());
         String heightString = Integer.toString(this.getHeight());
-        String separator = "=====";
+        String separator = "=".repeat(this.getWidth());
 
         returnString.add(this.getName());
         returnString.add("Width:" + widthString);
@@ -1022,4 +1905,179 @@ public class Scenario extends Object implements Encodable {
         }
         return returnString.toString();
     }
+
+    /**
+     * Returns the machine-readable delta segment holding every cell changed by
+     * the events logged since the given checkpoint.
+     * <p>
+     * Appending the segment (on a new line) to a save of this scenario taken at
+     * the checkpoint produces a save that loads to the current state, so saving
+     * costs I/O proportional to the activity since the checkpoint rather than the
+     * size of the map.
+     *
+     * The format of the string to return is
+     *
+     *      Delta:{segment}
+     *      {Separator}
+     *      {cell}
+     *      {cell...}
+     *
+     * Where:
+     *      -{segment} is the given segment number
+     *      -{Separator} is the same separator used by encode()
+     *      -{cell} is, for each cell that an event since the checkpoint started
+     *      or finished on, either the Entity encoding of its contents or
+     *      "Empty-{Coordinate}" if it has none.
+     *          NB: cells are added in the order of their index in the Tile map
+     *
+     * @param segment : number of this segment in the save's chain of deltas (starting at 1)
+     * @param checkpoint : number of events in the log when the save was last written
+     * @return : encoded delta segment, or null if no cell has changed since the checkpoint
+     */
+    public String encodeDelta(int segment, int checkpoint) {
+        //collect the cells touched by each event since the checkpoint
+        TreeSet<Integer> changedCells = new TreeSet<>();
+        List<Event> events = this.getLog().getEvents();
+        for (Event event : events.subList(checkpoint, events.size())) {
+            for (Coordinate coordinate : List.of(event.getInitialCoordinate(),
+                    event.getCoordinate())) {
+                if (coordinate.getX() >= 0 && coordinate.getX() < width
+                        && coordinate.getY() >= 0 && coordinate.getY() < height) {
+                    changedCells.add(coordinate.getX() + coordinate.getY() * width);
+                }
+            }
+        }
+        if (changedCells.isEmpty()) {
+            return null;
+        }
+
+        StringJoiner returnString = new StringJoiner(System.lineSeparator());
+        returnString.add(DELTA_KEY + ":" + segment);
+        returnString.add("=".repeat(this.getWidth()));
+        for (int index : changedCells) {
+            Tile tile = getTile(index);
+            if (tile.hasContents()) {
+                try {
+                    returnString.add(tile.getContents().encode());
+                } catch (NoSuchEntityException exp) {
+                    //checked by hasContents
+                }
+            } else {
+                returnString.add(EMPTY_CELL + "-" + (index % width) + "," + (index / width));
+            }
+        }
+        return returnString.toString();
+    }
+
+    /**
+     * Returns a snapshot of the full state of this scenario, which
+     * {@link #parseSnapshot(Reader)} restores exactly.
+     * <p>
+     * A save (see encode()) only holds the map and entities. A snapshot adds:
+     * the order the animals take their turns in, the event log (from which the
+     * statistics follow) and the state of the random number generator. The
+     * format of the string to return is
+     *
+     *      {encode()}
+     *      Animals:{index},{index...}
+     *      Entities:{count}
+     *      {entity}
+     *      {entity...}
+     *      Log:{count}
+     *      {event}
+     *      {event...}
+     *      Random:{state}
+     *
+     * Where:
+     *      -{index} is the tile index of each animal, in the controller's order
+     *      -{entity} is each entity the log refers to (numbered from 0 in
+     *      order), either "@{index}" if it is on the map at that tile, or its
+     *      encoding if it is not (eg: it has been collected)
+     *      -{event} is "Move-{entity}-{from}-{to}" or
+     *      "Collect-{user}-{from}-{entity}-{at}", where {entity} and {user}
+     *      are numbers in the entity table and {from}, {to} and {at} are
+     *      coordinate encodings of where the entities were
+     *      -{state} is the Base64 encoded serialized Random
+     *
+     * @return : snapshot of this scenario
+     */
+    String encodeSnapshot() {
+        StringJoiner returnString = new StringJoiner(System.lineSeparator());
+        returnString.add(this.encode());
+
+        StringJoiner animals = new StringJoiner(",");
+        for (Fauna animal : this.getController().getAnimals()) {
+            animals.add(Integer.toString(
+                gridIndex(animal.getCoordinate(), this.getWidth())));
+        }
+        returnString.add(ANIMALS_KEY + ":" + animals);
+
+        //number the entities the log refers to, keeping shared entities shared
+        Map<Entity, Integer> numbers = new IdentityHashMap<>();
+        StringJoiner table = new StringJoiner(System.lineSeparator());
+        StringJoiner events = new StringJoiner(System.lineSeparator());
+        List<Event> log = this.getLog().getEvents();
+        for (Event event : log) {
+            int entity = numberEntity(event.getEntity(), numbers, table);
+            if (event instanceof CollectEvent) {
+                Entity target = ((CollectEvent) event).getTarget();
+                events.add(COLLECT_EVENT + "-" + entity + "-"
+                    + event.getInitialCoordinate().encode() + "-"
+                    + numberEntity(target, numbers, table) + "-"
+                    + event.getCoordinate().encode());
+            } else {
+                events.add(MOVE_EVENT + "-" + entity + "-"
+                    + event.getInitialCoordinate().encode() + "-"
+                    + event.getCoordinate().encode());
+            }
+        }
+        returnString.add(ENTITIES_KEY + ":" + numbers.size());
+        if (!numbers.isEmpty()) {
+            returnString.add(table.toString());
+        }
+        returnString.add(LOG_KEY + ":" + log.size());
+        if (!log.isEmpty()) {
+            returnString.add(events.toString());
+        }
+
+        returnString.add(RANDOM_KEY + ":" + this.encodeRandomState());
+        return returnString.toString();
+    }
+
+    /**
+     * Returns the number of the given entity in a snapshot's entity table,
+     * adding it to the table if it is not there yet.
+     *
+     * @param entity : entity referred to by the log
+     * @param numbers : number of each entity already in the table
+     * @param table : lines of the table
+     * @return : number of the entity
+     */
+    private int numberEntity(Entity entity, Map<Entity, Integer> numbers, StringJoiner table) {
+        Integer number = numbers.get(entity);
+        if (number != null) {
+            return number;
+        }
+        int index = gridIndex(entity.getCoordinate(), this.getWidth());
+        Tile tile = index >= 0 && index < this.getSize() ? this.getTile(index) : null;
+        boolean onMap = false;
+        try {
+            onMap = tile != null && tile.hasContents() && tile.getContents() == entity;
+        } catch (NoSuchEntityException exp) {
+            //checked by hasContents
+        }
+        table.add(onMap ? ON_MAP + index : entity.encode());
+        numbers.put(entity, numbers.size());
+        return numbers.size() - 1;
+    }
+
+    /**
+     * Returns the state of this scenario's random number generator, as written
+     * in a snapshot.
+     *
+     * @return : Base64 encoded serialized Random
+     */
+    String encodeRandomState() {
+        return Base64.getEncoder().encodeToString(encodeRandom(this.randomInstance));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package researchsim.scenario;
+
+import researchsim.map.DistanceOracle;
+import researchsim.util.BadSaveException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads several scenario files at once.
+ * <p>
+ * Every file is parsed concurrently ({@link Scenario#parse(Reader)}) on a bounded pool of
+ * worker threads, and the parsed scenarios are then registered with the {@link ScenarioManager}
+ * in the order the files were given. Loading many files is therefore limited by the slowest
+ * file rather than the sum of all of them, while the manager ends up in the same state as if
+ * each file had been passed to {@link Scenario#load(Reader)} in turn.
+ * <p>
+ * The distances over each scenario's terrain are read from the file next to its save file (see
+ * {@link DistanceOracle#forSaveFile(Scenario, File)}) by the same worker thread that parsed it,
+ * or found and saved there if they have not been saved before.
+ */
+public class ScenarioLoader {
+
+    /**
+     * Upper bound on the number of worker threads used to parse files.
+     */
+    private final int maxThreads;
+
+    /**
+     * Creates a new loader that uses at most one worker thread per available processor.
+     */
+    public ScenarioLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new loader that uses at most the given number of worker threads.
+     *
+     * @param maxThreads : upper bound on the number of worker threads
+     * @throws IllegalArgumentException : if maxThreads &lt; 1
+     */
+    public ScenarioLoader(int maxThreads) throws IllegalArgumentException {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("The given thread count does not conform to the "
+                + "requirement: maxThreads >= 1.");
+        }
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Parses every given file concurrently and registers the resulting scenarios with the
+     * ScenarioManager in the order given.
+     * <p>
+     * Every file is parsed even if another fails. If any file fails, the scenarios before the
+     * first failing file are still registered (as they would be by loading each file in turn),
+     * and the first failure is thrown with the failures of any later files attached as
+     * suppressed exceptions. Each failure's message names the file it came from.
+     *
+     * @param filenames : paths of the scenario files to load
+     * @return : the loaded scenarios, in the order given
+     * @throws IOException : if reading any file generates an IOException
+     * @throws BadSaveException : if any file is invalid according to
+     *                            {@link Scenario#load(Reader)}
+     */
+    public List<Scenario> loadAll(List<String> filenames) throws IOException, BadSaveException {
+        List<Scenario> scenarios = new ArrayList<>();
+        if (filenames.isEmpty()) {
+            return scenarios;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+            Math.min(filenames.size(), maxThreads), runnable -> {
+                Thread thread = new Thread(runnable, "scenario-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        List<Future<Scenario>> results = new ArrayList<>();
+        try {
+            for (String file : filenames) {
+                results.add(pool.submit(() -> {
+                    Scenario scenario;
+                    try (Reader reader = new FileReader(file)) {
+                        scenario = Scenario.parse(reader);
+                    }
+                    scenario.setDistanceOracle(DistanceOracle.forSaveFile(scenario,
+                        new File(file)));
+                    return scenario;
+                }));
+            }
+
+            Exception failure = null;
+            for (int i = 0; i < filenames.size(); i++) {
+                try {
+                    Scenario scenario = results.get(i).get();
+                    if (failure == null) {
+                        scenarios.add(scenario);
+                    }
+                } catch (ExecutionException exp) {
+                    Exception fileFailure = describeFailure(filenames.get(i), exp.getCause());
+                    if (failure == null) {
+                        failure = fileFailure;
+                    } else {
+                        failure.addSuppressed(fileFailure);
+                    }
+                }
+            }
+
+            //register in the order given, stopping where a sequential load would have
+            for (int i = 0; i < scenarios.size(); i++) {
+                ScenarioManager.getInstance().addScenario(scenarios.get(i), filenames.get(i));
+            }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure != null) {
+                throw (BadSaveException) failure;
+            }
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading scenarios", exp);
+        } finally {
+            pool.shutdownNow();
+        }
+        return scenarios;
+    }
+
+    /**
+     * Registers every given file with the ScenarioManager without parsing it, in the order given.
+     * <p>
+     * Only the first line (the scenario name) of each file is read; the rest of the file is
+     * parsed when the scenario is first selected ({@link ScenarioManager#setScenario(String)}).
+     * The current scenario is not changed.
+     *
+     * @param filenames : paths of the scenario files to register
+     * @return : the names of the registered scenarios, in the order given
+     * @throws IOException : if reading the first line of any file generates an IOException
+     * @throws BadSaveException : if any file is empty
+     */
+    public List<String> registerAll(List<String> filenames) throws IOException, BadSaveException {
+        List<String> names = new ArrayList<>();
+        for (String file : filenames) {
+            String name;
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                name = reader.readLine();
+            }
+            if (name == null) {
+                throw new BadSaveException(file + ": No lines in file");
+            }
+            ScenarioManager.getInstance().registerScenario(name, file);
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Returns an exception describing the failure to load the given file, of the same checked
+     * type as the given cause.
+     * <p>
+     * Unchecked failures are not failures of the file, so they are rethrown unchanged, as
+     * {@link Scenario#load(Reader)} would throw them.
+     *
+     * @param file : path of the file that failed to load
+     * @param cause : throwable thrown while loading the file
+     * @return : exception naming the file that failed
+     */
+    private static Exception describeFailure(String file, Throwable cause) {
+        String message = file + ": " + cause.getMessage();
+        if (cause instanceof IOException) {
+            return new IOException(message, cause);
+        } else if (cause instanceof BadSaveException) {
+            return new BadSaveException(message, cause);
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IllegalStateException(message, cause);
+    }
+}
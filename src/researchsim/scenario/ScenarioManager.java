@@ -1,9 +1,19 @@
 package researchsim.scenario;
 
+import researchsim.map.DistanceOracle;
 import researchsim.util.BadSaveException;
 
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -15,6 +25,22 @@ import java.util.Map;
  * which will allow other classes in the project to access the scenario's information during run
  * time.
  * <p>
+ * Scenarios may also be registered lazily by name and file path
+ * ({@link #registerScenario(String, String)}), in which case they are only parsed when first
+ * selected with {@link #setScenario(String)}. Resident scenarios are kept within a memory budget
+ * ({@link #setMemoryBudget(long)}) by evicting the least recently used ones; an evicted scenario
+ * that has changed since it was parsed (or that never had a file) is first spilled to a snapshot
+ * file ({@link Scenario#encodeSnapshot()}), which keeps its event log and random number
+ * generator, so that it carries on exactly where it left off the next time it is selected.
+ * <p>
+ * The singleton is the default simulation context, used by the GUI. Independent contexts can be
+ * created with {@link #createContext()} and bound to a thread with
+ * {@link #runInContext(Runnable)}; while bound, {@link #getInstance()} (and so every entity and
+ * coordinate lookup) on that thread resolves to the bound context, so each worker thread can
+ * drive its own scenario. Every method is synchronized on the manager, so a single context may
+ * also be shared between threads, except {@link #getScenario()}, which only reads the current
+ * scenario and takes no lock, so that threads resolving coordinates do not wait on each other.
+ * <p>
  * For more information on the Singleton class see: <p>
  * <a href="https://www.geeksforgeeks.org/singleton-class-java/">GeeksForGeeks</a>
  * OR
@@ -25,20 +51,70 @@ import java.util.Map;
 public class ScenarioManager {
 
     /**
-     * The singleton instance.
+     * Rough number of bytes used by a scenario regardless of its size, used to estimate memory
+     * use against the budget.
+     */
+    private static final long SCENARIO_BYTES = 1024;
+
+    /**
+     * Rough number of bytes used by each tile (and its contents) of a scenario.
+     */
+    private static final long TILE_BYTES = 64;
+
+    /**
+     * Rough number of bytes used by each event in a scenario's log.
+     */
+    private static final long EVENT_BYTES = 96;
+
+    /**
+     * The singleton instance, used as the default context.
+     */
+    private static final ScenarioManager INSTANCE = new ScenarioManager();
+
+    /**
+     * The context bound to each thread by {@link #runInContext(Runnable)}, if any.
+     */
+    private static final ThreadLocal<ScenarioManager> CONTEXT = new ThreadLocal<>();
+
+    /**
+     * Path of the file each registered scenario is parsed from, in registration order (null for
+     * a scenario that has no file and so is always kept resident until spilled).
+     */
+    private final Map<String, String> sources;
+
+    /**
+     * Path of the snapshot file each evicted scenario with changes was spilled to. A scenario
+     * with a snapshot is restored from it rather than from its source file.
+     */
+    private final Map<String, String> snapshots;
+
+    /**
+     * Scenarios that are currently parsed and in memory, least recently used first.
      */
-    private static ScenarioManager instance = null;
+    private final LinkedHashMap<String, Scenario> scenarios;
 
     /**
-     * All scenarios that have currently been loaded.
+     * State each resident scenario had when it was parsed from its file (as per
+     * {@link #stateOf(Scenario)}), used to tell if it has changed since.
      */
-    private final Map<String, Scenario> scenarios;
+    private final Map<String, String> cleanStates;
+
+    /**
+     * Estimated number of bytes the resident scenarios may use before the least recently used
+     * are evicted.
+     */
+    private long memoryBudget;
 
     /**
      * The currently loaded scenario.
      */
     private String current;
 
+    /**
+     * The current scenario itself, or null if it is no longer resident, read without locking.
+     */
+    private volatile Scenario currentScenario;
+
     /**
      * Creates a new ScenarioManager with an empty map of scenarios and current selected set to
      * null.
@@ -46,54 +122,139 @@ public class ScenarioManager {
      * @ass1
      */
     private ScenarioManager() {
-        this.scenarios = new LinkedHashMap<>();
+        this.sources = new LinkedHashMap<>();
+        this.snapshots = new HashMap<>();
+        this.scenarios = new LinkedHashMap<>(16, 0.75f, true);
+        this.cleanStates = new HashMap<>();
+        this.memoryBudget = Long.MAX_VALUE;
         this.current = null;
-        instance = this;
+        this.currentScenario = null;
     }
 
     /**
      * Returns the singleton instance of the scenario manager.
+     * <p>
+     * If a context has been bound to the calling thread with {@link #runInContext(Runnable)},
+     * that context is returned instead.
      *
      * @return singleton instance
      * @ass1
      */
     public static ScenarioManager getInstance() {
-        if (instance == null) {
-            instance = new ScenarioManager();
+        ScenarioManager context = CONTEXT.get();
+        if (context != null) {
+            return context;
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Creates a new, empty simulation context that is independent of the singleton.
+     *
+     * @return new context with no scenarios
+     */
+    public static ScenarioManager createContext() {
+        return new ScenarioManager();
+    }
+
+    /**
+     * Runs the given task on the calling thread with this manager bound as its context, so that
+     * {@link #getInstance()} returns this manager until the task finishes.
+     * <p>
+     * The context previously bound to the thread (if any) is restored afterwards, even if the
+     * task throws.
+     *
+     * @param task task to run in this context
+     */
+    public void runInContext(Runnable task) {
+        ScenarioManager previous = CONTEXT.get();
+        CONTEXT.set(this);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CONTEXT.remove();
+            } else {
+                CONTEXT.set(previous);
+            }
         }
-        return instance;
     }
 
     /**
      * Gets the current scenario from the manager.
+     * <p>
+     * If the current scenario has been registered again since it was selected, it is parsed
+     * from its new file first.
      *
      * @return current scenario or null if none has been set.
      * @throws NullPointerException if no scenario exists yet - helpful addition
+     * @throws IllegalStateException if the current scenario was registered again and its new
+     *                               file can not be read or is invalid
      * @ass1
      */
     public Scenario getScenario() {
-        Scenario s = scenarios.get(current);
+        Scenario s = currentScenario;
         if (s == null) {
+            s = reloadCurrent();
+        }
+        return s;
+    }
+
+    /**
+     * Returns the current scenario, parsing it again if it has been registered again since it
+     * was selected.
+     *
+     * @return : the current scenario
+     * @throws NullPointerException : if no scenario is current
+     * @throws IllegalStateException : if the current scenario can not be parsed again
+     */
+    private synchronized Scenario reloadCurrent() {
+        if (currentScenario == null && current != null && sources.containsKey(current)) {
+            try {
+                setScenario(current);
+            } catch (BadSaveException exp) {
+                throw new IllegalStateException("Current scenario " + current
+                    + " could not be loaded again: " + exp.getMessage(), exp);
+            }
+        }
+        if (currentScenario == null) {
             throw new NullPointerException("Tried to access a scenario from the manager when none"
                 + " have been added");
         }
-        return s;
+        return currentScenario;
     }
 
     /**
      * Sets the current scenario from the manager.
+     * <p>
+     * If the scenario is registered but not resident, it is parsed from its file (or the
+     * snapshot it was spilled to) first, which may evict other scenarios to stay within the
+     * memory budget.
      *
      * @param scenarioName the name of the scenario to set
-     * @throws BadSaveException if the scenario has not been added to the manager previously.
+     * @throws BadSaveException if the scenario has not been added to the manager previously, or
+     *                          its file can not be read or is invalid according to
+     *                          {@link Scenario#load(Reader)}.
      * @ass1_partial
      */
-    public void setScenario(String scenarioName) throws BadSaveException {
-        if (this.scenarios.containsKey(scenarioName)) {
-            current = scenarioName;
-        } else {
+    public synchronized void setScenario(String scenarioName) throws BadSaveException {
+        if (!this.sources.containsKey(scenarioName)) {
             throw new BadSaveException();
         }
-
+        if (!this.scenarios.containsKey(scenarioName)) {
+            if (this.snapshots.containsKey(scenarioName)) {
+                //still changed since it was parsed from its file, so not clean
+                this.scenarios.put(scenarioName, restoreSnapshot(scenarioName));
+            } else {
+                Scenario scenario = parseSource(scenarioName);
+                this.scenarios.put(scenarioName, scenario);
+                this.cleanStates.put(scenarioName, stateOf(scenario));
+            }
+        }
+        current = scenarioName;
+        //selecting a scenario counts as using it
+        currentScenario = this.scenarios.get(scenarioName);
+        enforceBudget();
     }
 
     /**
@@ -103,12 +264,102 @@ public class ScenarioManager {
      * scenarios were loaded (insertion order).
      * <p>
      * Adding or removing elements from the returned map should not affect the original map.
+     * <p>
+     * Only scenarios that are currently resident are included; see {@link #getScenarioNames()}
+     * for every registered scenario.
      *
      * @return all the scenarios that have been loaded
      * @ass1
      */
-    public Map<String, Scenario> getLoadedScenarios() {
-        return new LinkedHashMap<>(scenarios);
+    public synchronized Map<String, Scenario> getLoadedScenarios() {
+        //get() would count as a use and reorder the scenarios, so copy the entries instead
+        Map<String, Scenario> resident = new HashMap<>();
+        for (Map.Entry<String, Scenario> entry : scenarios.entrySet()) {
+            resident.put(entry.getKey(), entry.getValue());
+        }
+        Map<String, Scenario> loaded = new LinkedHashMap<>();
+        for (String name : sources.keySet()) {
+            Scenario scenario = resident.get(name);
+            if (scenario != null) {
+                loaded.put(name, scenario);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the names of every registered scenario, resident or not, in registration order.
+     * <p>
+     * Adding or removing elements from the returned list should not affect the manager.
+     *
+     * @return names of all registered scenarios
+     */
+    public synchronized List<String> getScenarioNames() {
+        return new ArrayList<>(sources.keySet());
+    }
+
+    /**
+     * Registers a scenario with the manager without parsing it.
+     * <p>
+     * The scenario is parsed from the given file the first time it is selected with
+     * {@link #setScenario(String)}. If a scenario with the given name has previously been added
+     * it is replaced by the new registration. Unlike {@link #addScenario(Scenario)}, the current
+     * scenario is not changed; if it is the one replaced, it is parsed from the new file the next
+     * time it is used ({@link #getScenario()}).
+     *
+     * @param scenarioName the name of the scenario, as given on the first line of its file
+     * @param path         path of the file to parse the scenario from
+     */
+    public synchronized void registerScenario(String scenarioName, String path) {
+        this.sources.put(scenarioName, path);
+        this.scenarios.remove(scenarioName);
+        if (scenarioName.equals(current)) {
+            currentScenario = null;
+        }
+        this.cleanStates.remove(scenarioName);
+        discardSnapshot(scenarioName);
+    }
+
+    /**
+     * Returns the estimated number of bytes the resident scenarios may use before the least
+     * recently used are evicted.
+     *
+     * @return memory budget in bytes
+     */
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns the estimated number of bytes the resident scenarios use, as compared against the
+     * memory budget.
+     *
+     * @return estimated memory use in bytes
+     */
+    public synchronized long getEstimatedUse() {
+        long used = 0;
+        for (Scenario scenario : scenarios.values()) {
+            used += estimateBytes(scenario);
+        }
+        return used;
+    }
+
+    /**
+     * Sets the estimated number of bytes the resident scenarios may use, evicting the least
+     * recently used scenarios (other than the current scenario) until they fit.
+     * <p>
+     * The default budget is {@link Long#MAX_VALUE}, that is, nothing is evicted.
+     *
+     * @param memoryBudget memory budget in bytes
+     * @throws IllegalArgumentException if memoryBudget &lt; 0
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) throws IllegalArgumentException {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("The given budget does not conform to the "
+                + "requirement: memoryBudget >= 0.");
+        }
+        this.memoryBudget = memoryBudget;
+        enforceBudget();
     }
 
     /**
@@ -125,8 +376,25 @@ public class ScenarioManager {
      * @param scenario a scenario to register with the manager
      * @ass1_partial
      */
-    public void addScenario(Scenario scenario) {
+    public synchronized void addScenario(Scenario scenario) {
+        this.addScenario(scenario, null);
+    }
+
+    /**
+     * Registers a scenario that was parsed from the given file with the manager, as per
+     * {@link #addScenario(Scenario)}.
+     * <p>
+     * Knowing the file lets the scenario be evicted without spilling it while it is unchanged.
+     *
+     * @param scenario a scenario to register with the manager
+     * @param path     path of the file the scenario was parsed from, or null if it has none
+     */
+    synchronized void addScenario(Scenario scenario, String path) {
+        this.registerScenario(scenario.getName(), path);
         this.scenarios.put(scenario.getName(), scenario);
+        if (path != null) {
+            this.cleanStates.put(scenario.getName(), stateOf(scenario));
+        }
         try {
             this.setScenario(scenario.getName());
         } catch (BadSaveException exp) {
@@ -140,7 +408,149 @@ public class ScenarioManager {
      * That is, the Map of all scenarios that have been loaded should be empty ({@code size()}
      * returns 0).
      */
-    public void reset() {
+    public synchronized void reset() {
+        for (String name : new ArrayList<>(this.snapshots.keySet())) {
+            discardSnapshot(name);
+        }
+        this.sources.clear();
         this.scenarios.clear();
+        this.cleanStates.clear();
+        this.current = null;
+        this.currentScenario = null;
+    }
+
+    /**
+     * Parses the registered scenario with the given name from its file.
+     *
+     * @param scenarioName : name of a registered scenario
+     * @return : the parsed scenario
+     * @throws BadSaveException : if the file can not be read, is invalid or describes a
+     *                            scenario with a different name
+     */
+    private Scenario parseSource(String scenarioName) throws BadSaveException {
+        String path = sources.get(scenarioName);
+        if (path == null) {
+            throw new BadSaveException("Scenario " + scenarioName + " has no file to load from");
+        }
+        Scenario scenario;
+        try (Reader reader = new FileReader(path)) {
+            scenario = Scenario.parse(reader);
+        } catch (IOException exp) {
+            throw new BadSaveException(path + ": " + exp.getMessage(), exp);
+        }
+        if (!scenario.getName().equals(scenarioName)) {
+            throw new BadSaveException(path + ": expected scenario " + scenarioName
+                + " but found " + scenario.getName());
+        }
+        scenario.setDistanceOracle(DistanceOracle.forSaveFile(scenario, new File(path)));
+        return scenario;
+    }
+
+    /**
+     * Restores the evicted scenario with the given name from the snapshot it was spilled to, and
+     * deletes the snapshot. If the scenario was registered from a file, the distances saved next
+     * to that file are attached again, as when it was parsed.
+     *
+     * @param scenarioName : name of a scenario with a snapshot
+     * @return : the restored scenario
+     * @throws BadSaveException : if the snapshot can not be read or is invalid
+     */
+    private Scenario restoreSnapshot(String scenarioName) throws BadSaveException {
+        String path = snapshots.get(scenarioName);
+        Scenario scenario;
+        try (Reader reader = new FileReader(path)) {
+            scenario = Scenario.parseSnapshot(reader);
+        } catch (IOException exp) {
+            throw new BadSaveException(path + ": " + exp.getMessage(), exp);
+        }
+        discardSnapshot(scenarioName);
+        String source = sources.get(scenarioName);
+        if (source != null) {
+            scenario.setDistanceOracle(DistanceOracle.forSaveFile(scenario, new File(source)));
+        }
+        return scenario;
+    }
+
+    /**
+     * Forgets and deletes the snapshot of the scenario with the given name, if it has one.
+     *
+     * @param scenarioName : name of a scenario
+     */
+    private void discardSnapshot(String scenarioName) {
+        String path = snapshots.remove(scenarioName);
+        if (path != null) {
+            new File(path).delete();
+        }
+    }
+
+    /**
+     * Evicts the least recently used resident scenarios, other than the current one, until
+     * the estimated memory use is within the budget.
+     * <p>
+     * A scenario that has no file or has changed since it was parsed is spilled to a
+     * snapshot file first; if the snapshot can not be written the scenario is kept.
+     */
+    private void enforceBudget() {
+        long used = getEstimatedUse();
+        Iterator<Map.Entry<String, Scenario>> leastRecent = scenarios.entrySet().iterator();
+        while (used > memoryBudget && leastRecent.hasNext()) {
+            Map.Entry<String, Scenario> entry = leastRecent.next();
+            String name = entry.getKey();
+            Scenario scenario = entry.getValue();
+            if (name.equals(current)) {
+                continue;
+            }
+            String cleanState = cleanStates.get(name);
+            if (sources.get(name) == null || !stateOf(scenario).equals(cleanState)) {
+                try {
+                    snapshots.put(name, spill(scenario));
+                } catch (IOException exp) {
+                    //keep the only copy of its state resident
+                    continue;
+                }
+            }
+            leastRecent.remove();
+            cleanStates.remove(name);
+            used -= estimateBytes(scenario);
+        }
+    }
+
+    /**
+     * Returns a summary of the state of the given scenario that changes whenever an event is
+     * logged or a random number is drawn (which may happen without an event being logged).
+     *
+     * @param scenario : scenario to summarise
+     * @return : number of logged events and state of the random number generator
+     */
+    private static String stateOf(Scenario scenario) {
+        return scenario.getLog().getEvents().size() + ":" + scenario.encodeRandomState();
+    }
+
+    /**
+     * Writes a snapshot of the full state of the given scenario to a temporary file, as per
+     * {@link Scenario#encodeSnapshot()}.
+     *
+     * @param scenario : scenario to write
+     * @return : path of the snapshot file
+     * @throws IOException : if the snapshot can not be written
+     */
+    private static String spill(Scenario scenario) throws IOException {
+        File snapshot = File.createTempFile("scenario", ".snapshot");
+        snapshot.deleteOnExit();
+        try (Writer writer = new FileWriter(snapshot)) {
+            writer.write(scenario.encodeSnapshot());
+        }
+        return snapshot.getPath();
+    }
+
+    /**
+     * Returns a rough estimate of the number of bytes the given scenario uses.
+     *
+     * @param scenario : scenario to estimate
+     * @return : estimated size in bytes
+     */
+    private static long estimateBytes(Scenario scenario) {
+        return SCENARIO_BYTES + TILE_BYTES * scenario.getWidth() * scenario.getHeight()
+            + EVENT_BYTES * scenario.getLog().getEvents().size();
     }
 }
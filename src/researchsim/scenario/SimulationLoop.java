@@ -0,0 +1,210 @@
+package researchsim.scenario;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves the animals of a scenario continuously on a dedicated thread.
+ * <p>
+ * Every tick lets the {@link UserTeam} (if set) take its users' turns, calls
+ * {@link AnimalController#move()} and then, if the previous snapshot has been taken, publishes a
+ * fork of the scenario ({@link Scenario#fork()}) as the latest snapshot. Readers take the latest
+ * snapshot with {@link #takeSnapshot()}. A slow reader therefore skips ticks rather than delaying
+ * them, and the scenario is only forked as often as snapshots are taken (forking makes the next
+ * changes to the scenario copy what they touch). When the loop stops, a snapshot
+ * of the final state is published in place of any older one.
+ * <p>
+ * While the loop is running, the scenario belongs to the loop's thread and must not be read or
+ * changed elsewhere; only the snapshots may be used. The loop's thread resolves coordinates
+ * against its own {@link ScenarioManager} context.
+ */
+public class SimulationLoop {
+
+    /**
+     * Scenario being simulated
+     */
+    private final Scenario scenario;
+
+    /**
+     * Time between the starts of consecutive ticks, in nanoseconds
+     */
+    private final long tickNanos;
+
+    /**
+     * Latest snapshot that has not been taken, or null
+     */
+    private final AtomicReference<Scenario> latest;
+
+    /**
+     * Tick the latest published snapshot was forked at, or -1 if none has been published
+     */
+    private long publishedTick;
+
+    /**
+     * Whether the loop should keep ticking
+     */
+    private volatile boolean running;
+
+    /**
+     * Number of ticks performed so far
+     */
+    private volatile long ticks;
+
+    /**
+     * Thread performing the ticks, or null if the loop has not been started
+     */
+    private Thread thread;
+
+    /**
+     * Team of users taking their turns every tick, or null
+     */
+    private volatile UserTeam team;
+
+    /**
+     * Creates a new loop that ticks the given scenario at the given rate once started.
+     *
+     * @param scenario       : scenario to simulate
+     * @param ticksPerSecond : number of ticks to perform every second
+     * @throws IllegalArgumentException : if ticksPerSecond &lt;= 0
+     */
+    public SimulationLoop(Scenario scenario, double ticksPerSecond)
+        throws IllegalArgumentException {
+        if (!(ticksPerSecond > 0)) {
+            throw new IllegalArgumentException("The given tick rate does not conform to the "
+                + "requirement: ticksPerSecond > 0.");
+        }
+        this.scenario = scenario;
+        this.tickNanos = (long) (1_000_000_000L / ticksPerSecond);
+        this.latest = new AtomicReference<>();
+        this.publishedTick = -1;
+        this.running = false;
+        this.ticks = 0;
+        this.thread = null;
+        this.team = null;
+    }
+
+    /**
+     * Sets the team whose members take their turns at the start of every tick, before the
+     * animals move. A team of one member drives a single user.
+     *
+     * @param team : team to use, or null to leave users alone
+     */
+    public void setTeam(UserTeam team) {
+        this.team = team;
+    }
+
+    /**
+     * Starts ticking on a new daemon thread, if the loop is not already running.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "simulation-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops ticking and waits for the tick in progress (if any) to finish, after which the
+     * scenario may be used by the calling thread again.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        //wake the thread if it is waiting for its next tick
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException exp) {
+                interrupted = true;
+            }
+        }
+        thread = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns true if the loop is ticking.
+     *
+     * @return : true if running, false otherwise
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the number of ticks performed so far.
+     *
+     * @return : number of ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the latest snapshot published, or null if it has already been taken (or no tick
+     * has finished since).
+     * <p>
+     * The snapshot is of the first tick that finished after the previous snapshot was taken, or
+     * of the final state if the loop has stopped since. A snapshot is never changed by the loop,
+     * so it may be read on any thread.
+     *
+     * @return : latest snapshot, or null
+     */
+    public Scenario takeSnapshot() {
+        return latest.getAndSet(null);
+    }
+
+    /**
+     * Ticks the scenario at a fixed rate until stopped. If a tick overruns, the next starts
+     * straight away rather than trying to catch up.
+     */
+    private void run() {
+        ScenarioManager context = ScenarioManager.createContext();
+        context.addScenario(scenario);
+        try {
+            context.runInContext(() -> {
+                long deadline = System.nanoTime();
+                while (running) {
+                    UserTeam users = team;
+                    if (users != null) {
+                        users.takeTurns();
+                    }
+                    scenario.getController().move();
+                    ticks++;
+                    if (latest.get() == null) {
+                        publish();
+                    }
+
+                    deadline = Math.max(deadline + tickNanos, System.nanoTime());
+                    long wait;
+                    while (running && (wait = deadline - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(this, wait);
+                    }
+                }
+                if (publishedTick != ticks) {
+                    //the reader must see the state the loop stopped in
+                    publish();
+                }
+            });
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Publishes a fork of the scenario as the latest snapshot, replacing any not yet taken.
+     */
+    private void publish() {
+        publishedTick = ticks;
+        latest.set(scenario.fork());
+    }
+}
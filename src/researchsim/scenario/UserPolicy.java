@@ -0,0 +1,28 @@
+package researchsim.scenario;
+
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+
+/**
+ * Decides the turns of a {@link User} that is driven by an {@link Autopilot} rather than by a
+ * person.
+ * <p>
+ * A policy is asked for the user's move once per turn and is given the scenario the user is on,
+ * which is also the current scenario ({@link ScenarioManager#getScenario()}) of the calling
+ * thread. The policy only reads the scenario, so several policies may choose at once. Moving onto
+ * a collectable entity collects it, so a policy collects an entity by choosing its coordinate.
+ * <p>
+ * A policy may keep state between turns, so one instance drives one user only; policies are not
+ * required to be safe to call from several threads at once.
+ */
+public interface UserPolicy {
+
+    /**
+     * Chooses where the given user moves this turn.
+     *
+     * @param scenario : scenario the user is on
+     * @param user : user to decide for
+     * @return : one of the user's possible moves, or null to stay put this turn
+     */
+    Coordinate chooseMove(Scenario scenario, User user);
+}
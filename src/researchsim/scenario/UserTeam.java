@@ -0,0 +1,232 @@
+package researchsim.scenario;
+
+import researchsim.entities.User;
+import researchsim.logging.PerformanceMonitor;
+import researchsim.map.Coordinate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * A team of users on one scenario, each driven by its own {@link Autopilot}, that take their
+ * turns together once per tick.
+ * <p>
+ * A round of turns has three phases:
+ * <ol>
+ * <li>every member's user is found on the current scenario;</li>
+ * <li>every member's policy chooses a move, on several threads if the team is parallel (the
+ * scenario is only read while they do, and is handed to each policy, so that the threads take no
+ * shared lock; how long each member took is recorded in the scenario's
+ * {@link PerformanceMonitor} once every member has chosen);</li>
+ * <li>the moves are made one at a time.</li>
+ * </ol>
+ * When several members choose the same tile (and so the same entity to collect), the member
+ * nearest the tile wins, ties going to whichever member comes first in this round's order. The
+ * order starts one member later every round so that no member is always favoured. The other
+ * members stay put for the round. The outcome depends only on the members' choices, never on
+ * how the threads were scheduled.
+ * <p>
+ * Members of a parallel team choose their moves at the same time, so each member must have its
+ * own policy instance: policies keep state between turns (such as the route a
+ * {@link RoutePolicy} is following, or the buffers of the pathfinder a {@link GreedyPolicy}
+ * reuses) that is not safe to share between threads.
+ */
+public class UserTeam {
+
+    /**
+     * Names of the policies {@link #ofEveryUser(Scenario, String, Random)} can drive users with.
+     */
+    public static final List<String> POLICIES = List.of("random", "greedy", "route");
+
+    /**
+     * Greatest number of moves each route of the "route" policy may take.
+     * The value of this constant is {@value}
+     */
+    private static final int ROUTE_BUDGET = 30;
+
+    /** autopilots of the members, in member order */
+    private final List<Autopilot> members;
+    /** whether policies choose their moves on several threads */
+    private final boolean parallel;
+    /** number of rounds of turns taken */
+    private long rounds;
+    /** number of moves that lost to another member's move to the same tile */
+    private long conflicts;
+
+    /**
+     * Creates a team of the given members.
+     *
+     * @param members : autopilots of the members, in member order
+     * @param parallel : true to let policies choose their moves on several threads
+     */
+    public UserTeam(List<Autopilot> members, boolean parallel) {
+        this.members = new ArrayList<>(members);
+        this.parallel = parallel;
+        this.rounds = 0;
+        this.conflicts = 0;
+    }
+
+    /**
+     * Creates a parallel team of every user on the given scenario, in tile index order
+     * ({@link Scenario#getUsers()}), each driven by its own policy of the given name. The
+     * policies are seeded from the given generator rather than the scenario's, so that adding a
+     * team does not change how the animals move.
+     *
+     * @param scenario : scenario whose users make up the team
+     * @param policy : name of the policy to drive each user with, one of {@link #POLICIES}
+     * @param seeds : generator the policies' seeds are drawn from
+     * @return : a team of every user on the scenario
+     * @throws IllegalArgumentException : if the policy is unknown or the scenario has no user
+     */
+    public static UserTeam ofEveryUser(Scenario scenario, String policy, Random seeds)
+            throws IllegalArgumentException {
+        if (!POLICIES.contains(policy)) {
+            throw new IllegalArgumentException("Unknown policy: " + policy);
+        }
+        List<User> users = scenario.getUsers();
+        if (users.isEmpty()) {
+            throw new IllegalArgumentException("The scenario has no user to drive.");
+        }
+        //the team already plans on several threads, so each planner keeps to one
+        int chains = users.size() == 1 ? CollectionPlanner.DEFAULT_CHAINS : 1;
+        List<Autopilot> members = new ArrayList<>();
+        for (User user : users) {
+            UserPolicy userPolicy;
+            switch (policy) {
+                case "random":
+                    userPolicy = new RandomPolicy(seeds.nextLong());
+                    break;
+                case "greedy":
+                    userPolicy = new GreedyPolicy();
+                    break;
+                default:
+                    userPolicy = new RoutePolicy(new CollectionPlanner(chains,
+                        CollectionPlanner.DEFAULT_ITERATIONS, seeds.nextLong()),
+                        ROUTE_BUDGET);
+                    break;
+            }
+            members.add(new Autopilot(user, userPolicy));
+        }
+        return new UserTeam(members, true);
+    }
+
+    /**
+     * Lets every member take its turn on the current scenario.
+     *
+     * @return : number of members that moved
+     */
+    public int takeTurns() {
+        int count = members.size();
+        if (count == 0) {
+            return 0;
+        }
+        Scenario scenario = ScenarioManager.getInstance().getScenario();
+        User[] users = new User[count];
+        for (int member = 0; member < count; member++) {
+            users[member] = members.get(member).prepareTurn(scenario);
+        }
+        //build the lazily built indices now, so that the policies only ever read the scenario
+        scenario.getBlockedCounts();
+        scenario.getSpatialIndex();
+        scenario.getComponents();
+        scenario.getDistanceOracle();
+
+        //worker threads resolve coordinates against the same context as this thread, which
+        //only binds it to the thread: the current scenario is then read without a lock
+        ScenarioManager context = ScenarioManager.getInstance();
+        Coordinate[] moves = new Coordinate[count];
+        IntStream decisions = IntStream.range(0, count).filter(member -> users[member] != null);
+        (parallel ? decisions.parallel() : decisions).forEach(member -> context.runInContext(
+            () -> moves[member] = members.get(member).decide(scenario, users[member])));
+
+        //record every member's decision in the shared recorder at once, in member order
+        long[] decisionTimes = new long[count];
+        int decided = 0;
+        for (int member = 0; member < count; member++) {
+            if (users[member] != null) {
+                decisionTimes[decided++] = members.get(member).getLastDecisionTime();
+            }
+        }
+        scenario.getMonitor().getDecisionTimes().recordAll(decisionTimes, decided);
+
+        //find the winner of every chosen tile, in this round's order
+        int first = (int) (rounds++ % count);
+        int[] winners = new int[scenario.getSize()];
+        Arrays.fill(winners, -1);
+        for (int turn = 0; turn < count; turn++) {
+            int member = (first + turn) % count;
+            if (moves[member] == null) {
+                continue;
+            }
+            int tile = moves[member].getIndex();
+            int winner = winners[tile];
+            if (winner == -1 || distance(users[member], moves[member])
+                    < distance(users[winner], moves[member])) {
+                winners[tile] = member;
+            }
+        }
+
+        int moved = 0;
+        for (int turn = 0; turn < count; turn++) {
+            int member = (first + turn) % count;
+            if (moves[member] == null) {
+                continue;
+            }
+            if (winners[moves[member].getIndex()] != member) {
+                conflicts++;
+            } else if (members.get(member).makeMove(scenario, users[member], moves[member])) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Returns the autopilots of the members, in member order.
+     *
+     * @return : members of the team
+     */
+    public List<Autopilot> getMembers() {
+        return new ArrayList<>(members);
+    }
+
+    /**
+     * Returns the number of rounds of turns taken so far.
+     *
+     * @return : number of rounds
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of moves that were not made because another member won the tile.
+     *
+     * @return : number of lost conflicts
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Returns the points earned by every member together.
+     *
+     * @return : points earned by the team
+     */
+    public int getPointsEarned() {
+        int points = 0;
+        for (Autopilot member : members) {
+            points += member.getPointsEarned();
+        }
+        return points;
+    }
+
+    /* Manhattan distance from a user to a coordinate */
+    private static int distance(User user, Coordinate coordinate) {
+        return Math.abs(user.getCoordinate().getX() - coordinate.getX())
+            + Math.abs(user.getCoordinate().getY() - coordinate.getY());
+    }
+}
@@ -0,0 +1,125 @@
+package researchsim.display;
+
+import org.junit.After;
+import org.junit.Test;
+import researchsim.entities.Size;
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+import researchsim.map.TileType;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioManager;
+import researchsim.util.BadSaveException;
+import researchsim.util.CoordinateOutOfBoundsException;
+import researchsim.util.NoSuchEntityException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class DensityGridTest {
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    @Test
+    public void incrementalMatchesRebuild() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Density");
+        save.add("Width:6");
+        save.add("Height:6");
+        save.add("Seed:4");
+        save.add("======");
+        for (int i = 0; i < 6; i++) {
+            save.add("LLLOOO");
+        }
+        save.add("======");
+        save.add("Fauna-SMALL-0,0-LAND");
+        save.add("Fauna-LARGE-4,0-OCEAN");
+        save.add("Fauna-SMALL-1,3-LAND");
+        save.add("Fauna-MEDIUM-5,5-OCEAN");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+
+        DensityGrid incremental = new DensityGrid();
+        incremental.update(scenario, 2, Size.SMALL, TileType.LAND);
+        for (int i = 0; i < 30; i++) {
+            scenario.getController().move();
+            incremental.update(scenario, 2, Size.SMALL, TileType.LAND);
+        }
+        DensityGrid rebuilt = new DensityGrid();
+        rebuilt.update(scenario, 2, Size.SMALL, TileType.LAND);
+
+        int total = 0;
+        assertEquals("Incorrect value was returned.", 3, incremental.getBlocksWide());
+        for (int y = 0; y < incremental.getBlocksHigh(); y++) {
+            for (int x = 0; x < incremental.getBlocksWide(); x++) {
+                assertEquals("Incorrect value was returned.", rebuilt.getCount(x, y),
+                    incremental.getCount(x, y));
+                total += incremental.getCount(x, y);
+            }
+        }
+        assertEquals("Incorrect value was returned.", 2, total);
+    }
+
+    @Test
+    public void collectedAnimalIsUncounted() throws IOException, BadSaveException,
+            NoSuchEntityException, CoordinateOutOfBoundsException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Collect");
+        save.add("Width:6");
+        save.add("Height:6");
+        save.add("Seed:4");
+        save.add("======");
+        for (int i = 0; i < 6; i++) {
+            save.add("LLLOOO");
+        }
+        save.add("======");
+        save.add("User-1,1-Bob");
+        save.add("Fauna-SMALL-2,2-LAND");
+        save.add("Fauna-SMALL-0,4-LAND");
+        save.add("Fauna-LARGE-4,0-OCEAN");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+        User user = (User) scenario.getTile(new Coordinate(1, 1).getIndex()).getContents();
+
+        DensityGrid incremental = new DensityGrid();
+        incremental.update(scenario, 2, Size.SMALL, TileType.LAND);
+        assertEquals("Incorrect value was returned.", 1, incremental.getCount(1, 1));
+        user.collect(new Coordinate(2, 2));
+        incremental.update(scenario, 2, Size.SMALL, TileType.LAND);
+        assertEquals("Incorrect value was returned.", 0, incremental.getCount(1, 1));
+        assertEquals("Incorrect value was returned.", 1,
+            assertSameCounts(scenario, 2, Size.SMALL, TileType.LAND, incremental));
+
+        //changing the block size or filter recounts the map
+        incremental.update(scenario, 3, null, null);
+        assertEquals("Incorrect value was returned.", 2, incremental.getBlocksWide());
+        assertEquals("Incorrect value was returned.", 2,
+            assertSameCounts(scenario, 3, null, null, incremental));
+        incremental.update(scenario, 3, Size.LARGE, TileType.OCEAN);
+        assertEquals("Incorrect value was returned.", 1,
+            assertSameCounts(scenario, 3, Size.LARGE, TileType.OCEAN, incremental));
+    }
+
+    /* Checks the given grid against one rebuilt from the map, returning the total count */
+    private static int assertSameCounts(Scenario scenario, int blockSize, Size size,
+                                        TileType habitat, DensityGrid grid) {
+        DensityGrid rebuilt = new DensityGrid();
+        rebuilt.update(scenario, blockSize, size, habitat);
+        assertEquals("Incorrect value was returned.", rebuilt.getBlocksWide(),
+            grid.getBlocksWide());
+        assertEquals("Incorrect value was returned.", rebuilt.getBlocksHigh(),
+            grid.getBlocksHigh());
+        int total = 0;
+        for (int y = 0; y < grid.getBlocksHigh(); y++) {
+            for (int x = 0; x < grid.getBlocksWide(); x++) {
+                assertEquals("Incorrect value was returned.", rebuilt.getCount(x, y),
+                    grid.getCount(x, y));
+                total += grid.getCount(x, y);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,94 @@
+package researchsim.display;
+
+import javafx.application.Platform;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class FrameRendererTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void startToolkit() {
+        //without a display, draw headless if Monocle is on the class path
+        try {
+            Class.forName("com.sun.glass.ui.monocle.MonoclePlatformFactory");
+            if (System.getProperty("glass.platform") == null) {
+                System.setProperty("glass.platform", "Monocle");
+                System.setProperty("monocle.platform", "Headless");
+                System.setProperty("prism.order", "sw");
+            }
+        } catch (ClassNotFoundException exp) {
+            //use the default platform
+        }
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException exp) {
+            //already started
+        } catch (RuntimeException | UnsatisfiedLinkError exp) {
+            Assume.assumeNoException("JavaFX can not be started here", exp);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    @Test
+    public void writesEveryFrame() throws Exception {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Frames");
+        save.add("Width:6");
+        save.add("Height:6");
+        save.add("Seed:3");
+        save.add("======");
+        for (int i = 0; i < 6; i++) {
+            save.add("LLLLLL");
+        }
+        save.add("======");
+        save.add("Fauna-SMALL-0,0-LAND");
+        save.add("Fauna-MEDIUM-5,5-LAND");
+        save.add("User-3,3-Bob");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+        File directory = new File(folder.getRoot(), "frames");
+        int frames = 6;
+        //one encoder and room for every frame, so that none is dropped and images are reused
+        try (FrameRenderer renderer = new FrameRenderer(directory, 680, 680, 1, frames)) {
+            for (int frame = 0; frame < frames; frame++) {
+                assertTrue("Incorrect value was returned.", renderer.submit(scenario));
+                scenario.getController().move();
+            }
+            renderer.flush();
+            assertEquals("Incorrect value was returned.", 0, renderer.getDroppedFrames());
+        }
+
+        String[] names = directory.list();
+        assertNotNull("Incorrect value was returned.", names);
+        Arrays.sort(names);
+        assertEquals("Incorrect value was returned.", frames, names.length);
+        for (int frame = 0; frame < frames; frame++) {
+            assertEquals("Incorrect value was returned.",
+                String.format("frame-%06d.png", frame), names[frame]);
+            BufferedImage image = ImageIO.read(new File(directory, names[frame]));
+            assertEquals("Incorrect value was returned.", 680, image.getWidth());
+            assertEquals("Incorrect value was returned.", 680, image.getHeight());
+        }
+    }
+}
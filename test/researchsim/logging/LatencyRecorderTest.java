@@ -0,0 +1,80 @@
+package researchsim.logging;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyRecorderTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePositive() {
+        new LatencyRecorder(0);
+    }
+
+    @Test
+    public void emptyRecorderHasNoPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder(4);
+        assertEquals("Incorrect value was returned.", 0, recorder.getCount());
+        assertEquals("Incorrect value was returned.", 0, recorder.getPercentile(50));
+        assertArrayEquals("Incorrect value was returned.", new int[3],
+            recorder.getHistogram(3, 30));
+    }
+
+    @Test
+    public void percentilesUseNearestRank() {
+        LatencyRecorder recorder = new LatencyRecorder(10);
+        for (long nanos : new long[]{40, 10, 30, 20}) {
+            recorder.record(nanos);
+        }
+        assertEquals("Incorrect value was returned.", 10, recorder.getPercentile(0));
+        assertEquals("Incorrect value was returned.", 10, recorder.getPercentile(25));
+        assertEquals("Incorrect value was returned.", 20, recorder.getPercentile(50));
+        assertEquals("Incorrect value was returned.", 30, recorder.getPercentile(51));
+        assertEquals("Incorrect value was returned.", 40, recorder.getPercentile(99));
+        assertEquals("Incorrect value was returned.", 40, recorder.getPercentile(100));
+    }
+
+    @Test
+    public void oldestSamplesAreOverwritten() {
+        LatencyRecorder recorder = new LatencyRecorder(4);
+        for (long nanos = 1; nanos <= 6; nanos++) {
+            recorder.record(nanos);
+        }
+        //1 and 2 have been overwritten by 5 and 6
+        assertEquals("Incorrect value was returned.", 6, recorder.getCount());
+        assertEquals("Incorrect value was returned.", 3, recorder.getPercentile(0));
+        assertEquals("Incorrect value was returned.", 4, recorder.getPercentile(50));
+        assertEquals("Incorrect value was returned.", 6, recorder.getPercentile(100));
+        assertArrayEquals("Incorrect value was returned.", new int[]{0, 1, 3},
+            recorder.getHistogram(3, 6));
+    }
+
+    @Test
+    public void recordAllWrapsLikeRecord() {
+        LatencyRecorder single = new LatencyRecorder(3);
+        LatencyRecorder batched = new LatencyRecorder(3);
+        long[] nanos = {7, 3, 9, 1, 5, 100};
+        for (int i = 0; i < 5; i++) {
+            single.record(nanos[i]);
+        }
+        //only the first five are recorded
+        batched.recordAll(nanos, 5);
+        assertEquals("Incorrect value was returned.", single.getCount(), batched.getCount());
+        for (double percentile : new double[]{0, 50, 100}) {
+            assertEquals("Incorrect value was returned.", single.getPercentile(percentile),
+                batched.getPercentile(percentile));
+        }
+        assertEquals("Incorrect value was returned.", 9, batched.getPercentile(100));
+    }
+
+    @Test
+    public void histogramClampsSlowSamplesIntoLastBucket() {
+        LatencyRecorder recorder = new LatencyRecorder(8);
+        for (long nanos : new long[]{0, 9, 10, 19, 20, 29, 30, 1000}) {
+            recorder.record(nanos);
+        }
+        //buckets are [0, 10), [10, 20) and [20, 30]; 30 and 1000 are clamped into the last
+        assertArrayEquals("Incorrect value was returned.", new int[]{2, 2, 4},
+            recorder.getHistogram(3, 30));
+    }
+}
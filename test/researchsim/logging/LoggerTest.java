@@ -0,0 +1,73 @@
+package researchsim.logging;
+
+import org.junit.After;
+import org.junit.Test;
+import researchsim.entities.Fauna;
+import researchsim.entities.Size;
+import researchsim.map.Coordinate;
+import researchsim.map.TileType;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioManager;
+import researchsim.util.BadSaveException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class LoggerTest {
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    @Test
+    public void forkingEveryEventKeepsEveryLogIntact() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Log");
+        save.add("Width:5");
+        save.add("Height:5");
+        save.add("Seed:0");
+        save.add("=====");
+        for (int i = 0; i < 5; i++) {
+            save.add("LLLLL");
+        }
+        save.add("=====");
+        Scenario.load(new StringReader(save.toString()));
+        Fauna mouse = new Fauna(Size.SMALL, new Coordinate(0, 0), TileType.LAND);
+        Logger log = new Logger();
+        List<Event> added = new ArrayList<>();
+        List<Logger> forks = new ArrayList<>();
+        //as a simulation that publishes a snapshot every tick for a long run
+        for (int i = 0; i < 100_000; i++) {
+            Event event = new MoveEvent(mouse, new Coordinate(i % 5, 0));
+            log.add(event);
+            added.add(event);
+            Logger fork = log.fork();
+            if (i % 10_000 == 0) {
+                forks.add(fork);
+            }
+        }
+        List<Event> events = log.getEvents();
+        assertEquals("Incorrect value was returned.", added.size(), events.size());
+        for (int i = 0; i < added.size(); i++) {
+            assertSame("Incorrect value was returned.", added.get(i), events.get(i));
+        }
+
+        //a fork that logs its own events does not see those added to the log afterwards
+        Logger early = forks.get(1);
+        Event own = new MoveEvent(mouse, new Coordinate(4, 4));
+        early.add(own);
+        early.fork();
+        List<Event> earlyEvents = early.getEvents();
+        assertEquals("Incorrect value was returned.", 10_002, earlyEvents.size());
+        assertSame("Incorrect value was returned.", added.get(10_000), earlyEvents.get(10_000));
+        assertSame("Incorrect value was returned.", own, earlyEvents.get(10_001));
+        assertSame("Incorrect value was returned.", added.get(10_001),
+            log.getEvents().get(10_001));
+    }
+}
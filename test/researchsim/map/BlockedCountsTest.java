@@ -0,0 +1,103 @@
+package researchsim.map;
+
+import org.junit.After;
+import org.junit.Test;
+import researchsim.entities.Flora;
+import researchsim.entities.Size;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioManager;
+import researchsim.util.BadSaveException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class BlockedCountsTest {
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    /* Whether every tile after the start of a single-turn path is passable, tile by tile */
+    private static boolean walk(Scenario scenario, MoverClass mover, int fromX, int fromY,
+            int toX, int toY, boolean firstX) {
+        int x = fromX;
+        int y = fromY;
+        while (x != toX || y != toY) {
+            if (firstX ? x != toX : y == toY) {
+                x += Integer.signum(toX - x);
+            } else {
+                y += Integer.signum(toY - y);
+            }
+            Tile tile = scenario.getTile(x + y * scenario.getWidth());
+            if (!mover.canEnter(tile.getType())
+                    || (mover != MoverClass.USER && tile.hasContents())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void assertMatchesWalk(Scenario scenario) {
+        BlockedCounts blocked = scenario.getBlockedCounts();
+        int width = scenario.getWidth();
+        for (MoverClass mover : MoverClass.values()) {
+            for (int from = 0; from < scenario.getSize(); from++) {
+                for (int to = 0; to < scenario.getSize(); to++) {
+                    int fromX = from % width;
+                    int fromY = from / width;
+                    int toX = to % width;
+                    int toY = to / width;
+                    assertEquals("Incorrect value was returned.",
+                        walk(scenario, mover, fromX, fromY, toX, toY, true)
+                            || walk(scenario, mover, fromX, fromY, toX, toY, false),
+                        blocked.isPathClear(mover, fromX, fromY, toX, toY));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pathsMatchTileByTileWalk() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Blocked");
+        save.add("Width:6");
+        save.add("Height:5");
+        save.add("Seed:1");
+        save.add("======");
+        save.add("LLSXOO");
+        save.add("LXLLOO");
+        save.add("SLLOOL");
+        save.add("LOOXLL");
+        save.add("OOLLSL");
+        save.add("======");
+        save.add("Fauna-SMALL-0,0-LAND");
+        save.add("Flora-SMALL-2,2");
+        save.add("Fauna-MEDIUM-4,1-OCEAN");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+        assertMatchesWalk(scenario);
+
+        //fill and empty tiles at random, in the scenario and then in a fork of it
+        Random random = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            int index = random.nextInt(scenario.getSize());
+            scenario.setTileContents(index, scenario.getTile(index).hasContents() ? null
+                : new Flora(Size.SMALL, new Coordinate(index % 6, index / 6)));
+        }
+        assertMatchesWalk(scenario);
+        String before = scenario.encode();
+        Scenario fork = scenario.fork();
+        for (int i = 0; i < 20; i++) {
+            int index = random.nextInt(fork.getSize());
+            fork.setTileContents(index, fork.getTile(index).hasContents() ? null
+                : new Flora(Size.SMALL, new Coordinate(index % 6, index / 6)));
+        }
+        assertMatchesWalk(fork);
+        assertEquals("Incorrect value was returned.", before, scenario.encode());
+        assertMatchesWalk(scenario);
+    }
+}
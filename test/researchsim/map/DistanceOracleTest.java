@@ -0,0 +1,71 @@
+package researchsim.map;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioManager;
+import researchsim.util.BadSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class DistanceOracleTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    @Test
+    public void savedDistancesMatchSearch() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Oracle");
+        save.add("Width:6");
+        save.add("Height:5");
+        save.add("Seed:1");
+        save.add("======");
+        save.add("LLXLLL");
+        save.add("LLXLXL");
+        save.add("LLLLXL");
+        save.add("OOOOOO");
+        save.add("OOOSOO");
+        save.add("======");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+        File saveFile = folder.newFile("oracle.txt");
+
+        DistanceOracle built = DistanceOracle.forSaveFile(scenario, saveFile);
+        assertTrue("Incorrect value was returned.",
+            new File(saveFile.getPath() + DistanceOracle.FILE_EXTENSION).isFile());
+        DistanceOracle read = DistanceOracle.forSaveFile(scenario, saveFile);
+
+        Pathfinder pathfinder = new Pathfinder(scenario, MoverClass.USER);
+        for (int from = 0; from < scenario.getSize(); from++) {
+            for (int to = 0; to < scenario.getSize(); to++) {
+                Coordinate start = new Coordinate(from % 6, from / 6);
+                Coordinate end = new Coordinate(to % 6, to / 6);
+                int[] route = pathfinder.findTiles(start, end);
+                int expected = route == null ? DistanceOracle.UNREACHABLE : route.length - 1;
+                assertEquals("Incorrect value was returned.", expected,
+                    built.getDistance(MoverClass.USER, start, end));
+                assertEquals("Incorrect value was returned.", expected,
+                    read.getDistance(MoverClass.USER, start, end));
+            }
+        }
+        //the SAND island is cut off from the rest of the sand and land by ocean
+        assertEquals("Incorrect value was returned.", DistanceOracle.UNREACHABLE,
+            read.getDistance(MoverClass.LAND_FAUNA, new Coordinate(3, 4), new Coordinate(0, 0)));
+        assertEquals("Incorrect value was returned.", 3,
+            read.getDistance(MoverClass.OCEAN_FAUNA, new Coordinate(2, 4), new Coordinate(4, 3)));
+        assertEquals("Incorrect value was returned.", 3, read.getMinimumMoves(MoverClass.USER,
+            new Coordinate(0, 0), new Coordinate(5, 0), 4));
+    }
+}
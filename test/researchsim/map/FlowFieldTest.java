@@ -0,0 +1,65 @@
+package researchsim.map;
+
+import org.junit.After;
+import org.junit.Test;
+import researchsim.entities.Fauna;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioManager;
+import researchsim.util.BadSaveException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class FlowFieldTest {
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    @Test
+    public void landAnimalsGatherAtShore() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Migration");
+        save.add("Width:8");
+        save.add("Height:6");
+        save.add("Seed:5");
+        save.add("========");
+        save.add("LLLLLLOO");
+        save.add("LLLLLLOO");
+        save.add("LLXXLLOO");
+        save.add("LLLLLLOO");
+        save.add("LLLLLLOO");
+        save.add("LLLLLLOO");
+        save.add("========");
+        save.add("Fauna-SMALL-0,0-LAND");
+        save.add("Fauna-MEDIUM-1,4-LAND");
+        save.add("Fauna-GIANT-0,2-LAND");
+        save.add("Fauna-LARGE-7,3-OCEAN");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+        FlowField field = FlowField.ofTileType(scenario, MoverClass.LAND_FAUNA, TileType.OCEAN,
+            false);
+        assertEquals("Incorrect value was returned.", 6,
+            field.getDistance(new Coordinate(0, 0)));
+        scenario.getController().setFlowField(field);
+
+        for (int i = 0; i < 200; i++) {
+            scenario.getController().move();
+        }
+        int atShore = 0;
+        for (Fauna animal : scenario.getController().getAnimals()) {
+            if (animal.getHabitat() == TileType.LAND) {
+                //settled: either at the shore or blocked from getting any closer
+                assertNull("Incorrect value was returned.",
+                    field.chooseMove(animal.getCoordinate(), animal.getPossibleMoves()));
+                if (field.getDistance(animal.getCoordinate()) == 1) {
+                    atShore++;
+                }
+            }
+        }
+        assertTrue("Incorrect value was returned.", atShore >= 2);
+    }
+}
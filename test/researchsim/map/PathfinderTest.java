@@ -0,0 +1,138 @@
+package researchsim.map;
+
+import org.junit.After;
+import org.junit.Test;
+import researchsim.entities.User;
+import researchsim.scenario.Scenario;
+import researchsim.scenario.ScenarioManager;
+import researchsim.util.BadSaveException;
+import researchsim.util.CoordinateOutOfBoundsException;
+import researchsim.util.NoSuchEntityException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class PathfinderTest {
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    private Scenario load(String... rows) throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Paths");
+        save.add("Width:" + rows[0].length());
+        save.add("Height:" + rows.length);
+        save.add("Seed:1");
+        save.add("=".repeat(rows[0].length()));
+        for (String row : rows) {
+            save.add(row);
+        }
+        save.add("=".repeat(rows[0].length()));
+        save.add("User-0,0-Bob");
+        return Scenario.load(new StringReader(save.toString()));
+    }
+
+    @Test
+    public void movesAroundWallReachTarget() throws IOException, BadSaveException,
+            NoSuchEntityException, CoordinateOutOfBoundsException {
+        Scenario scenario = load(
+            "LLLXLLLL",
+            "LLLXLLLL",
+            "LLLXLLXL",
+            "LLLXLLXL",
+            "LLLLLLXL",
+            "OOOOOOOO");
+        User user = (User) scenario.getTile(0).getContents();
+        Coordinate target = new Coordinate(7, 0);
+
+        List<Coordinate> moves = new Pathfinder(scenario, MoverClass.USER)
+            .planMoves(user, target);
+        assertNotNull("Incorrect value was returned.", moves);
+        for (Coordinate move : moves) {
+            assertTrue("Incorrect value was returned.", user.getPossibleMoves().contains(move));
+            user.move(move);
+        }
+        assertEquals("Incorrect value was returned.", target, user.getCoordinate());
+        //the shortest route is 15 tiles long, so 5 moves of 3 tiles
+        assertEquals("Incorrect value was returned.", 5, moves.size());
+    }
+
+    @Test
+    public void unreachableTarget() throws IOException, BadSaveException {
+        Scenario scenario = load(
+            "LLXLL",
+            "LLXLL",
+            "LLXLL",
+            "LLXLL",
+            "LLXLL");
+        Pathfinder pathfinder = new Pathfinder(scenario, MoverClass.USER);
+        assertNull("Incorrect value was returned.",
+            pathfinder.findMoves(new Coordinate(0, 0), new Coordinate(4, 2), 3));
+        assertNull("Incorrect value was returned.",
+            pathfinder.findMoves(new Coordinate(0, 0), new Coordinate(2, 1), 3));
+        assertTrue("Incorrect value was returned.",
+            pathfinder.findMoves(new Coordinate(1, 1), new Coordinate(1, 1), 3).isEmpty());
+    }
+
+    /* Fewest moves between two tiles, by a breadth first search over every single move */
+    private static int fewestMoves(Scenario scenario, int start, int target, int moveDistance) {
+        int width = scenario.getWidth();
+        int[] moves = new int[scenario.getSize()];
+        Arrays.fill(moves, -1);
+        moves[start] = 0;
+        Deque<Integer> open = new ArrayDeque<>(List.of(start));
+        while (!open.isEmpty()) {
+            int tile = open.poll();
+            if (tile == target) {
+                return moves[tile];
+            }
+            for (int next = 0; next < moves.length; next++) {
+                int dx = Math.abs(next % width - tile % width);
+                int dy = Math.abs(next / width - tile / width);
+                if (moves[next] == -1 && dx + dy <= moveDistance
+                        && MoverClass.USER.canEnter(scenario.getTile(next).getType())
+                        && scenario.getBlockedCounts().isPathClear(MoverClass.USER,
+                            tile % width, tile / width, next % width, next / width)) {
+                    moves[next] = moves[tile] + 1;
+                    open.add(next);
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void fewestMovesAroundMountains() throws IOException, BadSaveException {
+        Random random = new Random(3);
+        for (int map = 0; map < 20; map++) {
+            String[] rows = new String[9];
+            for (int y = 0; y < rows.length; y++) {
+                StringBuilder row = new StringBuilder();
+                for (int x = 0; x < 9; x++) {
+                    row.append(x + y > 0 && random.nextDouble() < 0.3 ? 'X' : 'L');
+                }
+                rows[y] = row.toString();
+            }
+            Scenario scenario = load(rows);
+            Pathfinder pathfinder = new Pathfinder(scenario, MoverClass.USER);
+            for (int target = 0; target < scenario.getSize(); target++) {
+                Coordinate to = new Coordinate(target % 9, target / 9);
+                List<Coordinate> moves = pathfinder.findMoves(new Coordinate(0, 0), to, 3);
+                int fewest = fewestMoves(scenario, 0, target, 3);
+                assertEquals("Incorrect value was returned.", fewest,
+                    moves == null ? -1 : moves.size());
+            }
+            ScenarioManager.getInstance().reset();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package researchsim.map;
+
+import org.junit.Test;
+import researchsim.entities.Flora;
+import researchsim.entities.Size;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SpatialIndexTest {
+
+    @Test
+    public void queriesMatchFullScan() {
+        int width = 15;
+        Tile[] map = new Tile[width * 13];
+        Random random = new Random(8);
+        for (int i = 0; i < map.length; i++) {
+            map[i] = new Tile(TileType.LAND);
+            if (random.nextInt(5) == 0) {
+                map[i].setContents(new Flora(Size.SMALL, new Coordinate(i % width, i / width)));
+            }
+        }
+        SpatialIndex index = new SpatialIndex(map, width, 4);
+        boolean[] occupied = new boolean[map.length];
+        for (int i = 0; i < map.length; i++) {
+            occupied[i] = map[i].hasContents();
+        }
+
+        for (int round = 0; round < 50; round++) {
+            int flip = random.nextInt(map.length);
+            occupied[flip] = !occupied[flip];
+            index.setOccupied(flip, occupied[flip]);
+
+            int x = random.nextInt(width);
+            int y = random.nextInt(13);
+            int radius = random.nextInt(6);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < map.length; i++) {
+                //only even tiles are accepted by the filter
+                if (occupied[i] && i % 2 == 0) {
+                    expected.add(i);
+                }
+            }
+            int[] occupiedTiles = index.occupied(i -> i % 2 == 0);
+            assertEquals("Incorrect value was returned.", expected.size(), occupiedTiles.length);
+            for (int i = 0; i < occupiedTiles.length; i++) {
+                assertEquals("Incorrect value was returned.", (int) expected.get(i),
+                    occupiedTiles[i]);
+            }
+
+            List<Integer> inRange = new ArrayList<>();
+            for (int i : expected) {
+                if (Math.abs(i % width - x) + Math.abs(i / width - y) <= radius) {
+                    inRange.add(i);
+                }
+            }
+            int[] within = index.within(x, y, radius, i -> i % 2 == 0);
+            assertEquals("Incorrect value was returned.", inRange.size(), within.length);
+            for (int i = 0; i < within.length; i++) {
+                assertEquals("Incorrect value was returned.", (int) inRange.get(i), within[i]);
+            }
+
+            expected.sort(Comparator.comparingInt((Integer i) ->
+                Math.abs(i % width - x) + Math.abs(i / width - y)).thenComparingInt(i -> i));
+            int[] nearest = index.nearest(x, y, 5, i -> i % 2 == 0);
+            assertEquals("Incorrect value was returned.", Math.min(5, expected.size()),
+                nearest.length);
+            for (int i = 0; i < nearest.length; i++) {
+                assertEquals("Incorrect value was returned.", (int) expected.get(i), nearest[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package researchsim.scenario;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+import researchsim.util.BadSaveException;
+import researchsim.util.NoSuchEntityException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class AutopilotTest {
+
+    private Scenario scenario;
+    private User user;
+
+    @Before
+    public void setUp() throws IOException, BadSaveException, NoSuchEntityException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Orienteering");
+        save.add("Width:7");
+        save.add("Height:6");
+        save.add("Seed:2");
+        save.add("=======");
+        save.add("LLLLLLL");
+        save.add("LLLXLLL");
+        save.add("LLLXLLL");
+        save.add("LLLXLLL");
+        save.add("LLLLLLL");
+        save.add("OOOOOOO");
+        save.add("=======");
+        save.add("User-0,0-Bob");
+        save.add("Flora-SMALL-2,2");
+        save.add("Flora-LARGE-6,0");
+        save.add("Flora-MEDIUM-6,4");
+        save.add("Flora-LARGE-0,4");
+        save.add("Fauna-GIANT-3,5-OCEAN");
+        scenario = Scenario.load(new StringReader(save.toString()));
+        user = (User) scenario.getTile(0).getContents();
+    }
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    @Test
+    public void greedyCollectsEveryReachableEntity() {
+        Autopilot autopilot = new Autopilot(user, new GreedyPolicy());
+        for (int turn = 0; turn < 20; turn++) {
+            autopilot.takeTurn();
+        }
+        assertEquals("Incorrect value was returned.", 1 + 3 + 2 + 3,
+            scenario.getLog().getPointsEarned());
+        assertEquals("Incorrect value was returned.", 20, autopilot.getTurns());
+        assertEquals("Incorrect value was returned.", 20,
+            autopilot.getDecisionTimes().getCount());
+    }
+
+    @Test
+    public void routeCollectsEveryReachableEntity() {
+        Autopilot autopilot = new Autopilot(user,
+            new RoutePolicy(new CollectionPlanner(2, 2000, 7), 30));
+        for (int turn = 0; turn < 20; turn++) {
+            autopilot.takeTurn();
+        }
+        assertEquals("Incorrect value was returned.", 1 + 3 + 2 + 3,
+            scenario.getLog().getPointsEarned());
+    }
+
+    @Test
+    public void routeWaitsWhenNothingIsLeftToCollect() {
+        int[] plans = {0};
+        CollectionPlanner planner = new CollectionPlanner(2, 2000, 7) {
+            @Override
+            public synchronized Plan plan(Scenario scenario, User user, int moveBudget) {
+                plans[0]++;
+                return super.plan(scenario, user, moveBudget);
+            }
+        };
+        Autopilot autopilot = new Autopilot(user, new RoutePolicy(planner, 30));
+        for (int turn = 0; turn < 20; turn++) {
+            autopilot.takeTurn();
+        }
+        assertEquals("Incorrect value was returned.", 1 + 3 + 2 + 3,
+            scenario.getLog().getPointsEarned());
+
+        //every plan from now on is empty, so the user only plans again every IDLE_TURNS turns
+        plans[0] = 0;
+        for (int turn = 0; turn < 2 * RoutePolicy.IDLE_TURNS; turn++) {
+            autopilot.takeTurn();
+        }
+        assertEquals("Incorrect value was returned.", 2, plans[0]);
+    }
+
+    @Test
+    public void userFollowedAcrossForks() {
+        Autopilot autopilot = new Autopilot(user, new RandomPolicy(5));
+        for (int turn = 0; turn < 10; turn++) {
+            Scenario fork = scenario.fork();
+            ScenarioManager.getInstance().addScenario(fork);
+            assertTrue("Incorrect value was returned.", autopilot.takeTurn());
+            Coordinate position = autopilot.getPosition();
+            assertTrue("Incorrect value was returned.",
+                fork.getTile(position.getIndex()).hasContents());
+            scenario = fork;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package researchsim.scenario;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+import researchsim.util.BadSaveException;
+import researchsim.util.NoSuchEntityException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class CollectionPlannerTest {
+
+    private Scenario scenario;
+    private User user;
+
+    @Before
+    public void setUp() throws IOException, BadSaveException, NoSuchEntityException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Orienteering");
+        save.add("Width:7");
+        save.add("Height:6");
+        save.add("Seed:2");
+        save.add("=======");
+        save.add("LLLLLLL");
+        save.add("LLLXLLL");
+        save.add("LLLXLLL");
+        save.add("LLLXLLL");
+        save.add("LLLLLLL");
+        save.add("OOOOOOO");
+        save.add("=======");
+        save.add("User-0,0-Bob");
+        save.add("Flora-SMALL-2,2");
+        save.add("Flora-LARGE-6,0");
+        save.add("Flora-MEDIUM-6,4");
+        save.add("Flora-LARGE-0,4");
+        save.add("Fauna-GIANT-3,5-OCEAN");
+        scenario = Scenario.load(new StringReader(save.toString()));
+        user = (User) scenario.getTile(0).getContents();
+    }
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    @Test
+    public void generousBudgetCollectsEveryReachableEntity() {
+        CollectionPlanner.Plan plan = new CollectionPlanner(16, 20000, 7).plan(user, 100);
+        //the OCEAN animal cannot be reached
+        assertEquals("Incorrect value was returned.", 4, plan.getTargets().size());
+        assertEquals("Incorrect value was returned.", 1 + 3 + 2 + 3, plan.getPoints());
+        for (Coordinate move : plan.getMoves()) {
+            assertTrue("Incorrect value was returned.", user.getPossibleMoves().contains(move));
+            user.move(move);
+        }
+        assertEquals("Incorrect value was returned.", plan.getPoints(),
+            scenario.getLog().getPointsEarned());
+    }
+
+    @Test
+    public void budgetLimitsPlan() {
+        CollectionPlanner.Plan plan = new CollectionPlanner(2, 5000, 7).plan(user, 2);
+        assertTrue("Incorrect value was returned.", plan.getMoves().size() <= 2);
+        //the LARGE plant at 6,0 is two moves away, the one at 0,4 is two moves away
+        assertEquals("Incorrect value was returned.", 3, plan.getPoints());
+    }
+
+    @Test
+    public void sameSeedSamePlan() {
+        CollectionPlanner.Plan first = new CollectionPlanner(3, 2000, 11).plan(user, 6);
+        CollectionPlanner.Plan second = new CollectionPlanner(3, 2000, 11).plan(user, 6);
+        assertEquals("Incorrect value was returned.", first.getMoves(), second.getMoves());
+    }
+
+    @Test
+    public void defaultChainsDoNotDependOnMachine() {
+        CollectionPlanner.Plan first = new CollectionPlanner(11).plan(user, 6);
+        CollectionPlanner.Plan second = new CollectionPlanner(CollectionPlanner.DEFAULT_CHAINS,
+            CollectionPlanner.DEFAULT_ITERATIONS, 11).plan(user, 6);
+        assertEquals("Incorrect value was returned.", first.getMoves(), second.getMoves());
+    }
+
+    @Test
+    public void interruptKeepsTourFoundSoFar() {
+        //as when the simulation loop is stopped while a member is planning, with chains still
+        //annealing on other threads
+        Thread.currentThread().interrupt();
+        CollectionPlanner.Plan plan;
+        try {
+            plan = new CollectionPlanner(16, 20000, 7).plan(user, 100);
+        } finally {
+            assertTrue("Incorrect value was returned.", Thread.interrupted());
+        }
+        assertFalse("Incorrect value was returned.", plan.getTargets().isEmpty());
+        assertTrue("Incorrect value was returned.", plan.getPoints() > 0);
+    }
+}
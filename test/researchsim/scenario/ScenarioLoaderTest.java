@@ -0,0 +1,155 @@
+package researchsim.scenario;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import researchsim.map.DistanceOracle;
+import researchsim.util.BadSaveException;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class ScenarioLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    /* Returns a save of a square land map of the given size holding one entity */
+    private static String createScene(String name, int size, String entity) {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add(name);
+        save.add("Width:" + size);
+        save.add("Height:" + size);
+        save.add("Seed:0");
+        save.add("=".repeat(size));
+        for (int i = 0; i < size; i++) {
+            save.add("L".repeat(size));
+        }
+        save.add("=".repeat(size));
+        save.add(entity);
+        return save.toString();
+    }
+
+    /* Writes a save to a new file of the temporary folder */
+    private String writeFile(String name, String save) throws IOException {
+        File file = folder.newFile(name + ".txt");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(save);
+        }
+        return file.getPath();
+    }
+
+    /* Writes a valid save of the given size under the given name */
+    private String writeScene(String name, int size) throws IOException {
+        return writeFile(name, createScene(name, size, "Fauna-SMALL-0,0-LAND"));
+    }
+
+    /* Writes a save that fails to parse under the given name */
+    private String writeBadScene(String name) throws IOException {
+        return writeFile(name, createScene(name, 5, "Fauna-SMALL-9,9-LAND"));
+    }
+
+    @Test
+    public void registersInOrderGiven() throws IOException, BadSaveException {
+        //the larger files take longer to parse, so they tend to finish after the smaller ones
+        List<String> files = List.of(writeScene("Large", 15), writeScene("Medium", 10),
+            writeScene("Small", 5));
+        List<Scenario> scenarios = new ScenarioLoader(3).loadAll(files);
+
+        List<String> names = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            names.add(scenario.getName());
+        }
+        assertEquals("Incorrect value was returned.", List.of("Large", "Medium", "Small"), names);
+        assertEquals("Incorrect value was returned.", names,
+            ScenarioManager.getInstance().getScenarioNames());
+    }
+
+    @Test
+    public void distancesSavedNextToFile() throws IOException, BadSaveException {
+        String file = writeScene("Distances", 6);
+        Scenario scenario = new ScenarioLoader(1).loadAll(List.of(file)).get(0);
+        assertTrue("Incorrect value was returned.",
+            new File(file + DistanceOracle.FILE_EXTENSION).isFile());
+        assertTrue("Incorrect value was returned.",
+            scenario.getDistanceOracle().matches(scenario));
+        //forks share the distances rather than finding them again
+        assertSame("Incorrect value was returned.", scenario.getDistanceOracle(),
+            scenario.fork().getDistanceOracle());
+    }
+
+    @Test
+    public void failureNamesFile() throws IOException {
+        String good = writeScene("Good", 5);
+        String bad = writeBadScene("Bad");
+        try {
+            new ScenarioLoader(2).loadAll(List.of(good, bad));
+            fail("Incorrect value was returned.");
+        } catch (BadSaveException exp) {
+            assertTrue("Incorrect value was returned.", exp.getMessage().startsWith(bad + ": "));
+            assertEquals("Incorrect value was returned.", 0, exp.getSuppressed().length);
+        }
+        //the scenario before the failing file is registered, as with loading in turn
+        assertEquals("Incorrect value was returned.", List.of("Good"),
+            ScenarioManager.getInstance().getScenarioNames());
+    }
+
+    @Test
+    public void laterFailuresAreSuppressed() throws IOException {
+        String good = writeScene("Good", 5);
+        String firstBad = writeBadScene("FirstBad");
+        String later = writeScene("Later", 5);
+        String secondBad = writeBadScene("SecondBad");
+        try {
+            new ScenarioLoader(4).loadAll(List.of(good, firstBad, later, secondBad));
+            fail("Incorrect value was returned.");
+        } catch (BadSaveException exp) {
+            assertTrue("Incorrect value was returned.",
+                exp.getMessage().startsWith(firstBad + ": "));
+            assertEquals("Incorrect value was returned.", 1, exp.getSuppressed().length);
+            assertTrue("Incorrect value was returned.",
+                exp.getSuppressed()[0].getMessage().startsWith(secondBad + ": "));
+        }
+        assertEquals("Incorrect value was returned.", List.of("Good"),
+            ScenarioManager.getInstance().getScenarioNames());
+    }
+
+    @Test
+    public void entityOffMapIsBadSave() throws IOException {
+        String file = writeBadScene("OffMap");
+        try {
+            new ScenarioLoader(1).loadAll(List.of(file));
+            fail("Incorrect value was returned.");
+        } catch (BadSaveException exp) {
+            assertEquals("Incorrect value was returned.", file + ": Entity is not on the map",
+                exp.getMessage());
+        }
+        assertTrue("Incorrect value was returned.",
+            ScenarioManager.getInstance().getScenarioNames().isEmpty());
+    }
+
+    @Test
+    public void unknownSizeIsBadSave() throws IOException {
+        String file = writeFile("unknown", createScene("Unknown", 5, "Flora-HUGE-1,1"));
+        try {
+            new ScenarioLoader(1).loadAll(List.of(file));
+            fail("Incorrect value was returned.");
+        } catch (BadSaveException exp) {
+            assertEquals("Incorrect value was returned.", file + ": Size component invalid",
+                exp.getMessage());
+        }
+    }
+}
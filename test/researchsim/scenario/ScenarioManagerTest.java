@@ -0,0 +1,277 @@
+package researchsim.scenario;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import researchsim.entities.Fauna;
+import researchsim.entities.Size;
+import researchsim.entities.User;
+import researchsim.map.Coordinate;
+import researchsim.map.DistanceOracle;
+import researchsim.util.BadSaveException;
+import researchsim.util.NoSuchEntityException;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class ScenarioManagerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File first;
+    private File second;
+
+    @Before
+    public void setUp() throws IOException {
+        first = writeScene("First");
+        second = writeScene("Second");
+    }
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+        ScenarioManager.getInstance().setMemoryBudget(Long.MAX_VALUE);
+    }
+
+    private static String createScene(String name) {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add(name);
+        save.add("Width:5");
+        save.add("Height:5");
+        save.add("Seed:0");
+        save.add("=====");
+        for (int i = 0; i < 5; i++) {
+            save.add("LLLLL");
+        }
+        save.add("=====");
+        save.add("Fauna-SMALL-0,0-LAND");
+        return save.toString();
+    }
+
+    private File writeScene(String name) throws IOException {
+        File file = folder.newFile(name + ".txt");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(createScene(name));
+        }
+        return file;
+    }
+
+    @Test
+    public void registerDoesNotParse() throws BadSaveException {
+        ScenarioManager manager = ScenarioManager.getInstance();
+        manager.registerScenario("First", first.getPath());
+        manager.registerScenario("Second", second.getPath());
+        assertEquals("Incorrect value was returned.", List.of("First", "Second"),
+            manager.getScenarioNames());
+        assertTrue("Incorrect value was returned.", manager.getLoadedScenarios().isEmpty());
+
+        manager.setScenario("Second");
+        assertEquals("Incorrect value was returned.", "Second",
+            manager.getScenario().getName());
+        assertEquals("Incorrect value was returned.", 1, manager.getLoadedScenarios().size());
+    }
+
+    @Test
+    public void reregisteringCurrentScenarioReloadsIt() throws IOException, BadSaveException {
+        ScenarioManager manager = ScenarioManager.getInstance();
+        manager.registerScenario("First", first.getPath());
+        manager.setScenario("First");
+        Scenario before = manager.getScenario();
+
+        File moved = folder.newFile("Moved.txt");
+        try (Writer writer = new FileWriter(moved)) {
+            writer.write(createScene("First"));
+        }
+        manager.registerScenario("First", moved.getPath());
+        assertTrue("Incorrect value was returned.", manager.getLoadedScenarios().isEmpty());
+
+        //parsed again from the new file when next used
+        Scenario after = manager.getScenario();
+        assertNotSame("Incorrect value was returned.", before, after);
+        assertEquals("Incorrect value was returned.", "First", after.getName());
+        assertSame("Incorrect value was returned.", after,
+            manager.getLoadedScenarios().get("First"));
+    }
+
+    @Test(expected = BadSaveException.class)
+    public void setScenarioNameMismatch() throws BadSaveException {
+        ScenarioManager manager = ScenarioManager.getInstance();
+        manager.registerScenario("Other", first.getPath());
+        manager.setScenario("Other");
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws BadSaveException {
+        ScenarioManager manager = ScenarioManager.getInstance();
+        manager.registerScenario("First", first.getPath());
+        manager.registerScenario("Second", second.getPath());
+        manager.setScenario("First");
+        manager.setScenario("Second");
+        manager.setMemoryBudget(0);
+
+        //only the current scenario is kept
+        assertEquals("Incorrect value was returned.", List.of("Second"),
+            List.copyOf(manager.getLoadedScenarios().keySet()));
+        assertEquals("Incorrect value was returned.", List.of("First", "Second"),
+            manager.getScenarioNames());
+    }
+
+    @Test
+    public void listingLoadedScenariosKeepsRecentUse() throws IOException, BadSaveException {
+        File third = writeScene("Third");
+        ScenarioManager manager = ScenarioManager.getInstance();
+        manager.registerScenario("First", first.getPath());
+        manager.registerScenario("Second", second.getPath());
+        manager.registerScenario("Third", third.getPath());
+        manager.setScenario("First");
+        manager.setScenario("Second");
+        manager.setScenario("First");
+        //room for two of the scenarios
+        manager.setMemoryBudget(manager.getEstimatedUse());
+        manager.getLoadedScenarios();
+
+        manager.setScenario("Third");
+        assertEquals("Incorrect value was returned.", List.of("First", "Third"),
+            List.copyOf(manager.getLoadedScenarios().keySet()));
+    }
+
+    @Test
+    public void evictedDirtyScenarioIsRestored() throws IOException, BadSaveException,
+            NoSuchEntityException {
+        ScenarioManager manager = ScenarioManager.getInstance();
+        Scenario scenario = Scenario.load(new StringReader(createScene("Memory")));
+        Fauna mouse = (Fauna) scenario.getMapGrid()[0].getContents();
+        mouse.move(new Coordinate(1, 1));
+        String expected = scenario.encode();
+
+        manager.registerScenario("First", first.getPath());
+        manager.setScenario("First");
+        manager.setMemoryBudget(0);
+        assertFalse("Incorrect value was returned.",
+            manager.getLoadedScenarios().containsKey("Memory"));
+
+        manager.setScenario("Memory");
+        assertEquals("Incorrect value was returned.", expected,
+            manager.getScenario().encode());
+    }
+
+    @Test
+    public void restoredScenarioUsesSavedDistances() throws IOException, BadSaveException,
+            NoSuchEntityException {
+        ScenarioManager manager = ScenarioManager.getInstance();
+        File distances = new File(first.getPath() + DistanceOracle.FILE_EXTENSION);
+        manager.registerScenario("First", first.getPath());
+        manager.registerScenario("Second", second.getPath());
+        manager.setScenario("First");
+        Fauna mouse = (Fauna) manager.getScenario().getMapGrid()[0].getContents();
+        mouse.move(new Coordinate(1, 1));
+        manager.setScenario("Second");
+        assertTrue("Incorrect value was returned.", distances.delete());
+
+        //First has changed since it was parsed, so it is spilled to a snapshot
+        manager.setMemoryBudget(0);
+        assertFalse("Incorrect value was returned.",
+            manager.getLoadedScenarios().containsKey("First"));
+        manager.setScenario("First");
+        Scenario restored = manager.getScenario();
+        assertEquals("Incorrect value was returned.", new Coordinate(1, 1),
+            restored.getMapGrid()[6].getContents().getCoordinate());
+        //the distances were found again and saved next to its file
+        assertTrue("Incorrect value was returned.", distances.isFile());
+        assertTrue("Incorrect value was returned.",
+            DistanceOracle.read(distances).matches(restored));
+    }
+
+    @Test
+    public void evictedScenarioKeepsLogAndRandomState() throws IOException, BadSaveException,
+            NoSuchEntityException {
+        ScenarioManager manager = ScenarioManager.getInstance();
+        Scenario scenario = Scenario.load(new StringReader(createScene("Memory")
+            + System.lineSeparator() + "Fauna-MEDIUM-4,4-LAND"
+            + System.lineSeparator() + "User-2,2-Bob"
+            + System.lineSeparator() + "Flora-LARGE-2,4"));
+        User user = (User) scenario.getMapGrid()[12].getContents();
+        user.move(new Coordinate(2, 4));
+        for (int i = 0; i < 3; i++) {
+            scenario.getController().move();
+        }
+        String expectedSave = scenario.encode();
+        String expectedLog = scenario.getLog().toString();
+        List<Coordinate> expectedAnimals = new ArrayList<>();
+        for (Fauna animal : scenario.getController().getAnimals()) {
+            expectedAnimals.add(animal.getCoordinate());
+        }
+        //a fork continues from the same random state
+        Random expectedRandom = scenario.fork().getRandom();
+
+        manager.registerScenario("First", first.getPath());
+        manager.setScenario("First");
+        manager.setMemoryBudget(0);
+        assertFalse("Incorrect value was returned.",
+            manager.getLoadedScenarios().containsKey("Memory"));
+
+        manager.setScenario("Memory");
+        Scenario restored = manager.getScenario();
+        assertNotSame("Incorrect value was returned.", scenario, restored);
+        assertEquals("Incorrect value was returned.", expectedSave, restored.encode());
+        assertEquals("Incorrect value was returned.", expectedLog, restored.getLog().toString());
+        assertEquals("Incorrect value was returned.", Size.LARGE.points,
+            restored.getLog().getPointsEarned());
+        assertEquals("Incorrect value was returned.", 1,
+            restored.getLog().getEntitiesCollected());
+        assertEquals("Incorrect value was returned.", scenario.getLog().getTilesTraversed(),
+            restored.getLog().getTilesTraversed());
+        List<Coordinate> animals = new ArrayList<>();
+        for (Fauna animal : restored.getController().getAnimals()) {
+            animals.add(animal.getCoordinate());
+        }
+        assertEquals("Incorrect value was returned.", expectedAnimals, animals);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Incorrect value was returned.", expectedRandom.nextInt(),
+                restored.getRandom().nextInt());
+        }
+    }
+
+    @Test
+    public void contextsAreIsolatedPerThread() throws Exception {
+        Scenario main = new Scenario("Main", 5, 5, 0);
+        ScenarioManager.getInstance().addScenario(main);
+
+        String[] seen = new String[2];
+        Thread[] workers = new Thread[2];
+        for (int i = 0; i < workers.length; i++) {
+            int worker = i;
+            ScenarioManager context = ScenarioManager.createContext();
+            workers[i] = new Thread(() -> context.runInContext(() -> {
+                ScenarioManager.getInstance().addScenario(
+                    new Scenario("Worker" + worker, 6 + worker, 5, 0));
+                //coordinate lookups resolve against this thread's scenario
+                seen[worker] = ScenarioManager.getInstance().getScenario().getName()
+                    + ":" + Coordinate.convert(0, 1);
+            }));
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals("Incorrect value was returned.", "Worker0:6", seen[0]);
+        assertEquals("Incorrect value was returned.", "Worker1:7", seen[1]);
+        assertSame("Incorrect value was returned.", main,
+            ScenarioManager.getInstance().getScenario());
+        assertEquals("Incorrect value was returned.", List.of("Main"),
+            ScenarioManager.getInstance().getScenarioNames());
+    }
+}
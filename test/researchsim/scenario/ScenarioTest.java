@@ -0,0 +1,341 @@
+package researchsim.scenario;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import researchsim.entities.Entity;
+import researchsim.entities.Fauna;
+import researchsim.entities.Flora;
+import researchsim.entities.User;
+import researchsim.logging.Event;
+import researchsim.map.Coordinate;
+import researchsim.map.HabitatComponents;
+import researchsim.map.MoverClass;
+import researchsim.util.BadSaveException;
+import researchsim.util.NoSuchEntityException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class ScenarioTest {
+
+    private String baseSave;
+
+    @Before
+    public void setUp() {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Delta test");
+        save.add("Width:6");
+        save.add("Height:5");
+        save.add("Seed:3");
+        save.add("======");
+        save.add("LLLLLL");
+        save.add("LLLLLL");
+        save.add("SSSSSS");
+        save.add("OOOOOO");
+        save.add("OOOOOO");
+        save.add("======");
+        save.add("Fauna-SMALL-0,0-LAND");
+        save.add("User-5,0-Bob");
+        save.add("Flora-MEDIUM-3,1");
+        save.add("Fauna-LARGE-2,4-OCEAN");
+        baseSave = save.toString();
+    }
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    @Test
+    public void encodeSeparatorMatchesWidth() throws IOException, BadSaveException {
+        Scenario scenario = Scenario.load(new StringReader(baseSave));
+        assertEquals("Incorrect value was returned.", baseSave, scenario.encode());
+    }
+
+    @Test
+    public void encodeDeltaNoChanges() throws IOException, BadSaveException {
+        Scenario scenario = Scenario.load(new StringReader(baseSave));
+        assertNull("Incorrect value was returned.", scenario.encodeDelta(1, 0));
+    }
+
+    @Test
+    public void encodeDeltaOnlyChangedCells() throws IOException, BadSaveException,
+            NoSuchEntityException {
+        Scenario scenario = Scenario.load(new StringReader(baseSave));
+        Fauna mouse = (Fauna) scenario.getMapGrid()[0].getContents();
+        mouse.move(new Coordinate(0, 2));
+
+        StringJoiner expected = new StringJoiner(System.lineSeparator());
+        expected.add("Delta:1");
+        expected.add("======");
+        expected.add("Empty-0,0");
+        expected.add("Fauna-SMALL-0,2-LAND");
+        assertEquals("Incorrect value was returned.", expected.toString(),
+            scenario.encodeDelta(1, 0));
+    }
+
+    @Test
+    public void loadAppliesDeltaChain() throws IOException, BadSaveException,
+            NoSuchEntityException {
+        Scenario scenario = Scenario.load(new StringReader(baseSave));
+        Fauna mouse = (Fauna) scenario.getMapGrid()[0].getContents();
+        mouse.move(new Coordinate(0, 2));
+        String firstDelta = scenario.encodeDelta(1, 0);
+        int checkpoint = scenario.getLog().getEvents().size();
+
+        User user = (User) scenario.getMapGrid()[5].getContents();
+        user.move(new Coordinate(3, 1));
+        String secondDelta = scenario.encodeDelta(2, checkpoint);
+
+        Scenario reloaded = Scenario.load(new StringReader(baseSave
+            + System.lineSeparator() + firstDelta
+            + System.lineSeparator() + secondDelta));
+        assertEquals("Incorrect value was returned.", scenario.encode(), reloaded.encode());
+        assertEquals("Incorrect value was returned.", 2,
+            reloaded.getController().getAnimals().size());
+        assertFalse("Incorrect value was returned.", reloaded.getMapGrid()[0].hasContents());
+    }
+
+    @Test(expected = BadSaveException.class)
+    public void loadDeltaOutOfOrder() throws IOException, BadSaveException,
+            NoSuchEntityException {
+        Scenario scenario = Scenario.load(new StringReader(baseSave));
+        Fauna mouse = (Fauna) scenario.getMapGrid()[0].getContents();
+        mouse.move(new Coordinate(0, 2));
+        Scenario.load(new StringReader(baseSave + System.lineSeparator()
+            + scenario.encodeDelta(2, 0)));
+    }
+
+    @Test(expected = BadSaveException.class)
+    public void loadDeltaBadEmptyCell() throws IOException, BadSaveException {
+        Scenario.load(new StringReader(baseSave + System.lineSeparator()
+            + "Delta:1" + System.lineSeparator()
+            + "======" + System.lineSeparator()
+            + "Empty-9,9"));
+    }
+
+    @Test(expected = BadSaveException.class)
+    public void loadDeltaNegativeNumber() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add(baseSave);
+        //-1 must not be read as a default, which would make it the fifth segment
+        for (String number : new String[] {"1", "2", "3", "4", "-1"}) {
+            save.add("Delta:" + number);
+            save.add("======");
+            save.add("Empty-1,1");
+        }
+        Scenario.load(new StringReader(save.toString()));
+    }
+
+    @Test
+    public void loadDeltaBadNumber() throws IOException {
+        try {
+            Scenario.load(new StringReader(baseSave + System.lineSeparator()
+                + "Delta:one" + System.lineSeparator()
+                + "======" + System.lineSeparator()
+                + "Empty-1,1"));
+            fail("Incorrect value was returned.");
+        } catch (BadSaveException exp) {
+            assertEquals("Incorrect value was returned.", "Bad Delta number format",
+                exp.getMessage());
+        }
+    }
+
+    @Test(expected = BadSaveException.class)
+    public void loadEntityOffMap() throws IOException, BadSaveException {
+        //x is past the edge, though its index is still inside the map
+        Scenario.load(new StringReader(baseSave + System.lineSeparator()
+            + "Flora-SMALL-6,0"));
+    }
+
+    @Test
+    public void forkDoesNotAffectParent() throws IOException, BadSaveException {
+        Scenario parent = Scenario.load(new StringReader(baseSave));
+        String parentSave = parent.encode();
+        Scenario first = parent.fork();
+        Scenario second = parent.fork();
+
+        for (Scenario fork : new Scenario[] {first, second}) {
+            ScenarioManager context = ScenarioManager.createContext();
+            context.addScenario(fork);
+            context.runInContext(() -> {
+                for (int i = 0; i < 20; i++) {
+                    fork.getController().move();
+                }
+            });
+        }
+
+        assertEquals("Incorrect value was returned.", parentSave, parent.encode());
+        assertTrue("Incorrect value was returned.", parent.getLog().getEvents().isEmpty());
+        assertFalse("Incorrect value was returned.", first.getLog().getEvents().isEmpty());
+        //both forks continue from the same random state
+        assertEquals("Incorrect value was returned.", first.encode(), second.encode());
+        assertEquals("Incorrect value was returned.", first.getLog().toString(),
+            second.getLog().toString());
+    }
+
+    @Test
+    public void forksShareMonitor() throws IOException, BadSaveException {
+        Scenario parent = Scenario.load(new StringReader(baseSave));
+        Scenario other = Scenario.load(new StringReader(baseSave));
+        Scenario fork = parent.fork();
+
+        fork.getMonitor().getTickTimes().record(100);
+        assertSame("Incorrect value was returned.", parent.getMonitor(), fork.getMonitor());
+        assertEquals("Incorrect value was returned.", 1,
+            parent.getMonitor().getTickTimes().getCount());
+        assertEquals("Incorrect value was returned.", 0,
+            other.getMonitor().getTickTimes().getCount());
+    }
+
+    @Test
+    public void forkOwnEntity() throws IOException, BadSaveException, NoSuchEntityException {
+        Scenario parent = Scenario.load(new StringReader(baseSave));
+        Fauna mouse = (Fauna) parent.getTile(0).getContents();
+        Scenario fork = parent.fork();
+
+        Entity owned = fork.ownEntity(mouse);
+        assertNotSame("Incorrect value was returned.", mouse, owned);
+        assertEquals("Incorrect value was returned.", mouse, owned);
+        assertSame("Incorrect value was returned.", owned, fork.getTile(0).getContents());
+        assertSame("Incorrect value was returned.", mouse, parent.getTile(0).getContents());
+    }
+
+    @Test
+    public void turnEventsFollowLatestUserEvent() throws IOException, BadSaveException,
+            NoSuchEntityException {
+        Scenario scenario = Scenario.load(new StringReader(baseSave));
+        User user = (User) scenario.getMapGrid()[5].getContents();
+        user.move(new Coordinate(4, 0));
+        assertEquals("Incorrect value was returned.", scenario.getLog().getEvents(),
+            scenario.getLog().getTurnEvents());
+
+        for (int i = 0; i < 5; i++) {
+            scenario.getController().move();
+        }
+        List<Event> events = scenario.getLog().getEvents();
+        assertEquals("Incorrect value was returned.", events.subList(1, events.size()),
+            scenario.getLog().getTurnEvents());
+
+        //a fork keeps the turn, then starts its own
+        Scenario fork = scenario.fork();
+        assertEquals("Incorrect value was returned.", scenario.getLog().getTurnEvents(),
+            fork.getLog().getTurnEvents());
+        ScenarioManager context = ScenarioManager.createContext();
+        context.addScenario(fork);
+        context.runInContext(() -> {
+            try {
+                User forkUser = (User) fork.getTile(4).getContents();
+                forkUser.move(new Coordinate(5, 0));
+            } catch (NoSuchEntityException exp) {
+                fail("Incorrect value was returned.");
+            }
+        });
+        assertEquals("Incorrect value was returned.", 1, fork.getLog().getTurnEvents().size());
+        assertTrue("Incorrect value was returned.",
+            fork.getLog().getTurnEvents().get(0).getEntity() instanceof User);
+    }
+
+    @Test
+    public void componentsFoundOnLoad() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Islands");
+        save.add("Width:5");
+        save.add("Height:5");
+        save.add("Seed:1");
+        save.add("=====");
+        save.add("LLOLL");
+        save.add("LLOXX");
+        save.add("OOOXS");
+        save.add("SOOOO");
+        save.add("SOLOO");
+        save.add("=====");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+        HabitatComponents components = scenario.getComponents();
+
+        assertEquals("Incorrect value was returned.", 5,
+            components.getComponentCount(MoverClass.USER));
+        assertEquals("Incorrect value was returned.", 4,
+            components.getComponentCount(MoverClass.LAND_FAUNA));
+        assertEquals("Incorrect value was returned.", 1,
+            components.getComponentCount(MoverClass.OCEAN_FAUNA));
+        assertFalse("Incorrect value was returned.", components.isConnected(MoverClass.USER,
+            new Coordinate(0, 0), new Coordinate(4, 0)));
+        assertTrue("Incorrect value was returned.", components.isConnected(
+            MoverClass.LAND_FAUNA, new Coordinate(4, 0), new Coordinate(4, 2)));
+        assertSame("Incorrect value was returned.", components,
+            scenario.fork().getComponents());
+    }
+
+    @Test
+    public void animalMovesMatchPossibleMoves() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Crowded");
+        save.add("Width:7");
+        save.add("Height:6");
+        save.add("Seed:9");
+        save.add("=======");
+        save.add("LLSXLOO");
+        save.add("LXLLSOO");
+        save.add("SLLXOOO");
+        save.add("LLOOOSL");
+        save.add("LOOXLLL");
+        save.add("OOOLLSL");
+        save.add("=======");
+        save.add("Fauna-SMALL-0,0-LAND");
+        save.add("Fauna-SMALL-2,1-LAND");
+        save.add("Fauna-MEDIUM-1,2-LAND");
+        save.add("Fauna-LARGE-5,5-LAND");
+        save.add("Fauna-SMALL-5,0-OCEAN");
+        save.add("Fauna-GIANT-4,3-OCEAN");
+        save.add("Fauna-MEDIUM-2,4-OCEAN");
+        save.add("Flora-SMALL-6,3");
+        save.add("User-0,3-Bob");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+
+        for (int tick = 0; tick < 10; tick++) {
+            for (boolean parallel : new boolean[] {false, true}) {
+                MoveTable table = scenario.getAnimalMoves(parallel);
+                int total = 0;
+                for (int animal = 0; animal < table.getAnimalCount(); animal++) {
+                    List<Coordinate> expected = table.getAnimal(animal).getPossibleMoves();
+                    assertEquals("Incorrect value was returned.", expected.size(),
+                        table.getMoveCount(animal));
+                    for (int move = 0; move < expected.size(); move++) {
+                        assertEquals("Incorrect value was returned.", expected.get(move),
+                            table.getMoveCoordinate(animal, move));
+                    }
+                    total += expected.size();
+                }
+                assertEquals("Incorrect value was returned.", total, table.getTotalMoves());
+            }
+            scenario.getController().move();
+        }
+    }
+
+    @Test
+    public void nearestEntityFollowsCollection() throws IOException, BadSaveException,
+            NoSuchEntityException {
+        Scenario scenario = Scenario.load(new StringReader(baseSave));
+        User user = (User) scenario.getTile(5).getContents();
+        List<Entity> nearest = scenario.findNearest(user.getCoordinate(), 1,
+            entity -> entity instanceof Flora || entity instanceof Fauna);
+        assertEquals("Incorrect value was returned.", new Coordinate(3, 1),
+            nearest.get(0).getCoordinate());
+
+        user.move(new Coordinate(3, 1));
+        nearest = scenario.findNearest(user.getCoordinate(), 1,
+            entity -> entity instanceof Flora || entity instanceof Fauna);
+        assertEquals("Incorrect value was returned.", new Coordinate(0, 0),
+            nearest.get(0).getCoordinate());
+        //the user itself and the two animals
+        assertEquals("Incorrect value was returned.", 3,
+            scenario.findWithin(user.getCoordinate(), 4, entity -> true).size());
+        assertEquals("Incorrect value was returned.", List.of(user), scenario.getUsers());
+    }
+}
@@ -0,0 +1,131 @@
+package researchsim.scenario;
+
+import org.junit.After;
+import org.junit.Test;
+import researchsim.util.BadSaveException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.StringJoiner;
+
+import static org.junit.Assert.*;
+
+public class SimulationLoopTest {
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    private static Scenario createScenario(String... entities)
+            throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Loop");
+        save.add("Width:5");
+        save.add("Height:5");
+        save.add("Seed:2");
+        save.add("=====");
+        for (int i = 0; i < 5; i++) {
+            save.add("LLLLL");
+        }
+        save.add("=====");
+        save.add("Fauna-SMALL-0,0-LAND");
+        save.add("Fauna-MEDIUM-4,4-LAND");
+        for (String entity : entities) {
+            save.add(entity);
+        }
+        return Scenario.load(new StringReader(save.toString()));
+    }
+
+    @Test
+    public void latestSnapshotMatchesStoppedScenario() throws Exception {
+        Scenario scenario = createScenario();
+        SimulationLoop loop = new SimulationLoop(scenario, 1000);
+        loop.start();
+        while (loop.getTicks() < 20) {
+            Thread.sleep(1);
+        }
+        loop.stop();
+
+        assertFalse("Incorrect value was returned.", loop.isRunning());
+        Scenario snapshot = loop.takeSnapshot();
+        assertNotNull("Incorrect value was returned.", snapshot);
+        assertNotSame("Incorrect value was returned.", scenario, snapshot);
+        assertTrue("Incorrect value was returned.", snapshot.isSameLineage(scenario));
+        assertEquals("Incorrect value was returned.", scenario.encode(), snapshot.encode());
+        assertEquals("Incorrect value was returned.", scenario.getLog().toString(),
+            snapshot.getLog().toString());
+        //the snapshot is only handed out once
+        assertNull("Incorrect value was returned.", loop.takeSnapshot());
+    }
+
+    @Test(timeout = 60000)
+    public void longRunPublishesOnlyWhenTaken() throws Exception {
+        Scenario scenario = createScenario();
+        SimulationLoop loop = new SimulationLoop(scenario, 1_000_000);
+        loop.start();
+        long taken = 0;
+        int lastEvents = 0;
+        while (loop.getTicks() < 50_000) {
+            Scenario snapshot = loop.takeSnapshot();
+            if (snapshot != null) {
+                taken++;
+                int events = snapshot.getLog().getEvents().size();
+                assertTrue("Incorrect value was returned.", events >= lastEvents);
+                lastEvents = events;
+            }
+            //a reader much slower than the loop, as the view is
+            Thread.sleep(1);
+        }
+        loop.stop();
+
+        assertTrue("Incorrect value was returned.", taken > 0);
+        //the snapshot left untaken is replaced by the final state
+        Scenario last = loop.takeSnapshot();
+        assertEquals("Incorrect value was returned.", scenario.encode(), last.encode());
+        assertEquals("Incorrect value was returned.", scenario.getLog().toString(),
+            last.getLog().toString());
+    }
+
+    @Test(timeout = 60000)
+    public void teamTakesTurnsEveryTick() throws Exception {
+        String[] users = {"User-2,2-Bob", "Flora-LARGE-2,4", "Flora-SMALL-4,0"};
+        Scenario scenario = createScenario(users);
+        UserTeam team = UserTeam.ofEveryUser(scenario, "greedy", new Random(3));
+        SimulationLoop loop = new SimulationLoop(scenario, 1000);
+        loop.setTeam(team);
+        loop.start();
+        while (loop.getTicks() < 20) {
+            Thread.sleep(1);
+        }
+        loop.stop();
+        long ticks = loop.getTicks();
+        assertEquals("Incorrect value was returned.", ticks, team.getRounds());
+        assertTrue("Incorrect value was returned.", team.getPointsEarned() > 0);
+
+        //ticking by hand gives the same result as the loop
+        Scenario replay = createScenario(users);
+        UserTeam replayTeam = UserTeam.ofEveryUser(replay, "greedy", new Random(3));
+        ScenarioManager context = ScenarioManager.createContext();
+        context.addScenario(replay);
+        context.runInContext(() -> {
+            for (long i = 0; i < ticks; i++) {
+                replayTeam.takeTurns();
+                replay.getController().move();
+            }
+        });
+        assertEquals("Incorrect value was returned.", replayTeam.getPointsEarned(),
+            team.getPointsEarned());
+        assertEquals("Incorrect value was returned.", replay.encode(), scenario.encode());
+        assertEquals("Incorrect value was returned.", replay.getLog().getEvents().size(),
+            scenario.getLog().getEvents().size());
+        assertEquals("Incorrect value was returned.", scenario.encode(),
+            loop.takeSnapshot().encode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTickRate() throws IOException, BadSaveException {
+        new SimulationLoop(createScenario(), 0);
+    }
+}
@@ -0,0 +1,134 @@
+package researchsim.scenario;
+
+import org.junit.After;
+import org.junit.Test;
+import researchsim.entities.User;
+import researchsim.logging.LatencyRecorder;
+import researchsim.map.Coordinate;
+import researchsim.util.BadSaveException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class UserTeamTest {
+
+    @After
+    public void tearDown() {
+        ScenarioManager.getInstance().reset();
+    }
+
+    /* A team of every user on the scenario, each driven by its own policy */
+    private static UserTeam team(Scenario scenario, boolean parallel,
+                                 Supplier<UserPolicy> policies) {
+        List<Autopilot> members = new ArrayList<>();
+        for (User user : scenario.getUsers()) {
+            members.add(new Autopilot(user, policies.get()));
+        }
+        return new UserTeam(members, parallel);
+    }
+
+    /* A team of every user on the scenario, each driven by a greedy policy */
+    private static UserTeam greedyTeam(Scenario scenario, boolean parallel) {
+        return team(scenario, parallel, GreedyPolicy::new);
+    }
+
+    @Test
+    public void nearestOrFirstMemberWinsContestedEntity() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Contest");
+        save.add("Width:7");
+        save.add("Height:5");
+        save.add("Seed:1");
+        save.add("=======");
+        for (int y = 0; y < 5; y++) {
+            save.add("LLLLLLL");
+        }
+        save.add("=======");
+        save.add("User-0,2-Ann");
+        save.add("User-6,2-Ben");
+        save.add("Flora-SMALL-3,2");
+        Scenario scenario = Scenario.load(new StringReader(save.toString()));
+        UserTeam team = greedyTeam(scenario, true);
+
+        //both users are three tiles from the plant, so the first in this round's order wins
+        team.takeTurns();
+        assertEquals("Incorrect value was returned.", 1, team.getConflicts());
+        assertEquals("Incorrect value was returned.", 1,
+            team.getMembers().get(0).getPointsEarned());
+        assertEquals("Incorrect value was returned.", 0,
+            team.getMembers().get(1).getPointsEarned());
+        assertEquals("Incorrect value was returned.", 1, scenario.getLog().getPointsEarned());
+        assertEquals("Incorrect value was returned.", 2, scenario.getUsers().size());
+    }
+
+    /* Loads a crowded map of 40 users and 60 plants, split by walls */
+    private static Scenario loadCrowd() throws IOException, BadSaveException {
+        StringJoiner save = new StringJoiner(System.lineSeparator());
+        save.add("Crowd");
+        save.add("Width:15");
+        save.add("Height:15");
+        save.add("Seed:4");
+        save.add("===============");
+        for (int y = 0; y < 15; y++) {
+            save.add(y % 5 == 2 ? "LLLLLLLXLLLLLLL" : "LLLLLLLLLLLLLLL");
+        }
+        save.add("===============");
+        Random random = new Random(9);
+        boolean[] taken = new boolean[15 * 15];
+        for (int i = 0; i < 100; i++) {
+            int index;
+            do {
+                index = random.nextInt(taken.length);
+            } while (taken[index] || index % 15 == 7 && index / 15 % 5 == 2);
+            taken[index] = true;
+            save.add(i < 40 ? "User-" + index % 15 + "," + index / 15 + "-u" + i
+                : "Flora-SMALL-" + index % 15 + "," + index / 15);
+        }
+        return Scenario.load(new StringReader(save.toString()));
+    }
+
+    /* Runs a crowded team for some rounds and returns the final state with its conflicts */
+    private static String runCrowd(boolean parallel) throws IOException, BadSaveException {
+        Scenario scenario = loadCrowd();
+        UserTeam team = greedyTeam(scenario, parallel);
+        for (int round = 0; round < 12; round++) {
+            team.takeTurns();
+            assertEquals("Incorrect value was returned.", 40, scenario.getUsers().size());
+        }
+        assertEquals("Incorrect value was returned.", team.getPointsEarned(),
+            scenario.getLog().getPointsEarned());
+        return scenario.encode() + team.getConflicts();
+    }
+
+    @Test
+    public void parallelTurnsMatchSequentialTurns() throws IOException, BadSaveException {
+        String sequential = runCrowd(false);
+        ScenarioManager.getInstance().reset();
+        assertEquals("Incorrect value was returned.", sequential, runCrowd(true));
+    }
+
+    @Test
+    public void everyParallelDecisionIsRecorded() throws IOException, BadSaveException {
+        Scenario scenario = loadCrowd();
+        LatencyRecorder decisions = scenario.getMonitor().getDecisionTimes();
+        UserTeam team = team(scenario, true,
+            () -> new RoutePolicy(new CollectionPlanner(1, 500, 5), 20));
+        for (int round = 1; round <= 3; round++) {
+            team.takeTurns();
+            //only this scenario's decisions are recorded in its monitor
+            assertEquals("Incorrect value was returned.", 40L * round, decisions.getCount());
+        }
+        for (Autopilot member : team.getMembers()) {
+            assertEquals("Incorrect value was returned.", 3, member.getTurns());
+            assertEquals("Incorrect value was returned.", 3,
+                member.getDecisionTimes().getCount());
+        }
+    }
+}